@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import frontier.db.FRDatabaseUtils.DatabaseFormatConvertible;
+
+
+/**
+ * JavaBeanのプロパティ情報。<br>
+ * <br>
+ * プロパティ名、getterメソッド、宣言型、データベース形式への変換処理を保持する。<br>
+ * クラスごとに 1 度だけ作成してキャッシュするため、<br>
+ * 値の取得時にメソッドの検索を行わない。<br>
+ * {@link Object} で宣言されたメソッド ({@code getClass()}) はプロパティとしない。<br>
+ * <br>
+ * 作成後は不変のため、複数スレッドから同時に利用できる。<br>
+ *
+ * @author Kou
+ *
+ */
+final class BeanProperty {
+
+
+    /**
+     * getterメソッドの接頭語
+     */
+    private static final String[]       PREFIX_GETTER = new String[] {
+
+        "get",
+        "is",
+
+    };
+
+    /**
+     * クラスごとのプロパティ一覧のキャッシュ
+     */
+    private static final Map<Class<?>, BeanProperty[]>  CACHE_PROPERTIES =
+        new WeakHashMap<Class<?>, BeanProperty[]>();
+
+
+    /**
+     * プロパティ名
+     */
+    private final String                        propertyName;
+
+    /**
+     * getterメソッド
+     */
+    private final Method                        getterMethod;
+
+    /**
+     * 宣言型
+     */
+    private final Class<?>                      propertyType;
+
+    /**
+     * データベース形式への変換処理。宣言型から決まらない場合は null
+     */
+    private final DatabaseFormatConvertible     conversion;
+
+    /**
+     * 値の実際の型から変換処理を決定するかどうか
+     */
+    private final boolean                       dynamicConversion;
+
+
+
+
+    /**
+     * プロパティ情報を作成する。
+     *
+     * @param name      プロパティ名
+     * @param method    getterメソッド
+     */
+    private BeanProperty(
+            final String    name,
+            final Method    method
+            ) {
+
+        final Class<?>  type = method.getReturnType();
+
+        propertyName        = name;
+        getterMethod        = method;
+        propertyType        = type;
+        conversion          = FRDatabaseUtils.getDatabaseConversion(toWrapperType(type));
+
+        // 宣言型から変換処理が決まらず、サブクラスの値を取り得る場合は値の型で決定する
+        dynamicConversion   = (conversion == null)
+            && !type.isPrimitive()
+            && !Modifier.isFinal(type.getModifiers());
+
+    }
+
+
+    /**
+     * 指定クラスのプロパティ一覧を取得する。<br>
+     * <br>
+     * 引数なしで値を返す公開インスタンスgetterメソッドをプロパティとする。<br>
+     * 返却した配列は共有されるため、変更しないこと。<br>
+     *
+     * @param clazz プロパティ取得元クラス
+     * @return プロパティ一覧
+     * @throws ReflectException メソッド取得に失敗した場合
+     */
+    static BeanProperty[] getProperties(
+            final Class<?>  clazz
+            ) throws ReflectException {
+
+        synchronized (CACHE_PROPERTIES) {
+
+            // キャッシュからプロパティ一覧を取得する
+            final BeanProperty[]    cacheProperties = CACHE_PROPERTIES.get(clazz);
+
+            // キャッシュされている場合
+            if (cacheProperties != null) {
+
+                return cacheProperties;
+
+            }
+
+        }
+
+
+        final List<BeanProperty>    properties = new ArrayList<BeanProperty>();
+
+        try {
+
+            // 全公開メソッド分処理をする
+            for (final Method method : clazz.getMethods()) {
+
+                // プロパティ名を取得する
+                final String    name = toPropertyName(method);
+
+                // getterメソッドではない場合
+                if (name == null) {
+
+                    // 次のメソッドへ
+                    continue;
+
+                }
+
+                // アクセス可能に設定する
+                method.setAccessible(true);
+
+                // プロパティを追加する
+                properties.add(new BeanProperty(name, method));
+
+            }
+
+        } catch (final Throwable e) {
+
+            throw new ReflectException(e);
+
+        }
+
+
+        final BeanProperty[]    retProperties = properties.toArray(new BeanProperty[properties.size()]);
+
+        synchronized (CACHE_PROPERTIES) {
+
+            // キャッシュへ追加する
+            CACHE_PROPERTIES.put(clazz, retProperties);
+
+        }
+
+        // 作成したプロパティ一覧を返す
+        return retProperties;
+
+    }
+
+
+    /**
+     * 指定メソッドがgetterメソッドの場合はプロパティ名を取得する。
+     *
+     * @param method 判定するメソッド
+     * @return プロパティ名。getterメソッドではない場合は null
+     */
+    private static String toPropertyName(
+            final Method    method
+            ) {
+
+        // Objectのメソッド、staticメソッド、引数あり、戻り値なしの場合
+        if ((method.getDeclaringClass() == Object.class)
+                || Modifier.isStatic(method.getModifiers())
+                || (method.getParameterTypes().length != 0)
+                || (method.getReturnType() == void.class)) {
+
+            // getterメソッドではない
+            return null;
+
+        }
+
+        final String    methodName = method.getName();
+
+        // getter接頭語分繰り返す
+        for (final String prefix : PREFIX_GETTER) {
+
+            // 接頭語で始まり、プロパティ名がある場合
+            if (methodName.startsWith(prefix) && (methodName.length() > prefix.length())) {
+
+                // 接頭語を除去して返す
+                return StringUtils.toLowerCaseFront(methodName.substring(prefix.length()));
+
+            }
+
+        }
+
+        // getterメソッドではない
+        return null;
+
+    }
+
+
+    /**
+     * 指定された型がプリミティブ型の場合はラッパー型を取得する。
+     *
+     * @param type 型
+     * @return ラッパー型。プリミティブ型でない場合は指定された型
+     */
+    private static Class<?> toWrapperType(
+            final Class<?>  type
+            ) {
+
+        // boolean の場合
+        if (type == boolean.class) {
+
+            return Boolean.class;
+
+        }
+
+        // その他の型はそのまま返す
+        return type;
+
+    }
+
+
+    /**
+     * プロパティ名を取得する。
+     *
+     * @return プロパティ名
+     */
+    String getName() {
+
+        return propertyName;
+
+    }
+
+
+    /**
+     * 宣言型を取得する。
+     *
+     * @return 宣言型
+     */
+    Class<?> getType() {
+
+        return propertyType;
+
+    }
+
+
+    /**
+     * 指定JavaBeanからプロパティの値を取得する。
+     *
+     * @param bean 値の取得元JavaBean
+     * @return プロパティの値
+     * @throws ReflectException getterメソッドの実行に失敗した場合
+     */
+    Object getValue(
+            final Object    bean
+            ) throws ReflectException {
+
+        try {
+
+            // getterメソッドを実行する
+            return getterMethod.invoke(bean);
+
+        } catch (final Throwable e) {
+
+            throw new ReflectException(e);
+
+        }
+
+    }
+
+
+    /**
+     * 指定JavaBeanからプロパティの値をデータベース形式で取得する。
+     *
+     * @param bean 値の取得元JavaBean
+     * @return データベース形式へ変換したプロパティの値
+     * @throws ReflectException getterメソッドの実行に失敗した場合
+     */
+    Object getDatabaseValue(
+            final Object    bean
+            ) throws ReflectException {
+
+        final Object    value = getValue(bean);
+
+        // 値が null の場合
+        if (value == null) {
+
+            return null;
+
+        }
+
+        // 変換処理がある場合
+        if (conversion != null) {
+
+            // 変換して返す
+            return conversion.convertDatabaseFormat(value);
+
+        }
+
+        // 値の型で変換処理を決定する場合
+        if (dynamicConversion) {
+
+            final DatabaseFormatConvertible     valueConversion =
+                FRDatabaseUtils.getDatabaseConversion(value.getClass());
+
+            // 変換処理がある場合
+            if (valueConversion != null) {
+
+                // 変換して返す
+                return valueConversion.convertDatabaseFormat(value);
+
+            }
+
+        }
+
+        // そのまま返す
+        return value;
+
+    }
+
+
+}
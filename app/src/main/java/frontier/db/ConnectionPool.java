@@ -0,0 +1,1012 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+
+/**
+ * データベース接続プール。<br>
+ * <br>
+ * 1 つのデータベースファイルに対して、書き込み用接続 1 つと<br>
+ * 複数の読み込み専用接続を保持する。<br>
+ * 書き込み用接続は書き込みを行う全てのセッションで共有し、<br>
+ * 読み込み専用接続は利用中のセッションが占有する。<br>
+ * <br>
+ * 利用されていない接続は待機時間を超えた時点で閉じられる。<br>
+ * <br>
+ * WALモードが有効な場合は書き込み用接続でジャーナルモードをWALへ変更し、<br>
+ * 読み込み専用接続を書き込み中でも並行して参照できるようにする。<br>
+ *
+ * @author Kou
+ *
+ */
+final class ConnectionPool {
+
+
+    /**
+     * デフォルトの最大接続数 (書き込み用接続を含む)
+     */
+    static final int                DEFAULT_MAX_SIZE        = 4;
+
+    /**
+     * デフォルトの最大待機時間 (ミリ秒)
+     */
+    static final long               DEFAULT_IDLE_TIMEOUT    = 30000;
+
+    /**
+     * デフォルトの自動チェックポイント間隔 (ページ数)
+     */
+    static final int                DEFAULT_WAL_AUTOCHECKPOINT = 1000;
+
+
+    /**
+     * WALモードへ変更するSQL文
+     */
+    private static final String     SQL_JOURNAL_MODE_WAL        = "PRAGMA journal_mode=WAL";
+
+    /**
+     * 通常のジャーナルモードへ戻すSQL文
+     */
+    private static final String     SQL_JOURNAL_MODE_DELETE     = "PRAGMA journal_mode=DELETE";
+
+    /**
+     * 自動チェックポイント間隔を設定するSQL文のフォーマット
+     */
+    private static final String     SQL_WAL_AUTOCHECKPOINT      = "PRAGMA wal_autocheckpoint=%d";
+
+    /**
+     * WALモードを表すジャーナルモード名
+     */
+    private static final String     JOURNAL_MODE_WAL            = "wal";
+
+
+    /**
+     * プールのロックオブジェクト
+     */
+    private final Object            poolLock = new Object();
+
+    /**
+     * 最大接続数 (書き込み用接続を含む)
+     */
+    private int                     maxSize = DEFAULT_MAX_SIZE;
+
+    /**
+     * 最大待機時間 (ミリ秒)
+     */
+    private long                    idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    /**
+     * 接続ごとのコンパイル済みステートメントの最大キャッシュ数
+     */
+    private int                     statementCacheSize = FRDatabaseSession.DEFAULT_STATEMENT_CACHE_SIZE;
+
+    /**
+     * WALモードを利用するかどうか
+     */
+    private boolean                 walEnabled;
+
+    /**
+     * 自動チェックポイント間隔 (ページ数)
+     */
+    private int                     walAutoCheckpoint = DEFAULT_WAL_AUTOCHECKPOINT;
+
+    /**
+     * データベースファイルがWALモードで動作しているかどうか
+     */
+    private boolean                 walActive;
+
+    /**
+     * 書き込み用接続のセッション
+     */
+    private FRDatabaseSession       writerSession;
+
+    /**
+     * 書き込み用接続が利用されなくなった時刻
+     */
+    private long                    writerIdleTime;
+
+    /**
+     * プールが保持している読み込み専用接続のセッション一覧
+     */
+    private final Set<FRDatabaseSession> readerSessions = new HashSet<FRDatabaseSession>();
+
+    /**
+     * 利用されていない読み込み専用接続一覧 (利用されなくなった順)
+     */
+    private final LinkedList<IdleSession> idleReaders = new LinkedList<IdleSession>();
+
+    /**
+     * 接続処理中の読み込み専用接続数
+     */
+    private int                     openingReaders;
+
+    /**
+     * 貸し出し中のセッションと貸し出し数のテーブル
+     */
+    private final Map<FRDatabaseSession, Integer> borrowCounts =
+        new IdentityHashMap<FRDatabaseSession, Integer>();
+
+    /**
+     * スレッドごとの作業単位のセッション
+     */
+    private final ThreadLocal<BoundSession> boundSessions = new ThreadLocal<BoundSession>();
+
+
+
+
+    /**
+     * 指定されたデータベースファイルへのセッションをプールから取得する。<br>
+     * <br>
+     * 読み込み専用の場合は、利用されていない読み込み専用接続を取得する。<br>
+     * 全ての読み込み専用接続が利用中で最大接続数に達している場合は返却されるまで待機する。<br>
+     * 最大接続数が 1 の場合は読み込み専用であっても書き込み用接続を共有する。<br>
+     *
+     * @param path      データベースファイルのパス
+     * @param readOnly  読み込み専用で接続するかどうか
+     * @return プールから取得したセッション
+     * @throws IllegalStateException 待機中に割り込みが発生した場合
+     */
+    FRDatabaseSession acquire(
+            final String    path,
+            final boolean   readOnly
+            ) {
+
+        final List<FRDatabaseSession>   expiredSessions = new ArrayList<FRDatabaseSession>();
+        final int                       cacheSize;
+        final boolean                   walReader;
+
+        try {
+
+            // プールをロックする
+            synchronized (poolLock) {
+
+                // 待機時間を超えた接続を取り出す
+                collectExpiredSessions(SystemClock.uptimeMillis(), expiredSessions);
+
+                // 書き込み用接続を利用する場合
+                if (!readOnly || (maxSize <= 1)) {
+
+                    // 書き込み用接続を開く
+                    openWriterSession(path);
+
+                    // 書き込み用接続を貸し出す
+                    return borrow(writerSession);
+
+                }
+
+
+                // WALモードを利用する場合
+                if (walEnabled) {
+
+                    // 読み込み専用接続より先にジャーナルモードを確定させる
+                    openWriterSession(path);
+
+                }
+
+
+                // 読み込み専用接続が利用可能になるまで繰り返す
+                while (idleReaders.isEmpty()
+                        && (readerSessions.size() + openingReaders + 1 >= maxSize)) {
+
+                    // 接続が返却されるまで待機する
+                    poolLock.wait();
+
+                }
+
+                // 利用されていない読み込み専用接続がある場合
+                if (!idleReaders.isEmpty()) {
+
+                    // 最後に利用された接続を貸し出す
+                    return borrow(idleReaders.removeLast().session);
+
+                }
+
+                // 新しい接続を開く準備をする
+                openingReaders++;
+                cacheSize = statementCacheSize;
+                walReader = walActive;
+
+            }
+
+        } catch (final InterruptedException e) {
+
+            // 割り込み状態を戻して例外とする
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+
+        } finally {
+
+            // 待機時間を超えた接続を閉じる
+            closeSessions(expiredSessions);
+
+        }
+
+
+        FRDatabaseSession   session = null;     // 新しい読み込み専用接続
+
+        try {
+
+            // ロック外で読み込み専用接続を開く
+            // (WALモードでは共有メモリファイルを扱えるよう読み書き可能で開き、参照のみに利用する)
+            session = openSession(path, !walReader, cacheSize);
+
+        } finally {
+
+            // プールをロックする
+            synchronized (poolLock) {
+
+                // 接続処理中の数を戻す
+                openingReaders--;
+
+                // 接続に成功した場合
+                if (session != null) {
+
+                    // プールへ追加する
+                    readerSessions.add(session);
+                    borrow(session);
+
+                } else {
+
+                    // 待機中のスレッドへ通知する
+                    poolLock.notifyAll();
+
+                }
+
+            }
+
+        }
+
+        // 開いた接続を返す
+        return session;
+
+    }
+
+
+    /**
+     * 指定されたデータベースファイルへの読み込み専用の作業単位のセッションをプールから取得する。<br>
+     * <br>
+     * WALモードで動作している場合は読み込み専用接続を取得する。<br>
+     * WALモードで動作していない場合は書き込み用接続を取得する。<br>
+     * 通常のジャーナルモードでは読み込みトランザクション中の接続が共有ロックを保持し続け、<br>
+     * 同じスレッドや他のスレッドの書き込み用接続のコミットが完了できなくなるためである。<br>
+     *
+     * @param path データベースファイルのパス
+     * @return プールから取得したセッション
+     * @throws IllegalStateException 待機中に割り込みが発生した場合
+     */
+    FRDatabaseSession acquireReadOnlyUnit(
+            final String    path
+            ) {
+
+        final boolean   walReader;  // 読み込み専用接続を利用するかどうか
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            // WALモードを利用する場合
+            if (walEnabled) {
+
+                // ジャーナルモードを確定させる
+                openWriterSession(path);
+
+            }
+
+            walReader = walEnabled && walActive;
+
+        }
+
+        return acquire(path, walReader);
+
+    }
+
+
+    /**
+     * {@link #acquire(String, boolean)} で取得したセッションを返却する。<br>
+     * <br>
+     * プールが破棄済みのセッションの場合は接続を閉じる。<br>
+     *
+     * @param session 返却するセッション
+     */
+    void release(
+            final FRDatabaseSession session
+            ) {
+
+        final List<FRDatabaseSession>   closeSessions = new ArrayList<FRDatabaseSession>();
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            final Integer   count = borrowCounts.get(session);
+
+            // 貸し出していないセッションの場合は処理をしない
+            if (count == null) {
+
+                return;
+
+            }
+
+            // まだ他で利用されている場合
+            if (count.intValue() > 1) {
+
+                // 貸し出し数を減らす
+                borrowCounts.put(session, Integer.valueOf(count.intValue() - 1));
+                return;
+
+            }
+
+
+            final long      now = SystemClock.uptimeMillis();
+
+            // 貸し出し中から削除する
+            borrowCounts.remove(session);
+
+            // 書き込み用接続の場合
+            if (session == writerSession) {
+
+                // 待機開始時刻を設定する
+                writerIdleTime = now;
+
+            } else if (readerSessions.contains(session)) {
+
+                // 利用されていない接続として保持する
+                idleReaders.addLast(new IdleSession(session, now));
+
+                // 待機中のスレッドへ通知する
+                poolLock.notifyAll();
+
+            } else {
+
+                // プールから破棄済みの接続は閉じる
+                closeSessions.add(session);
+
+            }
+
+            // 待機時間を超えた接続を取り出す
+            collectExpiredSessions(now, closeSessions);
+
+        }
+
+        // 取り出した接続を閉じる
+        closeSessions(closeSessions);
+
+    }
+
+
+    /**
+     * 利用されていない全ての接続を閉じる。<br>
+     * <br>
+     * 利用中の接続はプールから破棄し、返却された時点で閉じる。<br>
+     * データベースファイルを置き換える前に呼び出すこと。<br>
+     *
+     */
+    void evictAll() {
+
+        final List<FRDatabaseSession>   closeSessions = new ArrayList<FRDatabaseSession>();
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            // 書き込み用接続がある場合
+            if (writerSession != null) {
+
+                // 利用されていない場合
+                if (!borrowCounts.containsKey(writerSession)) {
+
+                    // 閉じる対象とする
+                    closeSessions.add(writerSession);
+
+                }
+
+                // プールから破棄する
+                writerSession = null;
+
+            }
+
+            // 利用されていない読み込み専用接続分処理をする
+            for (final IdleSession idleSession : idleReaders) {
+
+                // 閉じる対象とする
+                closeSessions.add(idleSession.session);
+
+            }
+
+            // 全ての読み込み専用接続をプールから破棄する
+            idleReaders.clear();
+            readerSessions.clear();
+
+            // 待機中のスレッドへ通知する
+            poolLock.notifyAll();
+
+        }
+
+        // 取り出した接続を閉じる
+        closeSessions(closeSessions);
+
+    }
+
+
+    /**
+     * 最大接続数を設定する。
+     *
+     * @param size 最大接続数 (書き込み用接続を含む)
+     * @throws IllegalArgumentException 最大接続数が 1 より小さい場合
+     */
+    void setMaxSize(
+            final int   size
+            ) {
+
+        // 引数が不正の場合は例外
+        if (size < 1) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            maxSize = size;
+
+            // 待機中のスレッドへ通知する
+            poolLock.notifyAll();
+
+        }
+
+    }
+
+
+    /**
+     * 最大接続数を取得する。
+     *
+     * @return 最大接続数 (書き込み用接続を含む)
+     */
+    int getMaxSize() {
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            return maxSize;
+
+        }
+
+    }
+
+
+    /**
+     * 利用されていない接続を閉じるまでの最大待機時間を設定する。
+     *
+     * @param timeout 最大待機時間 (ミリ秒)
+     * @throws IllegalArgumentException 最大待機時間が 0 より小さい場合
+     */
+    void setIdleTimeout(
+            final long  timeout
+            ) {
+
+        // 引数が不正の場合は例外
+        if (timeout < 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            idleTimeout = timeout;
+
+        }
+
+    }
+
+
+    /**
+     * 利用されていない接続を閉じるまでの最大待機時間を取得する。
+     *
+     * @return 最大待機時間 (ミリ秒)
+     */
+    long getIdleTimeout() {
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            return idleTimeout;
+
+        }
+
+    }
+
+
+    /**
+     * WALモードを利用するかどうかを設定する。<br>
+     * <br>
+     * 設定を変更した場合は保持している接続を破棄し、以降に開く接続から有効となる。<br>
+     *
+     * @param enabled WALモードを利用する場合は true
+     */
+    void setWriteAheadLoggingEnabled(
+            final boolean   enabled
+            ) {
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            // 設定が変わらない場合は処理をしない
+            if (walEnabled == enabled) {
+
+                return;
+
+            }
+
+            walEnabled = enabled;
+
+        }
+
+        // 保持している接続を破棄する
+        evictAll();
+
+    }
+
+
+    /**
+     * WALモードを利用するかどうかを取得する。
+     *
+     * @return WALモードを利用する場合は true
+     */
+    boolean isWriteAheadLoggingEnabled() {
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            return walEnabled;
+
+        }
+
+    }
+
+
+    /**
+     * WALモードでの自動チェックポイント間隔を設定する。<br>
+     * <br>
+     * 以降に開く書き込み用接続から有効となる。<br>
+     *
+     * @param pages 自動チェックポイントを行うWALファイルのページ数。0 の場合は自動チェックポイントを行わない
+     * @throws IllegalArgumentException ページ数が 0 より小さい場合
+     */
+    void setWalAutoCheckpoint(
+            final int   pages
+            ) {
+
+        // 引数が不正の場合は例外
+        if (pages < 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            walAutoCheckpoint = pages;
+
+        }
+
+    }
+
+
+    /**
+     * WALモードでの自動チェックポイント間隔を取得する。
+     *
+     * @return 自動チェックポイントを行うWALファイルのページ数
+     */
+    int getWalAutoCheckpoint() {
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            return walAutoCheckpoint;
+
+        }
+
+    }
+
+
+    /**
+     * 以降に開く接続でのコンパイル済みステートメントの最大キャッシュ数を設定する。
+     *
+     * @param size 最大キャッシュ数
+     * @throws IllegalArgumentException 最大キャッシュ数が 0 より小さい場合
+     */
+    void setStatementCacheSize(
+            final int   size
+            ) {
+
+        // 引数が不正の場合は例外
+        if (size < 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            statementCacheSize = size;
+
+        }
+
+    }
+
+
+    /**
+     * 接続でのコンパイル済みステートメントの最大キャッシュ数を取得する。
+     *
+     * @return 最大キャッシュ数
+     */
+    int getStatementCacheSize() {
+
+        // プールをロックする
+        synchronized (poolLock) {
+
+            return statementCacheSize;
+
+        }
+
+    }
+
+
+    /**
+     * カレントスレッドの作業単位のセッション情報を取得する。
+     *
+     * @return 作業単位のセッション情報。ない場合は null
+     */
+    BoundSession getBoundSession() {
+
+        return boundSessions.get();
+
+    }
+
+
+    /**
+     * カレントスレッドの作業単位のセッション情報を設定する。
+     *
+     * @param boundSession 作業単位のセッション情報。解除する場合は null
+     */
+    void setBoundSession(
+            final BoundSession  boundSession
+            ) {
+
+        // 解除する場合
+        if (boundSession == null) {
+
+            boundSessions.remove();
+
+        } else {
+
+            boundSessions.set(boundSession);
+
+        }
+
+    }
+
+
+    /**
+     * 指定されたセッションの貸し出し数を加算する。
+     *
+     * @param session 貸し出すセッション
+     * @return 貸し出したセッション
+     */
+    private FRDatabaseSession borrow(
+            final FRDatabaseSession session
+            ) {
+
+        final Integer   count = borrowCounts.get(session);
+
+        // 貸し出し数を加算する
+        borrowCounts.put(session, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+
+        // 貸し出したセッションを返す
+        return session;
+
+    }
+
+
+    /**
+     * 最大待機時間を超えて利用されていない接続をプールから取り出す。
+     *
+     * @param now           現在時刻
+     * @param closeSessions 取り出した接続の格納先
+     */
+    private void collectExpiredSessions(
+            final long                      now,
+            final List<FRDatabaseSession>   closeSessions
+            ) {
+
+        final Iterator<IdleSession>     iterator = idleReaders.iterator();
+
+        // 利用されていない読み込み専用接続を古い順に処理をする
+        while (iterator.hasNext()) {
+
+            final IdleSession   idleSession = iterator.next();
+
+            // 最大待機時間を超えていない場合は終了する
+            if (now - idleSession.idleTime < idleTimeout) {
+
+                break;
+
+            }
+
+            // プールから取り出す
+            iterator.remove();
+            readerSessions.remove(idleSession.session);
+            closeSessions.add(idleSession.session);
+
+        }
+
+        // 書き込み用接続が最大待機時間を超えて利用されていない場合
+        if ((writerSession != null)
+                && !borrowCounts.containsKey(writerSession)
+                && (now - writerIdleTime >= idleTimeout)) {
+
+            // プールから取り出す
+            closeSessions.add(writerSession);
+            writerSession = null;
+
+        }
+
+    }
+
+
+    /**
+     * 書き込み用接続がない場合は開いてプールへ追加する。<br>
+     * <br>
+     * WALモードの設定に応じてジャーナルモードを変更する。<br>
+     * WALに対応していないSQLiteの場合は通常のジャーナルモードのまま動作する。<br>
+     * プールのロック中に呼び出すこと。<br>
+     *
+     * @param path データベースファイルのパス
+     */
+    private void openWriterSession(
+            final String    path
+            ) {
+
+        // 書き込み用接続がある場合は処理をしない
+        if (writerSession != null) {
+
+            return;
+
+        }
+
+
+        final FRDatabaseSession     session = openSession(path, false, statementCacheSize);
+
+        try {
+
+            // WALモードを利用する場合
+            if (walEnabled) {
+
+                // ジャーナルモードをWALへ変更する
+                walActive = JOURNAL_MODE_WAL.equalsIgnoreCase(
+                        queryPragma(session, SQL_JOURNAL_MODE_WAL)
+                        );
+
+                // WALモードへ変更できた場合
+                if (walActive) {
+
+                    // 自動チェックポイント間隔を設定する
+                    queryPragma(session, String.format(SQL_WAL_AUTOCHECKPOINT, walAutoCheckpoint));
+
+                } else {
+
+                    Log.w(getClass().getName(), "Write-ahead logging is not supported. [path = " + path + "]");
+
+                }
+
+            } else if (walActive) {
+
+                // 通常のジャーナルモードへ戻す
+                queryPragma(session, SQL_JOURNAL_MODE_DELETE);
+                walActive = false;
+
+            }
+
+        } catch (final RuntimeException e) {
+
+            // 接続を閉じて例外を通知する
+            session.closeConnection();
+            throw e;
+
+        }
+
+        // 書き込み用接続として保持する
+        writerSession  = session;
+        writerIdleTime = SystemClock.uptimeMillis();
+
+    }
+
+
+    /**
+     * 指定されたPRAGMA文を実行し、結果の先頭列の値を取得する。
+     *
+     * @param session   実行するセッション
+     * @param sql       実行するPRAGMA文
+     * @return 結果の先頭列の値。結果がない場合は null
+     */
+    private static String queryPragma(
+            final FRDatabaseSession session,
+            final String            sql
+            ) {
+
+        final Cursor    cursor = session.rawQuery(sql);
+
+        try {
+
+            // 結果がある場合は先頭列の値を返す
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+
+        } finally {
+
+            // カーソルを閉じる
+            cursor.close();
+
+        }
+
+    }
+
+
+    /**
+     * 指定されたデータベースファイルへの接続を開く。
+     *
+     * @param path                  データベースファイルのパス
+     * @param readOnly              読み込み専用で接続するかどうか
+     * @param cacheSize             コンパイル済みステートメントの最大キャッシュ数
+     * @return 開いた接続のセッション
+     */
+    private FRDatabaseSession openSession(
+            final String    path,
+            final boolean   readOnly,
+            final int       cacheSize
+            ) {
+
+        return new FRDatabaseSession(
+                SQLiteDatabase.openDatabase(
+                        path,
+                        null,
+                        readOnly ? SQLiteDatabase.OPEN_READONLY : SQLiteDatabase.OPEN_READWRITE
+                        ),
+                cacheSize,
+                this
+                );
+
+    }
+
+
+    /**
+     * 指定された接続を全て閉じる。
+     *
+     * @param sessions 閉じる接続一覧
+     */
+    private static void closeSessions(
+            final List<FRDatabaseSession>   sessions
+            ) {
+
+        // 接続分処理をする
+        for (final FRDatabaseSession session : sessions) {
+
+            // 接続を閉じる
+            session.closeConnection();
+
+        }
+
+    }
+
+
+    /**
+     * 利用されていない接続情報。
+     *
+     * @author Kou
+     *
+     */
+    private static final class IdleSession {
+
+
+        /**
+         * 利用されていないセッション
+         */
+        final FRDatabaseSession     session;
+
+        /**
+         * 利用されなくなった時刻
+         */
+        final long                  idleTime;
+
+
+
+        /**
+         * 利用されていない接続情報を作成する。
+         *
+         * @param idleSession   利用されていないセッション
+         * @param time          利用されなくなった時刻
+         */
+        IdleSession(
+                final FRDatabaseSession idleSession,
+                final long              time
+                ) {
+
+            session  = idleSession;
+            idleTime = time;
+
+        }
+
+
+    }
+
+
+
+    /**
+     * スレッドに割り当てた作業単位のセッション情報。
+     *
+     * @author Kou
+     *
+     */
+    static final class BoundSession {
+
+
+        /**
+         * 作業単位のセッション
+         */
+        final FRDatabaseSession     session;
+
+        /**
+         * 読み込み専用のセッションかどうか
+         */
+        final boolean               readOnly;
+
+
+
+        /**
+         * 作業単位のセッション情報を作成する。
+         *
+         * @param boundSession  作業単位のセッション
+         * @param boundReadOnly 読み込み専用のセッションかどうか
+         */
+        BoundSession(
+                final FRDatabaseSession boundSession,
+                final boolean           boundReadOnly
+                ) {
+
+            session  = boundSession;
+            readOnly = boundReadOnly;
+
+        }
+
+
+    }
+
+
+}
@@ -1058,6 +1058,21 @@ final class ConvertUtils {
     }
 
 
+    /**
+     * 指定型への変換処理を取得する。
+     *
+     * @param resultType 変換後の型
+     * @return 指定型への変換処理。変換できない型の場合は null
+     */
+    static TypeConvertiable getTypeConverter(
+            final Class<?>  resultType
+            ) {
+
+        return TYPE_CONVERSIONS.get(resultType);
+
+    }
+
+
     /**
      * 日付を指定されたフォーマットの文字列へ変換する。
      *
@@ -2032,7 +2047,7 @@ final class ConvertUtils {
      * @author Kou
      *
      */
-    private interface TypeConvertiable {
+    interface TypeConvertiable {
 
 
         /**
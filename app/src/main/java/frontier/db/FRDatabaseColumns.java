@@ -0,0 +1,452 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import android.database.Cursor;
+
+
+/**
+ * カラム単位で保持する検索結果。<br>
+ * <br>
+ * カラムごとに 1 つの配列へ全行分の値を保持する。<br>
+ * 値はカーソルから型付きで直接読み込み、エンティティの生成を行わない。<br>
+ * カラムの型は long, int, double, String のいずれかとする。<br>
+ * NULLのカラムは数値型の場合は 0、文字列型の場合は null とし、<br>
+ * {@link #isNull(int, int)} で判定できる。<br>
+ *
+ * @author Kou
+ *
+ */
+public final class FRDatabaseColumns {
+
+
+    /**
+     * NULLビットマップの 1 要素あたりのビット数
+     */
+    private static final int        BITS_PER_WORD = 64;
+
+    /**
+     * NULLビットマップの要素位置を求めるシフト数
+     */
+    private static final int        WORD_SHIFT    = 6;
+
+
+    /**
+     * カラム名一覧
+     */
+    private final String[]          columnNames;
+
+    /**
+     * カラムの型一覧
+     */
+    private final Class<?>[]        columnTypes;
+
+    /**
+     * カラムごとの値の配列一覧
+     */
+    private final Object[]          columnValues;
+
+    /**
+     * カラムごとのNULLビットマップ一覧
+     */
+    private final long[][]          nullBitmaps;
+
+    /**
+     * 行数
+     */
+    private final int               rowCount;
+
+
+
+
+    /**
+     * カラム単位の検索結果を作成する。
+     *
+     * @param names     カラム名一覧
+     * @param types     カラムの型一覧
+     * @param values    カラムごとの値の配列一覧
+     * @param bitmaps   カラムごとのNULLビットマップ一覧
+     * @param count     行数
+     */
+    private FRDatabaseColumns(
+            final String[]      names,
+            final Class<?>[]    types,
+            final Object[]      values,
+            final long[][]      bitmaps,
+            final int           count
+            ) {
+
+        columnNames     = names;
+        columnTypes     = types;
+        columnValues    = values;
+        nullBitmaps     = bitmaps;
+        rowCount        = count;
+
+    }
+
+
+    /**
+     * カーソルの全行をカラム単位で読み込む。<br>
+     * <br>
+     * カラムの型一覧が null の場合は全カラムを double として読み込む。<br>
+     *
+     * @param cursor    先頭行へ移動済みの読み込み元カーソル
+     * @param count     読み込む行数
+     * @param types     カラムの型一覧
+     * @return 読み込んだ検索結果
+     * @throws IllegalArgumentException カラムの型一覧の数がカラム数と異なる場合または未対応の型を含む場合
+     */
+    static FRDatabaseColumns read(
+            final Cursor        cursor,
+            final int           count,
+            final Class<?>[]    types
+            ) {
+
+        final String[]      names       = cursor.getColumnNames();
+        final Class<?>[]    readTypes   = new Class<?>[names.length];
+
+        // 型一覧が指定されている場合
+        if (types != null) {
+
+            // カラム数と一致しない場合は例外
+            if (types.length != names.length) {
+
+                throw new IllegalArgumentException(
+                        "column types count is not equal to column count."
+                        );
+
+            }
+
+            // 型一覧をコピーする
+            System.arraycopy(types, 0, readTypes, 0, types.length);
+
+        } else {
+
+            // 全カラムを double とする
+            for (int i = 0; i < readTypes.length; i++) {
+
+                readTypes[i] = double.class;
+
+            }
+
+        }
+
+
+        final Object[]      values  = new Object[names.length];
+        final long[][]      bitmaps = new long[names.length][];
+
+        // カラム分処理をする
+        for (int i = 0; i < names.length; i++) {
+
+            // カラムの型に応じた配列を作成する
+            values[i]  = newColumnArray(readTypes[i], count);
+            bitmaps[i] = new long[(count + BITS_PER_WORD - 1) >>> WORD_SHIFT];
+
+        }
+
+        // 結果行分処理をする
+        for (int row = 0; row < count; row++, cursor.moveToNext()) {
+
+            // カラム分処理をする
+            for (int column = 0; column < values.length; column++) {
+
+                // NULLの場合
+                if (cursor.isNull(column)) {
+
+                    // NULLビットを設定する
+                    bitmaps[column][row >>> WORD_SHIFT] |= 1L << row;
+
+                    // 次のカラムへ
+                    continue;
+
+                }
+
+                final Object    array = values[column];
+
+                // 型別に読み込む
+                if (array instanceof long[]) {
+
+                    ((long[])array)[row] = cursor.getLong(column);
+
+                } else if (array instanceof int[]) {
+
+                    ((int[])array)[row] = cursor.getInt(column);
+
+                } else if (array instanceof double[]) {
+
+                    ((double[])array)[row] = cursor.getDouble(column);
+
+                } else {
+
+                    ((String[])array)[row] = cursor.getString(column);
+
+                }
+
+            }
+
+        }
+
+        // 読み込んだ検索結果を返す
+        return new FRDatabaseColumns(names, readTypes, values, bitmaps, count);
+
+    }
+
+
+    /**
+     * 指定された型のカラムの値を保持する配列を作成する。
+     *
+     * @param type  カラムの型
+     * @param count 行数
+     * @return 作成した配列
+     * @throws IllegalArgumentException 未対応の型の場合
+     */
+    private static Object newColumnArray(
+            final Class<?>  type,
+            final int       count
+            ) {
+
+        // 型別に配列を作成する
+        if (type == long.class) {
+
+            return new long[count];
+
+        } else if (type == int.class) {
+
+            return new int[count];
+
+        } else if (type == double.class) {
+
+            return new double[count];
+
+        } else if (type == String.class) {
+
+            return new String[count];
+
+        }
+
+        // 未対応の型の場合は例外
+        throw new IllegalArgumentException("unsupported column type : " + type);
+
+    }
+
+
+    /**
+     * 行数を取得する。
+     *
+     * @return 行数
+     */
+    public int getRowCount() {
+
+        return rowCount;
+
+    }
+
+
+    /**
+     * カラム数を取得する。
+     *
+     * @return カラム数
+     */
+    public int getColumnCount() {
+
+        return columnNames.length;
+
+    }
+
+
+    /**
+     * 指定位置のカラム名を取得する。
+     *
+     * @param column カラム位置
+     * @return カラム名
+     */
+    public String getColumnName(
+            final int   column
+            ) {
+
+        return columnNames[column];
+
+    }
+
+
+    /**
+     * 指定されたカラム名のカラム位置を取得する。
+     *
+     * @param name カラム名
+     * @return カラム位置。存在しない場合は -1
+     */
+    public int getColumnIndex(
+            final String    name
+            ) {
+
+        // カラム分処理をする
+        for (int i = 0; i < columnNames.length; i++) {
+
+            // カラム名が一致する場合
+            if (columnNames[i].equals(name)) {
+
+                return i;
+
+            }
+
+        }
+
+        // 存在しない
+        return -1;
+
+    }
+
+
+    /**
+     * 指定位置のカラムの型を取得する。
+     *
+     * @param column カラム位置
+     * @return カラムの型 (long.class, int.class, double.class, String.class のいずれか)
+     */
+    public Class<?> getColumnType(
+            final int   column
+            ) {
+
+        return columnTypes[column];
+
+    }
+
+
+    /**
+     * 指定位置の値がNULLかどうかを判定する。
+     *
+     * @param column    カラム位置
+     * @param row       行位置
+     * @return NULLの場合は true
+     * @throws IndexOutOfBoundsException 行位置が範囲外の場合
+     */
+    public boolean isNull(
+            final int   column,
+            final int   row
+            ) {
+
+        // 行位置が範囲外の場合は例外
+        if ((row < 0) || (row >= rowCount)) {
+
+            throw new IndexOutOfBoundsException();
+
+        }
+
+        return (nullBitmaps[column][row >>> WORD_SHIFT] & (1L << row)) != 0;
+
+    }
+
+
+    /**
+     * 指定位置のlong型カラムの値の配列を取得する。<br>
+     * <br>
+     * 返却した配列は検索結果が保持する配列そのものである。<br>
+     *
+     * @param column カラム位置
+     * @return 値の配列
+     * @throws IllegalArgumentException カラムの型がlongでない場合
+     */
+    public long[] getLongColumn(
+            final int   column
+            ) {
+
+        return (long[])getColumn(column, long.class);
+
+    }
+
+
+    /**
+     * 指定位置のint型カラムの値の配列を取得する。<br>
+     * <br>
+     * 返却した配列は検索結果が保持する配列そのものである。<br>
+     *
+     * @param column カラム位置
+     * @return 値の配列
+     * @throws IllegalArgumentException カラムの型がintでない場合
+     */
+    public int[] getIntColumn(
+            final int   column
+            ) {
+
+        return (int[])getColumn(column, int.class);
+
+    }
+
+
+    /**
+     * 指定位置のdouble型カラムの値の配列を取得する。<br>
+     * <br>
+     * 返却した配列は検索結果が保持する配列そのものである。<br>
+     *
+     * @param column カラム位置
+     * @return 値の配列
+     * @throws IllegalArgumentException カラムの型がdoubleでない場合
+     */
+    public double[] getDoubleColumn(
+            final int   column
+            ) {
+
+        return (double[])getColumn(column, double.class);
+
+    }
+
+
+    /**
+     * 指定位置の文字列型カラムの値の配列を取得する。<br>
+     * <br>
+     * 返却した配列は検索結果が保持する配列そのものである。<br>
+     *
+     * @param column カラム位置
+     * @return 値の配列
+     * @throws IllegalArgumentException カラムの型が文字列でない場合
+     */
+    public String[] getStringColumn(
+            final int   column
+            ) {
+
+        return (String[])getColumn(column, String.class);
+
+    }
+
+
+    /**
+     * 指定位置のカラムの値の配列を型を確認して取得する。
+     *
+     * @param column    カラム位置
+     * @param type      取得する型
+     * @return 値の配列
+     * @throws IllegalArgumentException カラムの型が取得する型と異なる場合
+     */
+    private Object getColumn(
+            final int       column,
+            final Class<?>  type
+            ) {
+
+        // 型が異なる場合は例外
+        if (columnTypes[column] != type) {
+
+            throw new IllegalArgumentException(
+                    "column " + columnNames[column] + " is " + columnTypes[column]
+                    );
+
+        }
+
+        return columnValues[column];
+
+    }
+
+
+}
@@ -21,13 +21,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.ref.WeakReference;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
 
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
-import android.database.sqlite.SQLiteDatabase;
 import frontier.db.annotation.FRDatabaseMappingXml;
 
 
@@ -50,6 +51,21 @@ public final class FRDatabaseManager {
      */
     private static final String     SQL_OPTIMIZE                    = "VACUUM;";
 
+    /**
+     * 更新中の作業用DBファイル名の接尾語
+     */
+    private static final String     UPDATING_DB_SUFFIX              = ".updating";
+
+    /**
+     * 更新完了後、入れ替え前のDBファイル名の接尾語
+     */
+    private static final String     UPDATED_DB_SUFFIX               = ".updated";
+
+    /**
+     * DBファイルに付随するファイルの接尾語一覧
+     */
+    private static final String[]   DB_SIDE_FILE_SUFFIXES           = {"-journal", "-wal", "-shm"};
+
     /**
      * XMLリソースID取得用クラス名フォーマット<br>
      * <br>
@@ -57,12 +73,24 @@ public final class FRDatabaseManager {
      */
     private static final String     XML_RESOURCE_CLASS_NAME_FORMAT  = "%s.R$xml";
 
+    /**
+     * エラー文言 : 読み込み専用の作業単位の中で書き込みを行った
+     */
+    private static final String     ERROR_WRITE_IN_READ_ONLY_UNIT   =
+        "Cannot write in a read-only unit of work.";
+
     /**
      * データベースアクセスマネージャーのキャッシュ
      */
     private static final Map<String, WeakReference<FRDatabaseManager>>  DB_MANAGER_CACHES =
         new WeakHashMap<String, WeakReference<FRDatabaseManager>>();
 
+    /**
+     * データベース接続プールテーブル
+     */
+    private static final Map<String, ConnectionPool>    CONNECTION_POOLS =
+        new HashMap<String, ConnectionPool>();
+
     /**
      * デフォルト接続先DBファイル名
      */
@@ -73,6 +101,11 @@ public final class FRDatabaseManager {
      */
     private String                  dbName;
 
+    /**
+     * 接続先DBの接続プール
+     */
+    private ConnectionPool          connectionPool;
+
 
 
 
@@ -395,6 +428,21 @@ public final class FRDatabaseManager {
             // DBファイル名を設定する
             manager.dbName = databaseName;
 
+            // 接続プールを取得する
+            ConnectionPool      pool = CONNECTION_POOLS.get(databaseName);
+
+            // 接続プールがない場合
+            if (pool == null) {
+
+                // 接続プールを作成する
+                pool = new ConnectionPool();
+                CONNECTION_POOLS.put(databaseName, pool);
+
+            }
+
+            // 接続プールを設定する
+            manager.connectionPool = pool;
+
             // DBマネージャーをキャッシュテーブルへ追加する
             DB_MANAGER_CACHES.put(
                     databaseName,
@@ -713,6 +761,12 @@ public final class FRDatabaseManager {
      * バージョンが異なっていれば更新処理を行う。<br>
      * <br>
      * 更新元データベースファイル名は指定ファイルを利用する。<br>
+     * <br>
+     * 更新は作業用DBファイル上で一定件数ごとにコミットしながら行い、進捗を作業用DBファイル内に記録する。<br>
+     * 更新中にプロセスが終了した場合は、次回の呼び出し時に記録した進捗の続きから更新を再開する。<br>
+     * 再開した更新は開始時のバージョンまで行い、アセッツにそれより新しいバージョンがある場合は<br>
+     * 再度 {@link #needsUpdate(Context, String)} が true を返す。<br>
+     * 全テーブルの更新が完了した後にのみ、既存のDBファイルと入れ替える。<br>
      *
      * @param context   利用するコンテキスト情報
      * @param fileName  更新に利用するDBファイル
@@ -725,6 +779,31 @@ public final class FRDatabaseManager {
             final FRDatabaseSavable     savable
             ) {
 
+        return update(context, fileName, savable, null);
+
+    }
+
+
+    /**
+     * データベースの更新を行う。<br>
+     * <br>
+     * {@link #update(Context, String, FRDatabaseSavable)} と同じ処理を行い、<br>
+     * テーブルごとの進捗と処理件数、処理時間を指定されたリスナーへ通知する。<br>
+     * 更新済みのDBファイルの入れ替えのみを行った場合は通知しない。<br>
+     *
+     * @param context   利用するコンテキスト情報
+     * @param fileName  更新に利用するDBファイル
+     * @param savable   保存判定処理ハンドラ
+     * @param listener  進捗を通知するリスナー
+     * @return データベースの更新に成功した場合は true。DB更新が不要または失敗した場合は false
+     */
+    public boolean update(
+            final Context                       context,
+            final String                        fileName,
+            final FRDatabaseSavable             savable,
+            final FRDatabaseMigrationListener   listener
+            ) {
+
         // 引数が不正の場合は例外
         if (context == null) {
 
@@ -733,11 +812,36 @@ public final class FRDatabaseManager {
         }
 
 
-        // 作業用DBファイル名を作成する
-        final String    tempDBName = System.currentTimeMillis() + fileName;
+        // 新旧データベースファイルを作成する
+        final File      oldDBFile       = context.getDatabasePath(dbName);
+        final File      newDBFile       = context.getDatabasePath(dbName + UPDATING_DB_SUFFIX);
+        final File      updatedDBFile   = context.getDatabasePath(dbName + UPDATED_DB_SUFFIX);
 
-        // アセッツから新しいDBファイルをアプリ内へコピーする
-        if (!copyDatabaseFromAssets(context, fileName, tempDBName, false)) {
+        // 更新完了後、入れ替え前に中断されていた場合
+        if (updatedDBFile.exists()) {
+
+            // 更新済みのデータベースファイルと入れ替える
+            return replaceDatabaseFile(oldDBFile, updatedDBFile);
+
+        }
+
+        // 作業用DBファイルがあり、更新を再開できない場合
+        if (newDBFile.exists()
+            && !UpgradeJournal.canResume(oldDBFile.getAbsolutePath(), newDBFile.getAbsolutePath())
+            ) {
+
+            // 作業用DBファイルを削除する
+            if (!deleteDatabaseFile(newDBFile)) {
+
+                // 失敗
+                return false;
+
+            }
+
+        }
+
+        // アセッツから新しいDBファイルをアプリ内へコピーする (作業用DBファイルがある場合は再開する)
+        if (!copyDatabaseFromAssets(context, fileName, newDBFile.getName(), false)) {
 
             // 更新失敗
             return false;
@@ -745,57 +849,423 @@ public final class FRDatabaseManager {
         }
 
 
-        // 新旧データベースファイルを作成する
-        final File      oldDBFile = context.getDatabasePath(dbName);
-        final File      newDBFile = context.getDatabasePath(tempDBName);
-
         // DB更新処理を行う
         final boolean   result = FRDatabaseUtils.updateDatabase(
                 oldDBFile.getAbsolutePath(),
                 newDBFile.getAbsolutePath(),
-                savable
+                savable,
+                listener
                 );
 
         // 成功した場合
         if (result) {
 
-            // 古いデータベースファイルを削除する
-            if (!oldDBFile.delete()) {
+            // 更新済みのDBファイル名に変更する
+            if (!newDBFile.renameTo(updatedDBFile)) {
 
                 // 失敗
                 return false;
 
             }
 
-            // 新しいデータベースを既存名称に変更する
-            if (!newDBFile.renameTo(oldDBFile)) {
+            // 更新済みのデータベースファイルと入れ替える
+            return replaceDatabaseFile(oldDBFile, updatedDBFile);
 
-                // 失敗
-                return false;
+        }
+
+        // 進捗記録が有効なまま失敗した場合 (例外による中断) は次回再開できるよう残す
+        if (UpgradeJournal.canResume(oldDBFile.getAbsolutePath(), newDBFile.getAbsolutePath())) {
+
+            // 失敗
+            return false;
+
+        }
+
+        // 更新元が一致しない、または更新不要の場合はコピーしていた新しいデータベースファイルを削除する
+        deleteDatabaseFile(newDBFile);
+
+        // 結果を返す
+        return false;
+
+    }
+
+
+    /**
+     * 既存のデータベースファイルを更新済みのデータベースファイルと入れ替える。
+     *
+     * @param oldDBFile     既存のデータベースファイル
+     * @param updatedDBFile 更新済みのデータベースファイル
+     * @return 入れ替えに成功した場合は true
+     */
+    private boolean replaceDatabaseFile(
+            final File      oldDBFile,
+            final File      updatedDBFile
+            ) {
+
+        // 古いデータベースファイルへの接続を閉じる
+        connectionPool.evictAll();
+
+        // 古いデータベースファイルを削除する
+        if (!deleteDatabaseFile(oldDBFile)) {
+
+            // 失敗
+            return false;
+
+        }
+
+        // 新しいデータベースを既存名称に変更する
+        return updatedDBFile.renameTo(oldDBFile);
+
+    }
+
+
+    /**
+     * 指定されたデータベースファイルをジャーナルファイルとともに削除する。
+     *
+     * @param dbFile 削除するデータベースファイル
+     * @return 削除に成功した場合、またはファイルが存在しない場合は true
+     */
+    private static boolean deleteDatabaseFile(
+            final File      dbFile
+            ) {
+
+        // 付随するファイル分繰り返す
+        for (final String suffix : DB_SIDE_FILE_SUFFIXES) {
+
+            final File  sideFile = new File(dbFile.getPath() + suffix);
+
+            // ファイルが存在する場合
+            if (sideFile.exists()) {
+
+                // 削除する (失敗しても本体の削除は行う)
+                sideFile.delete();
 
             }
 
+        }
+
+        // ファイルが存在しない場合、または削除に成功した場合は成功とする
+        return !dbFile.exists() || dbFile.delete();
+
+    }
+
+
+    /**
+     * 接続ごとのコンパイル済みステートメントの最大キャッシュ数を設定する。<br>
+     * <br>
+     * 以降に開く接続から有効となる。<br>
+     * 0 を指定した場合はステートメントをキャッシュしない。<br>
+     *
+     * @param size 最大キャッシュ数
+     * @throws IllegalArgumentException 最大キャッシュ数が 0 より小さい場合
+     */
+    public void setStatementCacheSize(
+            final int   size
+            ) {
+
+        connectionPool.setStatementCacheSize(size);
+
+    }
+
+
+    /**
+     * 接続ごとのコンパイル済みステートメントの最大キャッシュ数を取得する。
+     *
+     * @return 最大キャッシュ数
+     */
+    public int getStatementCacheSize() {
+
+        return connectionPool.getStatementCacheSize();
+
+    }
+
+
+    /**
+     * 接続プールの最大接続数を設定する。<br>
+     * <br>
+     * 最大接続数は書き込み用接続 1 つと読み込み専用接続の合計数となる。<br>
+     * 1 を指定した場合は読み込み専用のセッションも書き込み用接続を共有する。<br>
+     *
+     * @param size 最大接続数
+     * @throws IllegalArgumentException 最大接続数が 1 より小さい場合
+     */
+    public void setMaxConnectionPoolSize(
+            final int   size
+            ) {
+
+        connectionPool.setMaxSize(size);
+
+    }
+
+
+    /**
+     * 接続プールの最大接続数を取得する。
+     *
+     * @return 最大接続数
+     */
+    public int getMaxConnectionPoolSize() {
+
+        return connectionPool.getMaxSize();
+
+    }
+
+
+    /**
+     * 利用されていない接続を閉じるまでの最大待機時間を設定する。
+     *
+     * @param timeout 最大待機時間 (ミリ秒)
+     * @throws IllegalArgumentException 最大待機時間が 0 より小さい場合
+     */
+    public void setConnectionIdleTimeout(
+            final long  timeout
+            ) {
+
+        connectionPool.setIdleTimeout(timeout);
+
+    }
+
+
+    /**
+     * 利用されていない接続を閉じるまでの最大待機時間を取得する。
+     *
+     * @return 最大待機時間 (ミリ秒)
+     */
+    public long getConnectionIdleTimeout() {
+
+        return connectionPool.getIdleTimeout();
+
+    }
+
+
+    /**
+     * WALモード (Write-Ahead Logging) を利用するかどうかを設定する。<br>
+     * <br>
+     * WALモードでは書き込み用接続でのトランザクション中であっても、<br>
+     * selectFor系の参照は読み込み専用接続で並行して実行される。<br>
+     * 設定を変更した場合は保持している接続を閉じ、以降に開く接続から有効となる。<br>
+     * WALに対応していない端末では通常のジャーナルモードのまま動作する。<br>
+     *
+     * @param enabled WALモードを利用する場合は true
+     */
+    public void setWriteAheadLoggingEnabled(
+            final boolean   enabled
+            ) {
+
+        connectionPool.setWriteAheadLoggingEnabled(enabled);
+
+    }
+
+
+    /**
+     * WALモード (Write-Ahead Logging) を利用するかどうかを取得する。
+     *
+     * @return WALモードを利用する場合は true
+     */
+    public boolean isWriteAheadLoggingEnabled() {
+
+        return connectionPool.isWriteAheadLoggingEnabled();
+
+    }
+
+
+    /**
+     * WALモードでの自動チェックポイント間隔を設定する。<br>
+     * <br>
+     * WALファイルが指定したページ数を超えた時点でコミット時にチェックポイントを行う。<br>
+     * 以降に開く書き込み用接続から有効となる。<br>
+     *
+     * @param pages 自動チェックポイントを行うページ数。0 の場合は自動チェックポイントを行わない
+     * @throws IllegalArgumentException ページ数が 0 より小さい場合
+     */
+    public void setWalAutoCheckpoint(
+            final int   pages
+            ) {
+
+        connectionPool.setWalAutoCheckpoint(pages);
+
+    }
+
+
+    /**
+     * WALモードでの自動チェックポイント間隔を取得する。
+     *
+     * @return 自動チェックポイントを行うページ数
+     */
+    public int getWalAutoCheckpoint() {
+
+        return connectionPool.getWalAutoCheckpoint();
+
+    }
+
+
+    /**
+     * 接続プールが保持している接続を閉じる。<br>
+     * <br>
+     * 利用中の接続はセッションが閉じられた時点で閉じる。<br>
+     *
+     */
+    public void closeConnections() {
+
+        connectionPool.evictAll();
+
+    }
+
+
+    /**
+     * カレントスレッドに作業単位のセッションを割り当てて指定された処理を実行する。<br>
+     * <br>
+     * 処理中にこのデータベースのDAOを呼び出した場合、<br>
+     * セッションを指定せずに作成したDAOであっても割り当てたセッションを利用するため、<br>
+     * 複数のDAO呼び出しが 1 つの接続と 1 つのトランザクションを共有する。<br>
+     * 処理が正常に終了した場合はトランザクションをコミットし、<br>
+     * 例外が発生した場合はロールバックする。<br>
+     * <br>
+     * 読み込み専用の作業単位は、WALモードで動作している場合は読み込み専用接続を利用する。<br>
+     * WALモードで動作していない場合は、読み込み中の共有ロックにより書き込みのコミットが<br>
+     * 完了できなくなることを避けるため書き込み用接続を利用し、<br>
+     * 作業単位の終了まで他のスレッドの書き込みは待機となる。<br>
+     * 読み込み専用の作業単位の中で書き込みを行うDAO呼び出しは例外となる。<br>
+     * 作業単位を入れ子で実行した場合は、外側のセッションを利用できれば外側のセッションを共有する。<br>
+     *
+     * @param <T>       処理結果の型
+     * @param context   利用するコンテキスト情報
+     * @param readOnly  読み込み専用の作業単位とするかどうか
+     * @param callable  実行する処理
+     * @return 処理結果
+     * @throws Exception 処理中に例外が発生した場合
+     * @throws IllegalArgumentException コンテキスト情報または実行する処理が null の場合
+     */
+    public <T> T runInSession(
+            final Context       context,
+            final boolean       readOnly,
+            final Callable<T>   callable
+            ) throws Exception {
+
+        // 引数が不正の場合は例外
+        if ((context == null) || (callable == null)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+
+        final ConnectionPool.BoundSession   outerSession = connectionPool.getBoundSession();
+
+        // 外側の作業単位のセッションを利用できるかどうか
+        final boolean                       joined = (outerSession != null)
+                && (readOnly || !outerSession.readOnly);
+
+        // 作業単位のセッション
+        final FRDatabaseSession             session;
+
+        // 外側の作業単位のセッションを利用できる場合
+        if (joined) {
+
+            session = outerSession.session;
+
+        } else if (readOnly) {
+
+            // 読み込み専用の作業単位のセッションを接続プールから取得する
+            session = connectionPool.acquireReadOnlyUnit(
+                    context.getDatabasePath(dbName).getAbsolutePath()
+                    );
+
         } else {
 
-            // コピーしていた新しいデータベースファイルを削除する
-            if (!newDBFile.delete()) {
+            session = openSession(context, false);
 
-                // 失敗
-                return false;
+        }
+
+        try {
+
+            // 新しいセッションの場合
+            if (!joined) {
+
+                // カレントスレッドへ割り当てる
+                connectionPool.setBoundSession(new ConnectionPool.BoundSession(session, readOnly));
+
+            }
+
+            // トランザクションを開始する
+            session.beginTransaction(
+                    readOnly
+                    ? FRDatabaseSession.TRANSACTION_DEFERRED
+                    : FRDatabaseSession.TRANSACTION_IMMEDIATE
+                    );
+
+            try {
+
+                // 処理を実行する
+                final T     result = callable.call();
+
+                // トランザクション成功とする
+                session.setTransactionSuccessful();
+
+                // 処理結果を返す
+                return result;
+
+            } finally {
+
+                // トランザクションを終了する
+                session.endTransaction();
+
+            }
+
+        } finally {
+
+            // 新しいセッションの場合
+            if (!joined) {
+
+                // 外側の作業単位のセッションへ戻す
+                connectionPool.setBoundSession(outerSession);
+
+                // セッションを閉じる
+                session.close();
 
             }
 
         }
 
+    }
+
 
-        // 結果を返す
-        return result;
+    /**
+     * カレントスレッドに割り当てられた作業単位のセッションを取得する。
+     *
+     * @param readOnly 読み込み専用のアクセスかどうか
+     * @return 作業単位のセッション。ない場合は null
+     * @throws IllegalStateException 読み込み専用の作業単位の中で書き込みを行う場合
+     */
+    FRDatabaseSession getBoundSession(
+            final boolean   readOnly
+            ) {
+
+        final ConnectionPool.BoundSession   boundSession = connectionPool.getBoundSession();
+
+        // 作業単位のセッションがない場合
+        if (boundSession == null) {
+
+            return null;
+
+        }
+
+        // 読み込み専用のセッションへ書き込む場合は例外
+        if (!readOnly && boundSession.readOnly) {
+
+            throw new IllegalStateException(ERROR_WRITE_IN_READ_ONLY_UNIT);
+
+        }
+
+        // 作業単位のセッションを返す
+        return boundSession.session;
 
     }
 
 
     /**
-     * DBへの接続を開始する。
+     * DBへの接続を開始する。<br>
+     * <br>
+     * 接続は接続プールから取得し、セッションを閉じた時点でプールへ返却する。<br>
      *
      * @param context       利用するコンテキスト情報
      * @param readOnly      読み込み専用で接続するかどうか
@@ -815,30 +1285,11 @@ public final class FRDatabaseManager {
         }
 
 
-        // 読み込み専用の場合
-        if (readOnly) {
-
-            // 読み込み専用のDBアクセスセッションを返す
-            return new FRDatabaseSession(
-                    SQLiteDatabase.openDatabase(
-                            context.getDatabasePath(dbName).getAbsolutePath(),
-                            null,
-                            SQLiteDatabase.OPEN_READONLY
-                            )
-                    );
-
-        } else {
-
-            // 読み書き可能なDBアクセスセッションを返す
-            return new FRDatabaseSession(
-                    SQLiteDatabase.openDatabase(
-                            context.getDatabasePath(dbName).getAbsolutePath(),
-                            null,
-                            SQLiteDatabase.OPEN_READWRITE
-                            )
-                    );
-
-        }
+        // 接続プールからセッションを取得する
+        return connectionPool.acquire(
+                context.getDatabasePath(dbName).getAbsolutePath(),
+                readOnly
+                );
 
     }
 
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+
+/**
+ * データベース更新の進捗を受け取るリスナー。<br>
+ * <br>
+ * {@link FRDatabaseManager#update(android.content.Context, String, FRDatabaseSavable, FRDatabaseMigrationListener)}<br>
+ * を呼び出したスレッドで通知される。<br>
+ * リスナーで発生した例外は更新処理へ影響しない。<br>
+ *
+ * @author Kou
+ *
+ */
+public interface FRDatabaseMigrationListener {
+
+
+    /**
+     * テーブルの更新開始時に呼び出される。
+     *
+     * @param tableName     テーブル名
+     * @param recordCount   古いデータベースのテーブルのレコード数
+     */
+    void onTableStart(
+            final String    tableName,
+            final long      recordCount
+            );
+
+
+    /**
+     * テーブルの更新中、進捗をコミットするごとに呼び出される。
+     *
+     * @param tableName         テーブル名
+     * @param processedCount    今回の更新で保存またはスキップしたレコード数
+     * @param recordCount       古いデータベースのテーブルのレコード数
+     */
+    void onTableProgress(
+            final String    tableName,
+            final long      processedCount,
+            final long      recordCount
+            );
+
+
+    /**
+     * テーブルの更新終了時に呼び出される。
+     *
+     * @param result テーブルの更新結果
+     */
+    void onTableEnd(
+            final FRDatabaseMigrationTableResult result
+            );
+
+
+    /**
+     * データベースの更新終了時に呼び出される。<br>
+     * <br>
+     * 更新に失敗した場合も呼び出される。<br>
+     *
+     * @param summary 更新結果の集計
+     */
+    void onFinish(
+            final FRDatabaseMigrationSummary summary
+            );
+
+
+}
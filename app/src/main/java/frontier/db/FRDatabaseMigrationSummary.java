@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * データベース更新結果の集計。<br>
+ * <br>
+ * 中断した更新を再開した場合、件数と時間は再開後の処理分のみとなる。<br>
+ *
+ * @author Kou
+ *
+ */
+public final class FRDatabaseMigrationSummary {
+
+
+    /**
+     * 古いデータベースのバージョン
+     */
+    private final int                                   oldVersion;
+
+    /**
+     * 新しいデータベースのバージョン
+     */
+    private final int                                   newVersion;
+
+    /**
+     * 更新に成功したかどうか
+     */
+    private final boolean                               successful;
+
+    /**
+     * 中断した更新を再開したかどうか
+     */
+    private final boolean                               resumed;
+
+    /**
+     * 全体の処理時間 (ミリ秒)
+     */
+    private final long                                  elapsedTime;
+
+    /**
+     * テーブルごとの更新結果一覧
+     */
+    private final List<FRDatabaseMigrationTableResult>  tableResults;
+
+
+
+
+    /**
+     * 更新結果の集計を作成する。
+     *
+     * @param argOldVersion     古いデータベースのバージョン
+     * @param argNewVersion     新しいデータベースのバージョン
+     * @param argSuccessful     更新に成功したかどうか
+     * @param argResumed        中断した更新を再開したかどうか
+     * @param argElapsedTime    全体の処理時間 (ミリ秒)
+     * @param argTableResults   テーブルごとの更新結果一覧
+     */
+    FRDatabaseMigrationSummary(
+            final int                                       argOldVersion,
+            final int                                       argNewVersion,
+            final boolean                                   argSuccessful,
+            final boolean                                   argResumed,
+            final long                                      argElapsedTime,
+            final List<FRDatabaseMigrationTableResult>      argTableResults
+            ) {
+
+        oldVersion      = argOldVersion;
+        newVersion      = argNewVersion;
+        successful      = argSuccessful;
+        resumed         = argResumed;
+        elapsedTime     = argElapsedTime;
+        tableResults    = Collections.unmodifiableList(
+                new ArrayList<FRDatabaseMigrationTableResult>(argTableResults)
+                );
+
+    }
+
+
+    /**
+     * 古いデータベースのバージョンを取得する。
+     *
+     * @return 古いデータベースのバージョン。取得前に失敗した場合は 0
+     */
+    public int getOldVersion() {
+
+        return oldVersion;
+
+    }
+
+
+    /**
+     * 新しいデータベースのバージョンを取得する。
+     *
+     * @return 新しいデータベースのバージョン。取得前に失敗した場合は 0
+     */
+    public int getNewVersion() {
+
+        return newVersion;
+
+    }
+
+
+    /**
+     * 更新に成功したかどうかを取得する。
+     *
+     * @return 成功した場合は true
+     */
+    public boolean isSuccessful() {
+
+        return successful;
+
+    }
+
+
+    /**
+     * 中断した更新を再開したかどうかを取得する。
+     *
+     * @return 再開した場合は true
+     */
+    public boolean isResumed() {
+
+        return resumed;
+
+    }
+
+
+    /**
+     * 全体の処理時間を取得する。
+     *
+     * @return 処理時間 (ミリ秒)
+     */
+    public long getElapsedTime() {
+
+        return elapsedTime;
+
+    }
+
+
+    /**
+     * テーブルごとの更新結果一覧を処理順に取得する。
+     *
+     * @return テーブルごとの更新結果一覧 (変更不可)
+     */
+    public List<FRDatabaseMigrationTableResult> getTableResults() {
+
+        return tableResults;
+
+    }
+
+
+    /**
+     * 全テーブルの保存したレコード数を取得する。
+     *
+     * @return 保存したレコード数
+     */
+    public long getCopiedCount() {
+
+        long    retCount = 0;
+
+        // 全テーブル分集計する
+        for (final FRDatabaseMigrationTableResult result : tableResults) {
+
+            retCount += result.getCopiedCount();
+
+        }
+
+        return retCount;
+
+    }
+
+
+    /**
+     * 全テーブルの保存判定処理によりスキップしたレコード数を取得する。
+     *
+     * @return スキップしたレコード数
+     */
+    public long getSkippedCount() {
+
+        long    retCount = 0;
+
+        // 全テーブル分集計する
+        for (final FRDatabaseMigrationTableResult result : tableResults) {
+
+            retCount += result.getSkippedCount();
+
+        }
+
+        return retCount;
+
+    }
+
+
+    /**
+     * 全テーブルの新しいデータベースファイルの増加バイト数を取得する。
+     *
+     * @return 増加バイト数
+     */
+    public long getByteCount() {
+
+        long    retCount = 0;
+
+        // 全テーブル分集計する
+        for (final FRDatabaseMigrationTableResult result : tableResults) {
+
+            retCount += result.getByteCount();
+
+        }
+
+        return retCount;
+
+    }
+
+
+    /**
+     * 1 秒あたりの保存したレコード数を取得する。
+     *
+     * @return 1 秒あたりの保存したレコード数。処理時間が 0 の場合は 0
+     */
+    public double getCopiedCountPerSecond() {
+
+        return (elapsedTime == 0) ? 0 : (getCopiedCount() * 1000.0 / elapsedTime);
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+
+        return "version " + oldVersion + " -> " + newVersion
+            + " [" + (successful ? "success" : "failure")
+            + (resumed ? ", resumed" : "")
+            + ", tables = " + tableResults.size()
+            + ", copied = " + getCopiedCount()
+            + ", skipped = " + getSkippedCount()
+            + ", bytes = " + getByteCount()
+            + ", elapsed = " + elapsedTime + "ms"
+            + "]";
+
+    }
+
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+
+/**
+ * テーブルごとのデータベース更新結果。<br>
+ * <br>
+ * 中断した更新を再開した場合、件数と時間は再開後の処理分のみとなる。<br>
+ *
+ * @author Kou
+ *
+ */
+public final class FRDatabaseMigrationTableResult {
+
+
+    /**
+     * テーブル名
+     */
+    private final String        tableName;
+
+    /**
+     * 古いデータベースのテーブルのレコード数
+     */
+    private final long          recordCount;
+
+    /**
+     * 保存したレコード数
+     */
+    private final long          copiedCount;
+
+    /**
+     * 保存判定処理によりスキップしたレコード数
+     */
+    private final long          skippedCount;
+
+    /**
+     * 新しいデータベースの増加バイト数
+     */
+    private final long          byteCount;
+
+    /**
+     * 処理時間 (ミリ秒)
+     */
+    private final long          elapsedTime;
+
+    /**
+     * 中断した更新を再開したかどうか
+     */
+    private final boolean       resumed;
+
+
+
+
+    /**
+     * テーブルごとの更新結果を作成する。
+     *
+     * @param argTableName      テーブル名
+     * @param argRecordCount    古いデータベースのテーブルのレコード数
+     * @param argCopiedCount    保存したレコード数
+     * @param argSkippedCount   保存判定処理によりスキップしたレコード数
+     * @param argByteCount      新しいデータベースの増加バイト数
+     * @param argElapsedTime    処理時間 (ミリ秒)
+     * @param argResumed        中断した更新を再開したかどうか
+     */
+    FRDatabaseMigrationTableResult(
+            final String    argTableName,
+            final long      argRecordCount,
+            final long      argCopiedCount,
+            final long      argSkippedCount,
+            final long      argByteCount,
+            final long      argElapsedTime,
+            final boolean   argResumed
+            ) {
+
+        tableName       = argTableName;
+        recordCount     = argRecordCount;
+        copiedCount     = argCopiedCount;
+        skippedCount    = argSkippedCount;
+        byteCount       = argByteCount;
+        elapsedTime     = argElapsedTime;
+        resumed         = argResumed;
+
+    }
+
+
+    /**
+     * テーブル名を取得する。
+     *
+     * @return テーブル名
+     */
+    public String getTableName() {
+
+        return tableName;
+
+    }
+
+
+    /**
+     * 古いデータベースのテーブルのレコード数を取得する。
+     *
+     * @return 古いデータベースのテーブルのレコード数
+     */
+    public long getRecordCount() {
+
+        return recordCount;
+
+    }
+
+
+    /**
+     * 新しいデータベースへ保存したレコード数を取得する。
+     *
+     * @return 保存したレコード数
+     */
+    public long getCopiedCount() {
+
+        return copiedCount;
+
+    }
+
+
+    /**
+     * 保存判定処理 ({@link FRDatabaseSavable}) によりスキップしたレコード数を取得する。
+     *
+     * @return スキップしたレコード数
+     */
+    public long getSkippedCount() {
+
+        return skippedCount;
+
+    }
+
+
+    /**
+     * 新しいデータベースファイルの増加バイト数を取得する。<br>
+     * <br>
+     * 既存レコードの更新のみの場合は 0 となることがある。<br>
+     *
+     * @return 増加バイト数
+     */
+    public long getByteCount() {
+
+        return byteCount;
+
+    }
+
+
+    /**
+     * 処理時間を取得する。
+     *
+     * @return 処理時間 (ミリ秒)
+     */
+    public long getElapsedTime() {
+
+        return elapsedTime;
+
+    }
+
+
+    /**
+     * 中断した更新を再開したテーブルかどうかを取得する。
+     *
+     * @return 再開した場合は true
+     */
+    public boolean isResumed() {
+
+        return resumed;
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+
+        return tableName
+            + " [records = " + recordCount
+            + ", copied = " + copiedCount
+            + ", skipped = " + skippedCount
+            + ", bytes = " + byteCount
+            + ", elapsed = " + elapsedTime + "ms"
+            + (resumed ? ", resumed" : "")
+            + "]";
+
+    }
+
+
+}
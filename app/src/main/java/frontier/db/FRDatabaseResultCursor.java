@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import android.database.Cursor;
+
+
+/**
+ * 検索結果を 1 行ずつ読み込むカーソル。<br>
+ * <br>
+ * 取り出すごとに 1 行ずつエンティティへ変換するため、<br>
+ * 結果全体をメモリ上に保持しない。<br>
+ * 全ての行を取り出した時点で自動的に閉じられる。<br>
+ * 途中で読み込みを終了する場合は {@link #close()} を呼び出すこと。<br>
+ * <br>
+ * 1 度だけ走査できる。複数スレッドから同時に利用することはできない。<br>
+ *
+ * @param <T> エンティティクラス
+ * @author Kou
+ *
+ */
+public class FRDatabaseResultCursor<T> implements Iterable<T>, Iterator<T>, Closeable {
+
+
+    /**
+     * 読み込み元カーソル
+     */
+    private Cursor                      dbCursor;
+
+    /**
+     * 行マッパー
+     */
+    private final RowMapper<T>          rowMapper;
+
+    /**
+     * 閉じる際に合わせて閉じるセッション
+     */
+    private FRDatabaseSession           dbSession;
+
+    /**
+     * カーソルが未読み込みの行を指しているかどうか
+     */
+    private boolean                     hasRow;
+
+
+
+
+    /**
+     * 検索結果を読み込むカーソルを作成する。
+     *
+     * @param cursor    先頭行へ移動済みの読み込み元カーソル。結果がない場合は null
+     * @param mapper    行マッパー
+     * @param session   閉じる際に合わせて閉じるセッション。閉じない場合は null
+     */
+    FRDatabaseResultCursor(
+            final Cursor                cursor,
+            final RowMapper<T>          mapper,
+            final FRDatabaseSession     session
+            ) {
+
+        dbCursor    = cursor;
+        rowMapper   = mapper;
+        dbSession   = session;
+        hasRow      = cursor != null;
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<T> iterator() {
+
+        return this;
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+
+        return hasRow;
+
+    }
+
+
+    /**
+     * 次の行をエンティティへ変換して取得する。
+     *
+     * @return 変換したエンティティ
+     * @throws NoSuchElementException   次の行がない場合
+     * @throws IllegalStateException    エンティティへの変換に失敗した場合
+     */
+    @Override
+    public T next() {
+
+        // 次の行がない場合は例外
+        if (!hasRow) {
+
+            throw new NoSuchElementException();
+
+        }
+
+
+        final T     row;    // 変換したエンティティ
+
+        try {
+
+            // 現在行を変換する
+            row = rowMapper.mapRow(dbCursor);
+
+        } catch (final ReflectException e) {
+
+            // カーソルを閉じて例外とする
+            close();
+            throw new IllegalStateException(e);
+
+        }
+
+        // 次の行へ移動する
+        hasRow = dbCursor.moveToNext();
+
+        // 最終行まで読み込んだ場合
+        if (!hasRow) {
+
+            // カーソルを閉じる
+            close();
+
+        }
+
+        // 変換したエンティティを返す
+        return row;
+
+    }
+
+
+    /**
+     * 削除には対応していない。
+     *
+     * @throws UnsupportedOperationException 常にスローする
+     */
+    @Override
+    public void remove() {
+
+        throw new UnsupportedOperationException();
+
+    }
+
+
+    /**
+     * カーソルを閉じる。<br>
+     * <br>
+     * 検索に利用したセッションを合わせて閉じる。<br>
+     * 既に閉じている場合は何もしない。<br>
+     */
+    @Override
+    public void close() {
+
+        // 以降の行はない
+        hasRow = false;
+
+        // カーソルがある場合
+        if (dbCursor != null) {
+
+            // カーソルを閉じる
+            dbCursor.close();
+            dbCursor = null;
+
+        }
+
+        // セッションがある場合
+        if (dbSession != null) {
+
+            // セッションを閉じる
+            dbSession.close();
+            dbSession = null;
+
+        }
+
+    }
+
+
+}
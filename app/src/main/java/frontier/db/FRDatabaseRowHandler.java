@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+
+/**
+ * 検索結果を 1 行ずつ処理するハンドラー。
+ *
+ * @param <T> エンティティクラス
+ * @author Kou
+ *
+ */
+public interface FRDatabaseRowHandler<T> {
+
+
+    /**
+     * 検索結果の 1 行を処理する。
+     *
+     * @param row 変換した 1 行分のエンティティ
+     * @return 次の行を読み込む場合は true。読み込みを終了する場合は false
+     */
+    boolean handleRow(
+            final T row
+            );
+
+
+}
@@ -186,6 +186,75 @@ public abstract class FRDatabaseSavable {
     }
 
 
+    /**
+     * レコード単位またはカラム値単位の保存判定処理が定義されているかどうかを取得する。<br>
+     * <br>
+     * {@link #canSaveRecord(String, FRDatabaseRecord, int, int)} と<br>
+     * {@link #canSaveColumn(String, String, String, int, int)} のどちらもオーバーライドされていない場合は、<br>
+     * テーブル単位でまとめて保存することができる。<br>
+     *
+     * @return レコード単位またはカラム値単位の保存判定処理が定義されている場合は true
+     */
+    boolean hasRecordDecision() {
+
+        return isOverridden("canSaveRecord", String.class, FRDatabaseRecord.class, int.class, int.class)
+            || isOverridden("canSaveColumn", String.class, String.class, String.class, int.class, int.class);
+
+    }
+
+
+    /**
+     * 保存非対象カラムとして指定されているかどうかを取得する。
+     *
+     * @param tableName     データベースのテーブル名
+     * @param columnName    データベースのカラム名
+     * @return 保存非対象カラムの場合は true
+     */
+    boolean isIgnoreColumn(
+            final String            tableName,
+            final String            columnName
+            ) {
+
+        return ignoreColumns.containsKey(tableName, columnName);
+
+    }
+
+
+    /**
+     * 指定されたメソッドがサブクラスでオーバーライドされているかどうかを取得する。
+     *
+     * @param methodName        メソッド名
+     * @param parameterTypes    引数の型一覧
+     * @return オーバーライドされている場合は true
+     */
+    private boolean isOverridden(
+            final String        methodName,
+            final Class<?>...   parameterTypes
+            ) {
+
+        // 本クラスに到達するまでサブクラスを辿る
+        for (Class<?> clazz = getClass(); clazz != FRDatabaseSavable.class; clazz = clazz.getSuperclass()) {
+
+            try {
+
+                // メソッドが宣言されている場合
+                clazz.getDeclaredMethod(methodName, parameterTypes);
+                return true;
+
+            } catch (final NoSuchMethodException e) {
+
+                // 親クラスへ
+
+            }
+
+        }
+
+        // オーバーライドされていない
+        return false;
+
+    }
+
+
     /**
      * 保存対象テーブルかどうかを判断して返す。<br>
      * <br>
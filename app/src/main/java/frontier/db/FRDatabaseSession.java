@@ -16,9 +16,15 @@
 package frontier.db;
 
 import java.io.Closeable;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
 
 
 /**
@@ -54,6 +60,44 @@ public class FRDatabaseSession implements Closeable {
      */
     public static final int         TRANSACTION_EXCLUSIVE   = TRANSACTION_IMMEDIATE + 1;
 
+    /**
+     * コンパイル済みステートメントのデフォルト最大キャッシュ数
+     */
+    public static final int         DEFAULT_STATEMENT_CACHE_SIZE = 25;
+
+
+    /**
+     * 書き込み用SQLの実行種別 : 結果を取得しない
+     */
+    private static final int        EXECUTE_NONE            = 0;
+
+    /**
+     * 書き込み用SQLの実行種別 : 追加した行のROWIDを取得する
+     */
+    private static final int        EXECUTE_INSERT          = EXECUTE_NONE + 1;
+
+    /**
+     * 書き込み用SQLの実行種別 : 変更した行数を取得する
+     */
+    private static final int        EXECUTE_UPDATE_DELETE   = EXECUTE_INSERT + 1;
+
+    /**
+     * セーブポイントに対応したSQLiteのバージョン番号 (3.6.8)
+     */
+    private static final int        SQLITE_VERSION_SAVEPOINT = 3006008;
+
+
+    /**
+     * 直前のSQLで変更した行数を取得するSQL文
+     */
+    private static final String     SQL_CHANGES =
+        "SELECT changes()";
+
+    /**
+     * SQLiteのバージョンを取得するSQL文
+     */
+    private static final String     SQL_SQLITE_VERSION =
+        "SELECT sqlite_version()";
 
     /**
      * DEFERREDのSQL文
@@ -85,6 +129,24 @@ public class FRDatabaseSession implements Closeable {
     private static final String     SQL_ROLLBACK =
         "ROLLBACK";
 
+    /**
+     * セーブポイント作成のSQL文のフォーマット
+     */
+    private static final String     SQL_SAVEPOINT =
+        "SAVEPOINT frontier_sp%d";
+
+    /**
+     * セーブポイント解放のSQL文のフォーマット
+     */
+    private static final String     SQL_RELEASE_SAVEPOINT =
+        "RELEASE frontier_sp%d";
+
+    /**
+     * セーブポイントへのロールバックのSQL文のフォーマット
+     */
+    private static final String     SQL_ROLLBACK_TO_SAVEPOINT =
+        "ROLLBACK TO frontier_sp%d";
+
 
     /**
      * エラー文言 : トランザクションが開始していない
@@ -94,6 +156,13 @@ public class FRDatabaseSession implements Closeable {
 
 
 
+    /**
+     * SQLiteのバージョン番号 (未取得の場合は 0)。<br>
+     * プロセス内の全接続が同じSQLiteライブラリを利用するため共有する。
+     */
+    private static volatile int             sqliteVersionNumber;
+
+
     /**
      * アクセス先データベース
      */
@@ -109,20 +178,71 @@ public class FRDatabaseSession implements Closeable {
      */
     private boolean                         transactionSuccessful;
 
+    /**
+     * 入れ子トランザクションごとの成功状態 (先頭が最も内側)。<br>
+     * セーブポイントを作成していない階層は null とする。
+     */
+    private final LinkedList<Boolean>       savepointSuccessful     = new LinkedList<Boolean>();
+
+    /**
+     * 内側の階層の巻き戻しに失敗したため、必ず巻き戻す階層 (ない場合は 0)
+     */
+    private int                             rollbackOnlyLevel;
+
     /**
      * トランザクションを開始したスレッド
      */
     private Thread                          transactionThread;
 
     /**
-     * トランザクション待ちオブジェクト
+     * トランザクション状態のロック
+     */
+    private final ReentrantLock             transactionLock         = new ReentrantLock(true);
+
+    /**
+     * トランザクション終了通知
+     */
+    private final Condition                 transactionReleased     = transactionLock.newCondition();
+
+    /**
+     * トランザクション開始待ちスレッドの待ち行列 (到着順)
+     */
+    private final LinkedList<Thread>        transactionQueue        = new LinkedList<Thread>();
+
+    /**
+     * トランザクション開始待ちを行った回数
+     */
+    private long                            transactionWaitCount;
+
+    /**
+     * トランザクション開始待ちの合計時間 (ナノ秒)
+     */
+    private long                            transactionWaitTime;
+
+    /**
+     * トランザクション開始待ちの最大時間 (ナノ秒)
+     */
+    private long                            transactionMaxWaitTime;
+
+    /**
+     * トランザクション開始待ちがタイムアウトした回数
+     */
+    private long                            transactionTimeoutCount;
+
+    /**
+     * トランザクション開始待ち行列の最大長
+     */
+    private int                             transactionMaxQueueLength;
+
+    /**
+     * コンパイル済みステートメントのキャッシュ
      */
-    private final Object                    transactionLock         = new Object();
+    private final StatementCache            statementCache;
 
     /**
-     * トランザクション待ち状態
+     * 接続の返却先プール
      */
-    private boolean                         transactionWait;
+    private final ConnectionPool            ownerPool;
 
 
 
@@ -130,13 +250,19 @@ public class FRDatabaseSession implements Closeable {
     /**
      * データベース接続セッションを作成する。
      *
-     * @param database アクセスするデータベース
+     * @param database            アクセスするデータベース
+     * @param statementCacheSize  コンパイル済みステートメントの最大キャッシュ数
+     * @param pool                接続の返却先プール。プールを利用しない場合は null
      */
     FRDatabaseSession(
-            final SQLiteDatabase    database
+            final SQLiteDatabase    database,
+            final int               statementCacheSize,
+            final ConnectionPool    pool
             ) {
 
         accessDatabase = database;
+        statementCache = new StatementCache(database, statementCacheSize);
+        ownerPool      = pool;
 
     }
 
@@ -151,7 +277,44 @@ public class FRDatabaseSession implements Closeable {
             final String    sql
             ) {
 
-        return accessDatabase.rawQuery(sql, null);
+        return rawQuery(sql, null);
+
+    }
+
+
+    /**
+     * 指定された参照用SQLをバインド値を指定して実行する。
+     *
+     * @param sql       実行する参照用SQL
+     * @param bindArgs  SQL内のバインド変数へ設定する値一覧。ない場合は null
+     * @return 実行結果へアクセスするためのカーソル
+     */
+    Cursor rawQuery(
+            final String    sql,
+            final Object[]  bindArgs
+            ) {
+
+        // バインド値がない場合
+        if ((bindArgs == null) || (bindArgs.length == 0)) {
+
+            // そのまま実行する
+            return accessDatabase.rawQuery(sql, null);
+
+        }
+
+
+        final String[]  selectionArgs = new String[bindArgs.length];
+
+        // バインド値分処理をする
+        for (int i = 0; i < bindArgs.length; i++) {
+
+            // 参照用SQLのバインド値は文字列として設定する
+            selectionArgs[i] = ConvertUtils.toString(bindArgs[i]);
+
+        }
+
+        // バインド値を指定して実行する
+        return accessDatabase.rawQuery(sql, selectionArgs);
 
     }
 
@@ -165,7 +328,7 @@ public class FRDatabaseSession implements Closeable {
             final String    sql
             ) {
 
-        execSQL(sql, true);
+        execSQL(sql, null, true);
 
     }
 
@@ -181,48 +344,118 @@ public class FRDatabaseSession implements Closeable {
             final boolean   autoTransaction
             ) {
 
-        // 自動トランザクション処理が有効の場合
-        if (autoTransaction) {
+        execSQL(sql, null, autoTransaction);
 
-            try {
+    }
 
-                // トランザクションを開始する
-                beginTransaction();
 
-                // 書き込み用SQLを実行する
-                accessDatabase.execSQL(sql);
+    /**
+     * 指定された書き込み用SQLをバインド値を指定して実行する。
+     *
+     * @param sql       実行する書き込み用SQL
+     * @param bindArgs  SQL内のバインド変数へ設定する値一覧。ない場合は null
+     */
+    void execSQL(
+            final String    sql,
+            final Object[]  bindArgs
+            ) {
 
-                // トランザクション成功とする
-                setTransactionSuccessful();
+        execSQL(sql, bindArgs, true);
 
-            } finally {
+    }
 
-                // トランザクションを終了する
-                endTransaction();
 
-            }
+    /**
+     * 指定された書き込み用SQLをバインド値を指定して実行する。
+     *
+     * @param sql               実行する書き込み用SQL
+     * @param bindArgs          SQL内のバインド変数へ設定する値一覧。ない場合は null
+     * @param autoTransaction   自動トランザクション処理を有効にするかどうか
+     */
+    void execSQL(
+            final String    sql,
+            final Object[]  bindArgs,
+            final boolean   autoTransaction
+            ) {
 
-        } else {
+        execute(sql, bindArgs, autoTransaction, EXECUTE_NONE);
 
-            // 書き込み用SQLを実行する
-            accessDatabase.execSQL(sql);
+    }
 
-        }
+
+    /**
+     * 指定された追加用SQLをバインド値を指定して実行し、追加した行のROWIDを取得する。
+     *
+     * @param sql               実行する追加用SQL
+     * @param bindArgs          SQL内のバインド変数へ設定する値一覧。ない場合は null
+     * @param autoTransaction   自動トランザクション処理を有効にするかどうか
+     * @return 追加した行のROWID。追加しなかった場合は -1
+     */
+    long executeInsert(
+            final String    sql,
+            final Object[]  bindArgs,
+            final boolean   autoTransaction
+            ) {
+
+        return execute(sql, bindArgs, autoTransaction, EXECUTE_INSERT);
 
     }
 
 
     /**
-     * セッションを閉じる。
+     * 指定された更新用または削除用SQLをバインド値を指定して実行し、変更した行数を取得する。
      *
+     * @param sql               実行する更新用または削除用SQL
+     * @param bindArgs          SQL内のバインド変数へ設定する値一覧。ない場合は null
+     * @param autoTransaction   自動トランザクション処理を有効にするかどうか
+     * @return 変更した行数
      */
-    public void close() {
+    int executeUpdateDelete(
+            final String    sql,
+            final Object[]  bindArgs,
+            final boolean   autoTransaction
+            ) {
 
-        // トランザクションをロックする
-        synchronized (transactionLock) {
+        return (int)execute(sql, bindArgs, autoTransaction, EXECUTE_UPDATE_DELETE);
+
+    }
+
+
+    /**
+     * 指定された書き込み用SQLをバインド値を指定して実行する。
+     *
+     * @param sql               実行する書き込み用SQL
+     * @param bindArgs          SQL内のバインド変数へ設定する値一覧。ない場合は null
+     * @param autoTransaction   自動トランザクション処理を有効にするかどうか
+     * @param executeType       実行種別
+     * @return 実行種別に応じた実行結果
+     */
+    private long execute(
+            final String    sql,
+            final Object[]  bindArgs,
+            final boolean   autoTransaction,
+            final int       executeType
+            ) {
+
+        // 自動トランザクション処理が有効で、カレントスレッドがトランザクション中でない場合
+        // (トランザクション中の単一SQLはSQLiteが文単位で巻き戻すため入れ子にしない)
+        if (autoTransaction && !isTransactionOwner()) {
 
-            // トランザクションが開始されている場合
-            if (transactionCount > 0) {
+            try {
+
+                // トランザクションを開始する
+                beginTransaction();
+
+                // 書き込み用SQLを実行する
+                final long  result = executeInner(sql, bindArgs, executeType);
+
+                // トランザクション成功とする
+                setTransactionSuccessful();
+
+                // 実行結果を返す
+                return result;
+
+            } finally {
 
                 // トランザクションを終了する
                 endTransaction();
@@ -231,156 +464,204 @@ public class FRDatabaseSession implements Closeable {
 
         }
 
-        // セッションを閉じる
-        accessDatabase.close();
+        // 書き込み用SQLを実行する
+        return executeInner(sql, bindArgs, executeType);
 
     }
 
 
     /**
-     * トランザクションを開始する。<br>
+     * 指定された書き込み用SQLをデータベースで実行する。<br>
      * <br>
-     * {@link #TRANSACTION_IMMEDIATE} モードでトランザクションを開始する。
+     * バインド値がある場合、または実行結果を取得する場合は<br>
+     * キャッシュしたコンパイル済みステートメントを再利用して実行する。<br>
+     * 変更した行数はコンパイル済みの {@code SELECT changes()} で取得する。<br>
+     *
+     * @param sql           実行する書き込み用SQL
+     * @param bindArgs      SQL内のバインド変数へ設定する値一覧。ない場合は null
+     * @param executeType   実行種別
+     * @return 実行種別に応じた実行結果。結果を取得しない場合は 0
      */
-    public void beginTransaction() {
+    private long executeInner(
+            final String    sql,
+            final Object[]  bindArgs,
+            final int       executeType
+            ) {
 
-        beginTransaction(TRANSACTION_IMMEDIATE);
+        // バインド値がなく、実行結果を取得しない場合
+        if (((bindArgs == null) || (bindArgs.length == 0)) && (executeType == EXECUTE_NONE)) {
 
-    }
+            // そのまま実行する
+            accessDatabase.execSQL(sql);
+            return 0;
 
+        }
 
-    /**
-     * 指定したトランザクション開始モードでトランザクションを開始する。
-     *
-     * @param mode トランザクション開始モード
-     */
-    public void beginTransaction(
-            final int   mode
-            ) {
 
-        final String    sql;    // 実行するSQL
+        // ステートメントキャッシュをロックする
+        synchronized (statementCache) {
 
+            // コンパイル済みステートメントを取得する
+            final SQLiteStatement   statement =
+                statementCache.acquire(StatementCache.normalize(sql));
 
-        // トランザクション開始モード別処理
-        switch (mode) {
+            try {
 
-        // 遅延ロック
-        case TRANSACTION_DEFERRED:
+                // バインド値がある場合
+                if (bindArgs != null) {
 
-            // 遅延ロックSQLを設定する
-            sql = SQL_TRANSACTION_DEFERRED;
-            break;
+                    // バインド値を設定する
+                    bindStatement(statement, bindArgs);
 
+                }
 
-        // 共有ロック
-        case TRANSACTION_IMMEDIATE:
+                // 追加した行のROWIDを取得する場合
+                if (executeType == EXECUTE_INSERT) {
 
-            // 共有ロックSQLを設定する
-            sql = SQL_TRANSACTION_IMMEDIATE;
-            break;
+                    // ステートメントを実行してROWIDを返す
+                    return statement.executeInsert();
 
+                }
 
-        // 排他ロック
-        case TRANSACTION_EXCLUSIVE:
+                // ステートメントを実行する
+                statement.execute();
 
-            // 排他ロックSQLを設定する
-            sql = SQL_TRANSACTION_EXCLUSIVE;
-            break;
+            } finally {
 
+                // ステートメントの利用を終了する
+                statementCache.release(statement);
 
-        // その他 (エラー)
-        default:
+            }
 
-            throw new IllegalArgumentException("Illegal transaction mode. [mode = " + mode + "]");
 
-        }
+            // 変更した行数を取得しない場合
+            if (executeType != EXECUTE_UPDATE_DELETE) {
 
+                return 0;
 
-        // トランザクション処理メインループ
-        while (true) {
+            }
 
-            // トランザクションをロックする
-            synchronized (transactionLock) {
+            // 変更行数取得用のコンパイル済みステートメントを取得する
+            final SQLiteStatement   changesStatement = statementCache.acquire(SQL_CHANGES);
 
-                // トランザクションカウントが 0 の場合
-                if (transactionCount == 0) {
+            try {
 
-                    // トランザクションカウントをインクリメントする
-                    transactionCount++;
+                // 変更した行数を返す
+                return changesStatement.simpleQueryForLong();
 
-                    // トランザクション開始スレッドを設定する
-                    transactionThread = Thread.currentThread();
+            } finally {
 
-                    // トランザクションを開始する
-                    accessDatabase.execSQL(sql);
+                // ステートメントの利用を終了する
+                statementCache.release(changesStatement);
 
-                    // 処理終了
-                    break;
+            }
 
-                } else {
+        }
 
-                    // トランザクションカウントをインクリメントする
-                    transactionCount++;
+    }
 
-                    // カレントスレッドがトランザクション開始スレッドと等しい場合
-                    if (Thread.currentThread() == transactionThread) {
 
-                        // 入れ子トランザクションにはAndroidのSQLiteは非対応のため
-                        //
-                        break;
+    /**
+     * SQLiteのバージョン番号を取得する。<br>
+     * <br>
+     * バージョン番号は SQLITE_VERSION_NUMBER と同じ形式<br>
+     * (例 : 3.7.11 は 3007011) とする。<br>
+     * 初回のみデータベースへ問い合わせ、以降は取得済みの値を返す。<br>
+     *
+     * @return SQLiteのバージョン番号
+     */
+    int getSqliteVersionNumber() {
 
-                    }
+        // 取得済みの場合
+        if (sqliteVersionNumber > 0) {
 
+            return sqliteVersionNumber;
 
-                    try {
+        }
 
-                        // 待ち状態を有効にする
-                        transactionWait = true;
 
-                        // 待ち状態が解除されるまで繰り返し
-                        while (!transactionWait) {
+        final String    version;    // バージョン文字列
 
-                            // 待ち状態へ
-                            transactionLock.wait();
+        // ステートメントキャッシュをロックする
+        synchronized (statementCache) {
 
-                        }
+            // コンパイル済みステートメントを取得する
+            final SQLiteStatement   statement = statementCache.acquire(SQL_SQLITE_VERSION);
 
-                    } catch (final InterruptedException e) {
+            try {
 
-                        e.printStackTrace();
+                // バージョン文字列を取得する
+                version = statement.simpleQueryForString();
 
-                    }
+            } finally {
 
-                }
+                // ステートメントの利用を終了する
+                statementCache.release(statement);
 
             }
 
         }
 
+
+        final String[]  parts   = version.split("\\.");   // バージョン区切り
+        int             number  = 0;                        // バージョン番号
+
+        // メジャー、マイナー、パッチの順に処理をする
+        for (int i = 0; i < 3; i++) {
+
+            number = (number * 1000) + ((i < parts.length) ? ConvertUtils.toInt(parts[i], 0) : 0);
+
+        }
+
+        // 取得したバージョン番号を保持して返す
+        sqliteVersionNumber = number;
+        return number;
+
     }
 
 
     /**
-     * トランザクション成功を設定する。
+     * 指定されたステートメントへバインド値を型に応じて設定する。
      *
+     * @param statement 設定先ステートメント
+     * @param bindArgs  SQL内のバインド変数へ設定する値一覧
      */
-    public void setTransactionSuccessful() {
+    private static void bindStatement(
+            final SQLiteStatement   statement,
+            final Object[]          bindArgs
+            ) {
 
-        // トランザクションをロックする
-        synchronized (transactionLock) {
+        // バインド値分処理をする
+        for (int i = 0; i < bindArgs.length; i++) {
 
-            // トランザクションが開始されていなければ例外
-            if (transactionCount == 0) {
+            final Object    value = bindArgs[i];    // バインド値
+            final int       index = i + 1;          // バインド位置
 
-                throw new IllegalStateException(ERROR_TRANSACTION_BEGIN);
 
-            }
+            // 値の型別に設定する
+            if (value == null) {
 
-            // トランザクションが最上位階層の場合
-            if (transactionCount == 1) {
+                statement.bindNull(index);
 
-                // 成功を設定する
-                transactionSuccessful = true;
+            } else if ((value instanceof Double) || (value instanceof Float)) {
+
+                statement.bindDouble(index, ((Number)value).doubleValue());
+
+            } else if (value instanceof Number) {
+
+                statement.bindLong(index, ((Number)value).longValue());
+
+            } else if (value instanceof Boolean) {
+
+                statement.bindLong(index, ((Boolean)value).booleanValue() ? 1 : 0);
+
+            } else if (value instanceof byte[]) {
+
+                statement.bindBlob(index, (byte[])value);
+
+            } else {
+
+                statement.bindString(index, value.toString());
 
             }
 
@@ -390,52 +671,884 @@ public class FRDatabaseSession implements Closeable {
 
 
     /**
-     * トランザクションを終了する。
+     * コンパイル済みステートメントの最大キャッシュ数を設定する。<br>
+     * <br>
+     * 0 を指定した場合はステートメントをキャッシュしない。<br>
      *
+     * @param size 最大キャッシュ数
+     * @throws IllegalArgumentException 最大キャッシュ数が 0 より小さい場合
      */
-    public void endTransaction() {
+    public void setStatementCacheSize(
+            final int   size
+            ) {
 
-        // トランザクションをロックする
-        synchronized (transactionLock) {
+        // ステートメントキャッシュをロックする
+        synchronized (statementCache) {
 
-            // トランザクションが開始されていなければ例外
-            if (transactionCount == 0) {
+            statementCache.setCapacity(size);
 
-                throw new IllegalStateException(ERROR_TRANSACTION_BEGIN);
+        }
 
-            }
+    }
 
-            // トランザクションカウントをデクリメントする
-            transactionCount--;
 
-            // トランザクションカウントが 0 になる場合
-            if (transactionCount == 0) {
+    /**
+     * コンパイル済みステートメントの最大キャッシュ数を取得する。
+     *
+     * @return 最大キャッシュ数
+     */
+    public int getStatementCacheSize() {
 
-                // トランザクションが成功している場合
-                if (transactionSuccessful) {
+        // ステートメントキャッシュをロックする
+        synchronized (statementCache) {
 
-                    // 変更内容をコミットする
-                    accessDatabase.execSQL(SQL_COMMIT);
+            return statementCache.getCapacity();
 
-                } else {
+        }
 
-                    // 変更内容をロールバックする
-                    accessDatabase.execSQL(SQL_ROLLBACK);
+    }
 
-                }
 
-                // トランザクション開始スレッドと成功状態をクリアする
-                transactionThread     = null;
-                transactionSuccessful = false;
+    /**
+     * コンパイル済みステートメントのキャッシュヒット数を取得する。
+     *
+     * @return キャッシュヒット数
+     */
+    public long getStatementCacheHitCount() {
+
+        // ステートメントキャッシュをロックする
+        synchronized (statementCache) {
+
+            return statementCache.getHitCount();
+
+        }
+
+    }
+
+
+    /**
+     * コンパイル済みステートメントのキャッシュミス数を取得する。
+     *
+     * @return キャッシュミス数
+     */
+    public long getStatementCacheMissCount() {
+
+        // ステートメントキャッシュをロックする
+        synchronized (statementCache) {
+
+            return statementCache.getMissCount();
+
+        }
+
+    }
+
+
+    /**
+     * 最大キャッシュ数を超えたことにより破棄したコンパイル済みステートメント数を取得する。
+     *
+     * @return 破棄数
+     */
+    public long getStatementCacheEvictionCount() {
+
+        // ステートメントキャッシュをロックする
+        synchronized (statementCache) {
+
+            return statementCache.getEvictionCount();
+
+        }
+
+    }
+
+
+    /**
+     * セッションを閉じる。<br>
+     * <br>
+     * プールから取得したセッションの場合は、接続を閉じずにプールへ返却する。<br>
+     * カレントスレッドが開始したトランザクションが終了していない場合は終了する。<br>
+     */
+    public void close() {
+
+        // プールを利用しない場合
+        if (ownerPool == null) {
+
+            // 接続を閉じる
+            closeConnection();
+            return;
+
+        }
+
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            // カレントスレッドが開始したトランザクションが残っている間繰り返す
+            while ((transactionCount > 0) && (transactionThread == Thread.currentThread())) {
+
+                // トランザクションを終了する
+                endTransaction();
+
+            }
+
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
+        }
+
+        // プールへ返却する
+        ownerPool.release(this);
+
+    }
+
+
+    /**
+     * データベースへの接続を閉じる。
+     *
+     */
+    void closeConnection() {
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            // トランザクションが残っている間繰り返す
+            while (transactionCount > 0) {
+
+                // トランザクションを終了する
+                endTransaction();
+
+            }
+
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
+        }
+
+        // ステートメントキャッシュをロックする
+        synchronized (statementCache) {
+
+            // キャッシュしたステートメントを全て閉じる
+            statementCache.clear();
+
+        }
+
+        // セッションを閉じる
+        accessDatabase.close();
+
+    }
+
+
+    /**
+     * トランザクションを開始する。<br>
+     * <br>
+     * {@link #TRANSACTION_IMMEDIATE} モードでトランザクションを開始する。
+     */
+    public void beginTransaction() {
+
+        beginTransaction(TRANSACTION_IMMEDIATE);
+
+    }
+
+
+    /**
+     * 指定したトランザクション開始モードでトランザクションを開始する。<br>
+     * <br>
+     * 他のスレッドがトランザクション中の場合は、到着順に終了を待ってから開始する。<br>
+     * 同じスレッドから入れ子で呼び出した場合は、セーブポイントによる入れ子トランザクションとなり、<br>
+     * 内側のトランザクションのみを巻き戻すことができる。<br>
+     *
+     * @param mode トランザクション開始モード
+     * @throws IllegalArgumentException トランザクション開始モードが不正な場合
+     */
+    public void beginTransaction(
+            final int   mode
+            ) {
+
+        try {
+
+            // 開始できるまで待機してトランザクションを開始する
+            acquireTransaction(toTransactionSql(mode), -1);
+
+        } catch (final InterruptedException e) {
+
+            // 最大時間の指定がない場合は割り込みで待機を中断しないため発生しない
+            throw new IllegalStateException(e);
+
+        }
+
+    }
+
+
+    /**
+     * 指定時間内に開始できた場合のみトランザクションを開始する。<br>
+     * <br>
+     * {@link #TRANSACTION_IMMEDIATE} モードでトランザクションを開始する。
+     *
+     * @param timeout 開始を待つ最大時間 (ミリ秒)
+     * @return トランザクションを開始した場合は true。時間内に開始できなかった場合は false
+     * @throws InterruptedException 待機中に割り込みが発生した場合
+     */
+    public boolean tryBeginTransaction(
+            final long  timeout
+            ) throws InterruptedException {
+
+        return tryBeginTransaction(TRANSACTION_IMMEDIATE, timeout);
+
+    }
+
+
+    /**
+     * 指定時間内に開始できた場合のみ、指定したトランザクション開始モードでトランザクションを開始する。
+     *
+     * @param mode      トランザクション開始モード
+     * @param timeout   開始を待つ最大時間 (ミリ秒)
+     * @return トランザクションを開始した場合は true。時間内に開始できなかった場合は false
+     * @throws InterruptedException 待機中に割り込みが発生した場合
+     * @throws IllegalArgumentException トランザクション開始モードまたは最大時間が不正な場合
+     */
+    public boolean tryBeginTransaction(
+            final int   mode,
+            final long  timeout
+            ) throws InterruptedException {
+
+        // 最大時間が不正の場合は例外
+        if (timeout < 0) {
+
+            throw new IllegalArgumentException("Illegal timeout. [timeout = " + timeout + "]");
+
+        }
+
+        // 割り込みが発生している場合は例外
+        if (Thread.interrupted()) {
+
+            throw new InterruptedException();
+
+        }
+
+        return acquireTransaction(toTransactionSql(mode), TimeUnit.MILLISECONDS.toNanos(timeout));
+
+    }
+
+
+    /**
+     * 指定されたトランザクション開始モードのSQL文を取得する。
+     *
+     * @param mode トランザクション開始モード
+     * @return トランザクション開始SQL文
+     * @throws IllegalArgumentException トランザクション開始モードが不正な場合
+     */
+    private static String toTransactionSql(
+            final int   mode
+            ) {
+
+        // トランザクション開始モード別処理
+        switch (mode) {
+
+        // 遅延ロック
+        case TRANSACTION_DEFERRED:
+
+            return SQL_TRANSACTION_DEFERRED;
+
+
+        // 共有ロック
+        case TRANSACTION_IMMEDIATE:
+
+            return SQL_TRANSACTION_IMMEDIATE;
+
+
+        // 排他ロック
+        case TRANSACTION_EXCLUSIVE:
+
+            return SQL_TRANSACTION_EXCLUSIVE;
+
+
+        // その他 (エラー)
+        default:
+
+            throw new IllegalArgumentException("Illegal transaction mode. [mode = " + mode + "]");
+
+        }
+
+    }
+
+
+    /**
+     * トランザクションの開始権を到着順に取得し、トランザクションを開始する。
+     *
+     * @param sql           トランザクション開始SQL文
+     * @param timeoutNanos  開始を待つ最大時間 (ナノ秒)。0 より小さい場合は開始できるまで待機する
+     * @return トランザクションを開始した場合は true。時間内に開始できなかった場合は false
+     * @throws InterruptedException 最大時間を指定した待機中に割り込みが発生した場合
+     */
+    private boolean acquireTransaction(
+            final String    sql,
+            final long      timeoutNanos
+            ) throws InterruptedException {
+
+        final Thread    currentThread = Thread.currentThread();
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            // カレントスレッドがトランザクション中の場合
+            if ((transactionCount > 0) && (transactionThread == currentThread)) {
+
+                // 入れ子トランザクションを開始する
+                startNestedTransaction();
+                return true;
+
+            }
+
+            // トランザクション中でなく、待ちスレッドもない場合
+            if ((transactionCount == 0) && transactionQueue.isEmpty()) {
+
+                // 待たずにトランザクションを開始する
+                startTransaction(sql, currentThread);
+                return true;
+
+            }
+
+
+            final long      startTime   = System.nanoTime();
+            long            remaining   = timeoutNanos;
+            boolean         acquired    = false;
+
+            // 待ち行列の末尾へ追加する
+            transactionQueue.addLast(currentThread);
+
+            // 待ち行列の最大長を更新する
+            if (transactionQueue.size() > transactionMaxQueueLength) {
+
+                transactionMaxQueueLength = transactionQueue.size();
+
+            }
+
+            try {
+
+                // トランザクションが終了し、待ち行列の先頭になるまで待機する
+                while ((transactionCount > 0) || (transactionQueue.getFirst() != currentThread)) {
+
+                    // 最大時間の指定がない場合
+                    if (timeoutNanos < 0) {
+
+                        // 終了通知を待つ
+                        transactionReleased.awaitUninterruptibly();
+
+                    } else {
+
+                        // 最大時間を超えた場合
+                        if (remaining <= 0) {
+
+                            // タイムアウト数を加算して終了する
+                            transactionTimeoutCount++;
+                            return false;
+
+                        }
+
+                        // 残り時間だけ終了通知を待つ
+                        remaining = transactionReleased.awaitNanos(remaining);
+
+                    }
+
+                }
+
+                // 待ち行列から取り出してトランザクションを開始する
+                transactionQueue.removeFirst();
+                startTransaction(sql, currentThread);
+                acquired = true;
+
+                // 開始成功
+                return true;
+
+            } finally {
+
+                // 開始できなかった場合
+                if (!acquired) {
+
+                    // 待ち行列から削除し、後続のスレッドへ通知する
+                    transactionQueue.remove(currentThread);
+                    transactionReleased.signalAll();
+
+                }
+
+                final long  waitTime = System.nanoTime() - startTime;
+
+                // 待ち時間を記録する
+                transactionWaitCount++;
+                transactionWaitTime += waitTime;
+
+                // 最大待ち時間を更新する
+                if (waitTime > transactionMaxWaitTime) {
+
+                    transactionMaxWaitTime = waitTime;
+
+                }
+
+            }
+
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
+        }
+
+    }
+
+
+    /**
+     * トランザクションを開始する。<br>
+     * <br>
+     * トランザクションのロック中に呼び出すこと。<br>
+     *
+     * @param sql           トランザクション開始SQL文
+     * @param currentThread トランザクションを開始するスレッド
+     */
+    private void startTransaction(
+            final String    sql,
+            final Thread    currentThread
+            ) {
+
+        // トランザクションカウントとトランザクション開始スレッドを設定する
+        transactionCount  = 1;
+        transactionThread = currentThread;
+
+        try {
 
-                // トランザクション待ち状態を無効にする
-                transactionWait = false;
+            // トランザクションを開始する
+            accessDatabase.execSQL(sql);
+
+        } catch (final RuntimeException e) {
+
+            // トランザクション状態を戻す
+            transactionCount  = 0;
+            transactionThread = null;
+
+            // 後続のスレッドへ通知する
+            transactionReleased.signalAll();
+
+            throw e;
+
+        }
+
+    }
+
+
+    /**
+     * セーブポイントを作成して入れ子トランザクションを開始する。<br>
+     * <br>
+     * セーブポイントに対応していないSQLite (3.6.8 より前) の場合は、<br>
+     * 最上位のトランザクションに含める。<br>
+     * トランザクションのロック中に呼び出すこと。<br>
+     *
+     */
+    private void startNestedTransaction() {
+
+        Boolean     state = null;   // 入れ子トランザクションの成功状態
+
+        // セーブポイントに対応したSQLiteの場合
+        if (getSqliteVersionNumber() >= SQLITE_VERSION_SAVEPOINT) {
+
+            // セーブポイントを作成する
+            accessDatabase.execSQL(String.format(SQL_SAVEPOINT, transactionCount + 1));
+            state = Boolean.FALSE;
+
+        }
+
+        // 入れ子トランザクションを追加する
+        savepointSuccessful.addFirst(state);
+        transactionCount++;
+
+    }
+
+
+    /**
+     * カレントスレッドがトランザクションを開始しているかどうかを取得する。
+     *
+     * @return カレントスレッドがトランザクション中の場合は true
+     */
+    private boolean isTransactionOwner() {
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            return (transactionCount > 0) && (transactionThread == Thread.currentThread());
 
-                // 待ち状態を解除する
-                transactionLock.notifyAll();
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
+        }
+
+    }
+
+
+    /**
+     * トランザクション成功を設定する。<br>
+     * <br>
+     * 現在の階層のトランザクションを成功とする。<br>
+     * 入れ子トランザクションの場合は、終了時にセーブポイントを解放して外側のトランザクションへ反映する。<br>
+     */
+    public void setTransactionSuccessful() {
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            // トランザクションが開始されていなければ例外
+            if (transactionCount == 0) {
+
+                throw new IllegalStateException(ERROR_TRANSACTION_BEGIN);
 
             }
 
+            // トランザクションが最上位階層の場合
+            if (transactionCount == 1) {
+
+                // 成功を設定する
+                transactionSuccessful = true;
+
+            } else if (savepointSuccessful.getFirst() != null) {
+
+                // 入れ子トランザクションの成功を設定する
+                savepointSuccessful.set(0, Boolean.TRUE);
+
+            }
+
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
+        }
+
+    }
+
+
+    /**
+     * トランザクションを終了する。<br>
+     * <br>
+     * 入れ子トランザクションの場合、成功していればセーブポイントを解放し、<br>
+     * 成功していなければセーブポイントまで巻き戻す。<br>
+     * 最上位のトランザクションの場合はコミットまたはロールバックする。<br>
+     * コミットに失敗した場合はロールバックしてから例外を通知する。<br>
+     */
+    public void endTransaction() {
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            // トランザクションが開始されていなければ例外
+            if (transactionCount == 0) {
+
+                throw new IllegalStateException(ERROR_TRANSACTION_BEGIN);
+
+            }
+
+            // 入れ子トランザクションの場合
+            if (transactionCount > 1) {
+
+                // 入れ子トランザクションを終了する
+                endNestedTransaction();
+                return;
+
+            }
+
+            // トランザクションカウントをデクリメントする
+            transactionCount--;
+
+            // トランザクションカウントが 0 になる場合
+            if (transactionCount == 0) {
+
+                try {
+
+                    // トランザクションが成功し、巻き戻しが必要な階層がない場合
+                    if (transactionSuccessful && (rollbackOnlyLevel == 0)) {
+
+                        try {
+
+                            // 変更内容をコミットする
+                            accessDatabase.execSQL(SQL_COMMIT);
+
+                        } catch (final RuntimeException e) {
+
+                            // コミットに失敗してもトランザクションは残るため、
+                            // 後続のスレッドへ引き継がないようにロールバックする
+                            rollbackAfterCommitFailure();
+                            throw e;
+
+                        }
+
+                    } else {
+
+                        // 変更内容をロールバックする
+                        accessDatabase.execSQL(SQL_ROLLBACK);
+
+                    }
+
+                } finally {
+
+                    // トランザクション開始スレッドと成功状態をクリアする
+                    transactionThread     = null;
+                    transactionSuccessful = false;
+                    rollbackOnlyLevel     = 0;
+                    savepointSuccessful.clear();
+
+                    // 待ち行列の先頭のスレッドへ通知する
+                    transactionReleased.signalAll();
+
+                }
+
+            }
+
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
+        }
+
+    }
+
+
+    /**
+     * コミットに失敗したトランザクションをロールバックする。<br>
+     * <br>
+     * SQLiteが既にトランザクションを終了している場合などロールバックに失敗した場合は、<br>
+     * コミット失敗の例外を優先するためログ出力のみ行う。<br>
+     * トランザクションのロック中に呼び出すこと。<br>
+     *
+     */
+    private void rollbackAfterCommitFailure() {
+
+        try {
+
+            // 変更内容をロールバックする
+            accessDatabase.execSQL(SQL_ROLLBACK);
+
+        } catch (final RuntimeException e) {
+
+            Log.w(getClass().getName(), "Failed to roll back after a failed commit.", e);
+
+        }
+
+    }
+
+
+    /**
+     * 入れ子トランザクションを終了する。<br>
+     * <br>
+     * セーブポイントの巻き戻しまたは解放に失敗した場合は、<br>
+     * 外側の階層を必ず巻き戻すように設定してから例外を通知する。<br>
+     * トランザクションのロック中に呼び出すこと。<br>
+     *
+     */
+    private void endNestedTransaction() {
+
+        final int       level = transactionCount;                   // 終了する階層
+        final Boolean   state = savepointSuccessful.getFirst();     // 終了する階層の成功状態
+        boolean         ended = false;                              // セーブポイントを終了したかどうか
+
+
+        try {
+
+            // セーブポイントを作成している場合
+            if (state != null) {
+
+                // 成功していない場合、または必ず巻き戻す階層の場合
+                if (!state.booleanValue() || (rollbackOnlyLevel == level)) {
+
+                    // セーブポイントまで巻き戻す
+                    accessDatabase.execSQL(String.format(SQL_ROLLBACK_TO_SAVEPOINT, level));
+
+                }
+
+                // セーブポイントを解放する
+                accessDatabase.execSQL(String.format(SQL_RELEASE_SAVEPOINT, level));
+
+            }
+
+            ended = true;
+
+        } finally {
+
+            // 入れ子トランザクションを削除してトランザクションカウントをデクリメントする
+            savepointSuccessful.removeFirst();
+            transactionCount--;
+
+            // 巻き戻しに失敗した場合、または巻き戻せない階層で巻き戻しが必要な場合
+            if (!ended || ((state == null) && (rollbackOnlyLevel == level))) {
+
+                // 外側の階層を必ず巻き戻すようにする
+                rollbackOnlyLevel = (rollbackOnlyLevel == 0)
+                        ? transactionCount
+                        : Math.min(rollbackOnlyLevel, transactionCount);
+
+            } else if (rollbackOnlyLevel == level) {
+
+                // 巻き戻したため解除する
+                rollbackOnlyLevel = 0;
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * トランザクション開始を待っているスレッド数を取得する。
+     *
+     * @return 待ち行列の長さ
+     */
+    public int getTransactionQueueLength() {
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            return transactionQueue.size();
+
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
+        }
+
+    }
+
+
+    /**
+     * トランザクション開始を待っていたスレッド数の最大値を取得する。
+     *
+     * @return 待ち行列の最大長
+     */
+    public int getTransactionMaxQueueLength() {
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            return transactionMaxQueueLength;
+
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
+        }
+
+    }
+
+
+    /**
+     * 他のスレッドのトランザクション終了を待った回数を取得する。
+     *
+     * @return 待ち回数
+     */
+    public long getTransactionWaitCount() {
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            return transactionWaitCount;
+
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
+        }
+
+    }
+
+
+    /**
+     * 他のスレッドのトランザクション終了を待った合計時間を取得する。
+     *
+     * @return 合計待ち時間 (ミリ秒)
+     */
+    public long getTransactionWaitTime() {
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            return TimeUnit.NANOSECONDS.toMillis(transactionWaitTime);
+
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
+        }
+
+    }
+
+
+    /**
+     * 他のスレッドのトランザクション終了を待った最大時間を取得する。
+     *
+     * @return 最大待ち時間 (ミリ秒)
+     */
+    public long getTransactionMaxWaitTime() {
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            return TimeUnit.NANOSECONDS.toMillis(transactionMaxWaitTime);
+
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
+        }
+
+    }
+
+
+    /**
+     * {@link #tryBeginTransaction(int, long)} で時間内に開始できなかった回数を取得する。
+     *
+     * @return タイムアウト回数
+     */
+    public long getTransactionTimeoutCount() {
+
+        // トランザクションをロックする
+        transactionLock.lock();
+
+        try {
+
+            return transactionTimeoutCount;
+
+        } finally {
+
+            // ロックを解除する
+            transactionLock.unlock();
+
         }
 
     }
@@ -17,13 +17,15 @@ package frontier.db;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-
-import org.xmlpull.v1.XmlPullParser;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
 import android.content.Context;
 import android.content.res.Resources.NotFoundException;
@@ -66,6 +68,144 @@ public class FRDatabaseSqlMapper {
     private static final String         ERROR_NO_VALUE_PROPERTY =
         "No value property. Please set value property.";
 
+    /**
+     * LIMIT句の検出パターン
+     */
+    private static final Pattern        LIMIT_PATTERN =
+        Pattern.compile("\\bLIMIT\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 単一結果の検索に付加するLIMIT句
+     */
+    private static final String         UNIQUE_RESULT_LIMIT = " LIMIT 2";
+
+    /**
+     * コンパイル済みSQLステートメントのキャッシュ<br>
+     * <br>
+     * <table border="1">
+     * <tr>
+     *   <td>項目</td><td>型</td><td>内容</td>
+     * </tr>
+     * <tr>
+     *   <td>キー</td><td>Integer</td><td>クエリが定義されたXMLのリソースID</td>
+     * </tr>
+     * <tr>
+     *   <td>値</td><td>Map</td><td>クエリIDをキーにしたコンパイル済みSQLステートメント</td>
+     * </tr>
+     * </table>
+     */
+    private static final ConcurrentMap<Integer, Map<String, SQLStatement>>   STATEMENT_CACHES =
+        new ConcurrentHashMap<Integer, Map<String, SQLStatement>>();
+
+    /**
+     * long配列の読み込み処理
+     */
+    private static final ResultReader<long[]>           READER_LONG_ARRAY =
+        new ResultReader<long[]>() {
+
+            @Override
+            long[] read(
+                    final Cursor    cursor,
+                    final int       count
+                    ) {
+
+                final long[]    values = new long[count];
+
+                // 結果行分処理をする
+                for (int i = 0; i < count; i++, cursor.moveToNext()) {
+
+                    values[i] = cursor.getLong(0);
+
+                }
+
+                return values;
+
+            }
+
+        };
+
+    /**
+     * int配列の読み込み処理
+     */
+    private static final ResultReader<int[]>            READER_INT_ARRAY =
+        new ResultReader<int[]>() {
+
+            @Override
+            int[] read(
+                    final Cursor    cursor,
+                    final int       count
+                    ) {
+
+                final int[]     values = new int[count];
+
+                // 結果行分処理をする
+                for (int i = 0; i < count; i++, cursor.moveToNext()) {
+
+                    values[i] = cursor.getInt(0);
+
+                }
+
+                return values;
+
+            }
+
+        };
+
+    /**
+     * double配列の読み込み処理
+     */
+    private static final ResultReader<double[]>         READER_DOUBLE_ARRAY =
+        new ResultReader<double[]>() {
+
+            @Override
+            double[] read(
+                    final Cursor    cursor,
+                    final int       count
+                    ) {
+
+                final double[]  values = new double[count];
+
+                // 結果行分処理をする
+                for (int i = 0; i < count; i++, cursor.moveToNext()) {
+
+                    values[i] = cursor.getDouble(0);
+
+                }
+
+                return values;
+
+            }
+
+        };
+
+    /**
+     * 文字列配列の読み込み処理
+     */
+    private static final ResultReader<String[]>         READER_STRING_ARRAY =
+        new ResultReader<String[]>() {
+
+            @Override
+            String[] read(
+                    final Cursor    cursor,
+                    final int       count
+                    ) {
+
+                final String[]  values = new String[count];
+
+                // 結果行分処理をする
+                for (int i = 0; i < count; i++, cursor.moveToNext()) {
+
+                    values[i] = cursor.getString(0);
+
+                }
+
+                return values;
+
+            }
+
+        };
+
+
 
 
     /**
@@ -88,6 +228,16 @@ public class FRDatabaseSqlMapper {
      */
     private final int                   dbXmlId;
 
+    /**
+     * 単一結果の検索にLIMIT句を付加するかどうか
+     */
+    private volatile boolean            dbUniqueResultLimit;
+
+    /**
+     * 一括更新登録でコミットする件数の単位。0 の場合は全件を 1 つのトランザクションで処理する
+     */
+    private volatile int                dbBatchChunkSize;
+
 
 
 
@@ -115,735 +265,543 @@ public class FRDatabaseSqlMapper {
 
 
     /**
-     * 改行を先頭に挿入する。
+     * 単一結果の検索にLIMIT句を付加するかどうかを設定する。<br>
+     * <br>
+     * 有効にした場合、{@code selectForObject} の実行時に<br>
+     * LIMIT句を含まないSQLへ {@code LIMIT 2} を付加し、<br>
+     * 一意性の判定に必要な 2 行目までしかデータベースから読み込まないようにする。<br>
+     * デフォルトは無効。<br>
      *
-     * @param strBuf 文字列バッファ
+     * @param enabled LIMIT句を付加する場合は true
      */
-    private static void insertNewLine(
-            final StringBuilder     strBuf
+    public void setUniqueResultLimitEnabled(
+            final boolean   enabled
             ) {
 
-        // 文字列長が 0 の場合
-        if (strBuf.length() == 0) {
-
-            // 処理なし
-            return;
-
-        }
-
-        // 改行を追加する
-        strBuf.insert(0, '\n');
+        dbUniqueResultLimit = enabled;
 
     }
 
 
     /**
-     * 末尾文字が改行以外の場合に改行を追加する。
+     * 単一結果の検索にLIMIT句を付加するかどうかを取得する。
      *
-     * @param strBuf 文字列バッファ
+     * @return LIMIT句を付加する場合は true
      */
-    private static void addNewLine(
-            final StringBuilder     strBuf
-            ) {
+    public boolean isUniqueResultLimitEnabled() {
 
-        // 文字列長が 0 の場合
-        if (strBuf.length() == 0) {
+        return dbUniqueResultLimit;
 
-            // 処理なし
-            return;
+    }
 
-        }
 
-        // 末尾文字を取得する
-        final char  lastChar = strBuf.charAt(strBuf.length() - 1);
+    /**
+     * 一括更新登録でコミットする件数の単位を設定する。<br>
+     * <br>
+     * 0 より大きい値を指定した場合、{@code insertBatch}、{@code updateBatch}、{@code deleteBatch} は<br>
+     * 指定件数ごとにトランザクションをコミットし、他の書き込みスレッドへ順番を譲る。<br>
+     * 途中で失敗した場合、コミット済みの件数分は巻き戻されない。<br>
+     * デフォルトは 0 (全件を 1 つのトランザクションで処理する)。<br>
+     *
+     * @param size コミットする件数の単位
+     * @throws IllegalArgumentException コミットする件数の単位が 0 より小さい場合
+     */
+    public void setBatchChunkSize(
+            final int   size
+            ) {
 
-        // 末尾文字が改行文字の場合
-        if ((lastChar == '\n') || (lastChar == '\r')) {
+        // 件数が不正の場合は例外
+        if (size < 0) {
 
-            // 処理なし
-            return;
+            throw new IllegalArgumentException();
 
         }
 
-        // 改行を追加する
-        strBuf.append('\n');
+        dbBatchChunkSize = size;
 
     }
 
 
     /**
-     * 指定した種別のSQLクエリデータを作成する。
+     * 一括更新登録でコミットする件数の単位を取得する。
      *
-     * @param parser        読み込み元XMLパーサー
-     * @param queryType     SQLクエリ種別
-     * @return 指定した種別のSQLクエリデータ
+     * @return コミットする件数の単位。0 の場合は全件を 1 つのトランザクションで処理する
      */
-    private static SQLQuery createQuery(
-            final XmlResourceParser parser,
-            final SQLQueryType      queryType
-            ) {
-
-        // クエリデータを作成する
-        final SQLQuery  retQuery = new SQLQuery();
-
-        // クエリ種別を設定する
-        retQuery.setType(queryType);
-
-        // 属性分処理をする
-        for (int i = 0; i < parser.getAttributeCount(); i++) {
-
-            // 属性値を作成する
-            retQuery.setAttributeValue(
-                    parser.getAttributeName(i),
-                    parser.getAttributeValue(i)
-                    );
-
-        }
+    public int getBatchChunkSize() {
 
-        // 作成したクエリデータを返却する
-        return retQuery;
+        return dbBatchChunkSize;
 
     }
 
 
     /**
-     * 指定したクエリデータへ prepend 属性の値を付加する。
+     * 指定XMLのコンパイル済みSQLステートメント一覧を取得する。<br>
+     * <br>
+     * XMLの解析はリソースIDごとに 1 度だけ行い、<br>
+     * 以降は全てのSQLマッパーでコンパイル結果を共有する。<br>
      *
-     * @param strBuf            prepend属性の追加先文字列バッファ
-     * @param query             追加したいprepend属性値を所持しているクエリ
-     * @param ignoreSqlKeyword  直前の追加値がSQL予約語の場合に何も処理をしない場合は true
+     * @param xmlResId クエリが定義されたXMLのリソースID
+     * @return クエリIDをキーにしたコンパイル済みSQLステートメントのマップ
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    XML解析に失敗した場合
      */
-    private static void processPrepend(
-            final StringBuilder strBuf,
-            final SQLQuery      query,
-            final boolean       ignoreSqlKeyword
+    private Map<String, SQLStatement> getStatements(
+            final int   xmlResId
             ) {
 
-        final String        prepend = query.getAttributeValue(SQLQuery.ATTR_PREPEND);
+        // キャッシュからステートメント一覧を取得する
+        Map<String, SQLStatement>   retStatements = STATEMENT_CACHES.get(xmlResId);
 
-        // 接頭語がない場合
-        if (prepend == null) {
+        // コンパイル済みの場合
+        if (retStatements != null) {
 
-            // 何もしない
-            return;
+            // キャッシュされたステートメント一覧を返す
+            return retStatements;
 
         }
 
-        // SQL予約語の場合に処理をしない場合
-        if (ignoreSqlKeyword) {
 
-            // 何もしない
-            return;
+        // 同じXMLを重複してコンパイルしないようにロックする
+        synchronized (STATEMENT_CACHES) {
 
-        }
+            // ロック中に他スレッドがコンパイルしていないかを確認する
+            retStatements = STATEMENT_CACHES.get(xmlResId);
 
-        // 接頭語を文字列バッファへ追加する
-        strBuf.append(prepend);
+            // コンパイル済みの場合
+            if (retStatements != null) {
 
-        // 改行を追加する
-        addNewLine(strBuf);
+                // キャッシュされたステートメント一覧を返す
+                return retStatements;
 
-    }
+            }
 
 
-    /**
-     * 指定された文字列内にある変数名を実際の値に置換する。
-     *
-     * @param str           置換元文字列
-     * @param parametersMap 検索に利用するパラメータマップ
-     * @return 置換した文字列
-     */
-    private static String replaceVariableName(
-            final String                str,
-            final Map<String, Object>   parametersMap
-            ) {
+            XmlResourceParser   parser = null;      // クエリ定義元SQLパーサー
 
-        String  workString = str;   // 作業用文字列
+            try {
 
+                // クエリ定義元SQLパーサーを取得する
+                parser = dbContext.getResources().getXml(xmlResId);
 
-        // 全変数名分だけ検索する
-        for (final Map.Entry<String, Object> entry : parametersMap.entrySet()) {
+                // XML全体をコンパイルする
+                retStatements = SQLStatement.compile(parser);
 
-            final String    value;  // 設定する値
+            } catch (final NotFoundException e) {
 
+                // XML取得失敗した場合
+                throw e;
 
-            // 値が文字列の場合
-            if (entry.getValue() instanceof String) {
+            } catch (final Throwable e) {
 
-                // SQL文字列値へ変換する
-                value = String.format(
-                        SQLQuery.FORMAT_VALUE_STRING,
-                        String.valueOf(entry.getValue())
-                        );
+                // その他エラー時
+                throw new IllegalStateException(e);
 
-            } else {
+            } finally {
 
-                // 通常の文字列へ変換する
-                value = String.valueOf(entry.getValue());
+                // パーサーが作成されている場合
+                if (parser != null) {
+
+                    // パーサーを閉じる
+                    parser.close();
+
+                }
 
             }
 
-            // 文字列内の指定変数名箇所を置換する
-            workString = workString.replaceAll(
-                    String.format(SQLQuery.FORMAT_VARIABLE_NAME, entry.getKey()),
-                    value
-                    );
+            // コンパイル結果をキャッシュする
+            STATEMENT_CACHES.put(xmlResId, retStatements);
 
         }
 
-        // 結果を返す
-        return workString;
+        // コンパイルしたステートメント一覧を返す
+        return retStatements;
 
     }
 
 
     /**
-     * 指定された文字列バッファへ条件テキストを追加する。
+     * 指定XMLの指定されたクエリデータを取得する。
      *
-     * @param strBuf        文字列バッファ
-     * @param parentQuery   親クエリ
-     * @param procQuery     処理クエリ
-     * @param text          追加する条件テキスト
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       取得したいクエリのID
+     * @param parametersMap 検索に利用するパラメータ
+     * @return 指定XMLの指定されたクエリデータ
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
      */
-    private static void addJudgement(
-            final StringBuilder strBuf,
-            final SQLQuery      parentQuery,
-            final SQLQuery      procQuery,
-            final String        text
+    private SQLQuery getQuery(
+            final int                   xmlResId,
+            final String                queryId,
+            final Map<String, Object>   parametersMap
             ) {
 
-        // 親クエリへ改行を追加する
-        addNewLine(parentQuery.getSql());
-
-        // 接頭語を処理する
-        processPrepend(strBuf, procQuery, parentQuery.isLastSqlKeywordEnabled());
-
-        // テキストを追加する
-        strBuf.append(text);
-
-        // 親クエリの直前にSQLキーワードが追加されていないことにする
-        parentQuery.setLastSqlKeywordEnabled(false);
+        // パラメータで条件を評価したクエリを返却する
+        return getStatement(xmlResId, queryId).render(parametersMap);
 
     }
 
 
     /**
-     * 階層のあるクエリデータ解析処理を行う。
+     * 指定XMLの指定されたコンパイル済みステートメントを取得する。
      *
-     * @param parser        読み込み元XMLパーサー
-     * @param rootQuery     ルートクエリデータ
-     * @param parentQuery   親クエリデータ
-     * @param queryId       検索クエリID
-     * @param parametersMap 検索に利用するパラメータマップ
-     * @return 取得したクエリデータ
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       取得したいクエリのID
+     * @return 指定XMLの指定されたコンパイル済みステートメント
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
      */
-    private static SQLQuery processQuery(
-            final XmlResourceParser     parser,
-            final SQLQuery              rootQuery,
-            final SQLQuery              parentQuery,
-            final String                queryId,
-            final Map<String, Object>   parametersMap
+    private SQLStatement getStatement(
+            final int                   xmlResId,
+            final String                queryId
             ) {
 
-        // 返却するクエリデータ
-        SQLQuery    retQuery = null;
-
-        try {
-
-            boolean             isEnded = false;    // 読み込み終了したかどうか
-            int                 eventType;          // イベント種別
-            SQLQuery            procQuery = null;   // 処理中クエリデータ
+        // コンパイル済みステートメントを取得する
+        final SQLStatement  statement = getStatements(xmlResId).get(queryId);
 
+        // クエリの取得に失敗した場合
+        if (statement == null) {
 
-            // XML解析が終了するまでループする
-            for (eventType = parser.getEventType();
-                 !isEnded;
-                 eventType = parser.next()
-                 ) {
-
-                // イベント種類別処理
-                switch (eventType) {
+            // 例外を返す
+            throw new IllegalStateException("No sql data or illegal sql data.");
 
-                // タグ開始
-                case XmlPullParser.START_TAG:
+        }
 
-                    // 親クエリがない場合
-                    if (parentQuery == null) {
+        // 取得したステートメントを返す
+        return statement;
 
-                        // 処理中クエリデータがある場合
-                        if (procQuery != null) {
+    }
 
-                            // 多階層クエリ処理を行う
-                            processQuery(parser, procQuery, procQuery, queryId, parametersMap);
 
-                            // 次のデータへ
-                            continue;
+    /**
+     * 指定されたエンティティからステートメントが参照するプロパティのみの名称値パラメータ一覧を作成する。
+     *
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param entity        パラメータ取得元エンティティ
+     * @return 名称値パラメータ一覧
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     */
+    private FRDatabaseParam[] createStatementParams(
+            final int                   xmlResId,
+            final String                queryId,
+            final Object                entity
+            ) {
 
-                        }
+        // クエリIDが不正の場合
+        if ((queryId == null) || (queryId.length() == 0)) {
 
-                        // クエリ種別を取得する
-                        final SQLQueryType  queryType = SQLQueryType.toQuerySqlType(parser.getName());
+            // 全プロパティを取得して呼び出し先の引数チェックに任せる
+            return FRDatabaseUtils.createNameValuePairs(entity);
 
-                        // クエリ種別の取得ができなかった場合
-                        if (queryType == null) {
+        }
 
-                            // 次のデータへ
-                            continue;
+        // ステートメントが参照するプロパティのみを取得する
+        return FRDatabaseUtils.createNameValuePairs(
+                entity,
+                getStatement(xmlResId, queryId).getPropertyNames()
+                );
 
-                        }
+    }
 
-                        // 指定クエリIDと現在のクエリIDが一致する場合
-                        if (queryId.equals(
-                                parser.getAttributeValue(null, SQLQuery.ATTR_ID))
-                                ) {
 
-                            // クエリデータを作成する
-                            procQuery = createQuery(parser, queryType);
+    /**
+     * DBアクセスセッションを取得する。<br>
+     * <br>
+     * SQLマッパーにセッションが設定されていない場合は、<br>
+     * カレントスレッドの作業単位のセッションを返す。<br>
+     * 作業単位のセッションもない場合は、指定された設定でセッションを新規オープンする。<br>
+     * SQLマッパーにセッションが設定されている場合は<br>
+     * 設定されているセッションをそのまま返す。<br>
+     *
+     * @param readOnly 読み込み専用でオープンする場合は true
+     * @return DBアクセスセッション
+     * @throws IllegalStateException 読み込み専用の作業単位の中で書き込み用に開く場合
+     * @see FRDatabaseManager#runInSession(android.content.Context, boolean, java.util.concurrent.Callable)
+     */
+    private FRDatabaseSession openSession(
+            final boolean   readOnly
+            ) {
 
-                            // 返却クエリデータとして設定する
-                            retQuery  = procQuery;
+        // セッションが設定されている場合
+        if (dbSession != null) {
 
-                        } else {
+            // 設定されているセッションを返す
+            return dbSession;
 
-                            // 次のデータへ
-                            continue;
+        }
 
-                        }
 
-                    } else {
+        final FRDatabaseSession boundSession = dbManager.getBoundSession(readOnly);
 
-                        // 処理中クエリデータがある場合
-                        if (procQuery != null) {
+        // 作業単位のセッションがある場合はそのまま返す
+        return boundSession == null ? dbManager.openSession(dbContext, readOnly) : boundSession;
 
-                            // 多階層クエリ処理を行う
-                            processQuery(parser, rootQuery, procQuery, queryId, parametersMap);
+    }
 
-                            // 次のデータへ
-                            continue;
 
-                        }
+    /**
+     * 指定されたDBアクセスセッションが呼び出し単位で閉じてはいけないセッションかどうかを取得する。
+     *
+     * @param session 判定するDBアクセスセッション
+     * @return SQLマッパーに設定されているセッションまたはカレントスレッドの作業単位のセッションの場合は true
+     */
+    private boolean isSharedSession(
+            final FRDatabaseSession session
+            ) {
 
+        return ((dbSession != null) && dbSession.equals(session))
+            || (session == dbManager.getBoundSession(true));
 
-                        // 条件クエリ種別を取得する
-                        final SQLQueryType  queryType = SQLQueryType.toQueryInnerType(parser.getName());
+    }
 
-                        // クエリ種別の取得ができなかった場合
-                        if (queryType == null) {
 
-                            // 次のデータへ
-                            continue;
+    /**
+     * 指定されたDBアクセスセッションを閉じる。<br>
+     * <br>
+     * 指定されたセッションがSQLマッパーに設定されているセッションまたは<br>
+     * カレントスレッドの作業単位のセッションと等しい場合は何もしない。<br>
+     *
+     * @param session 閉じるDBアクセスセッション
+     */
+    private void closeSession(
+            final FRDatabaseSession session
+            ) {
 
-                        }
+        // セッションが null の場合
+        if (session == null) {
 
-                        // クエリデータを作成する
-                        procQuery = createQuery(parser, queryType);
+            // 何もしない
+            return;
 
-                    }
+        }
 
+        // 設定されているセッションまたは作業単位のセッションと等しい場合
+        if (isSharedSession(session)) {
 
-                    // クエリが条件種別の場合
-                    if (SQLQueryType.isConditionQuery(procQuery.getType())) {
+            // 何もしない
+            return;
 
-                        final String    prepend;    // 接頭語
+        }
 
+        // セッションを閉じる
+        session.close();
 
-                        // 条件種類別処理
-                        switch (procQuery.getType()) {
+    }
 
-                        // 動的宣言の場合
-                        case DYNAMIC:
 
-                            // 接頭語を取得する
-                            prepend = procQuery.getAttributeValue(SQLQuery.ATTR_PREPEND);
+    /**
+     * 指定した参照SQLクエリを実行する。
+     *
+     * @param <T>           エンティティクラス
+     * @param queryId       実行するクエリのID
+     * @param resultClass   結果を格納するエンティティクラス
+     * @param entity        検索に利用するエンティティ
+     * @return 結果データ
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     */
+    public <T> T selectForObject(
+            final String                queryId,
+            final Class<T>              resultClass,
+            final Object                entity
+            ) {
 
-                            // 接頭語が SQLキーワード の場合、
-                            // 直前にSQLキーワードが追加されていることにする
-                            procQuery.setLastSqlKeywordEnabled(
-                                    SQLQuery.isSqlKeyword(prepend)
-                                    );
-                            break;
+        return selectForObject(dbXmlId, queryId, resultClass, entity);
 
+    }
 
-                        // その他
-                        default:
 
-                            // 処理なし
-                            break;
+    /**
+     * 指定した参照SQLクエリを実行する。
+     *
+     * @param <T>           エンティティクラス
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param resultClass   結果を格納するエンティティクラス
+     * @param entity        検索に利用するエンティティ
+     * @return 結果データ
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException 結果を格納するエンティティクラスが null の場合
+     */
+    public <T> T selectForObject(
+            final int                   xmlResId,
+            final String                queryId,
+            final Class<T>              resultClass,
+            final Object                entity
+            ) {
 
-                        }
+        return selectForObject(
+                xmlResId,
+                queryId,
+                resultClass,
+                createStatementParams(xmlResId, queryId, entity)
+                );
 
-                    // selectKeyの場合
-                    } else if (SQLQueryType.SELECT_KEY.equals(procQuery.getType())) {
+    }
 
-                        // サブクエリとして親クエリへ登録する
-                        parentQuery.getSubQueries().add(procQuery);
 
-                    } else {
-
-                        // 処理なし
-
-                    }
-                    break;
-
-
-                // テキストの場合
-                case XmlPullParser.TEXT:
-
-                    // 設定先クエリがない場合
-                    if (procQuery == null) {
-
-                        // 次のデータへ
-                        continue;
-
-                    }
-
-                    // クエリが条件種別の場合
-                    if (SQLQueryType.isConditionQuery(procQuery.getType())) {
-
-                        // 親クエリがない場合は例外
-                        if (parentQuery == null) {
-
-                            throw new IllegalStateException("illegal condition query type.");
-
-                        }
-
-                        // 共通パラメータを取得する
-                        final StringBuilder judgeStatement  = new StringBuilder();
-                        final String        property        = procQuery.getAttributeValue(SQLQuery.ATTR_PROPERTY);
-                        final String        compareValue    = procQuery.getAttributeValue(SQLQuery.ATTR_COMPARE_VALUE);
-                        final Object        value           = property == null ? null : parametersMap.get(property);
-
-
-                        // 条件種類別処理
-                        switch (procQuery.getType()) {
-
-                        // nullの場合
-                        case IS_NULL:
-
-                            // 値が null の場合
-                            if (value == null) {
-
-                                // 条件テキストを追加する
-                                addJudgement(
-                                        judgeStatement,
-                                        parentQuery,
-                                        procQuery,
-                                        parser.getText()
-                                        );
-
-                            }
-                            break;
-
-
-                        // null以外の場合
-                        case IS_NOT_NULL:
-
-                            // 値が null 以外の場合
-                            if (value != null) {
-
-                                // 条件テキストを追加する
-                                addJudgement(
-                                        judgeStatement,
-                                        parentQuery,
-                                        procQuery,
-                                        parser.getText()
-                                        );
-
-                            }
-                            break;
-
-
-                        // 等しい場合
-                        case IS_EQUAL:
-
-                            // 値が等しい場合
-                            if ((compareValue != null)
-                                && compareValue.equals(String.valueOf(value))
-                                ) {
-
-                                // 条件テキストを追加する
-                                addJudgement(
-                                        judgeStatement,
-                                        parentQuery,
-                                        procQuery,
-                                        parser.getText()
-                                        );
-
-                            }
-                            break;
-
-
-                        // 等しくない場合
-                        case IS_NOT_EQUAL:
-
-                            // 値が等しくない場合
-                            if ((compareValue != null)
-                                && !compareValue.equals(String.valueOf(value))
-                                ) {
-
-                                // 条件テキストを追加する
-                                addJudgement(
-                                        judgeStatement,
-                                        parentQuery,
-                                        procQuery,
-                                        parser.getText()
-                                        );
-
-                            }
-                            break;
-
-
-                        // その他
-                        default:
-
-                            // 処理中クエリへテキストデータを設定する
-                            procQuery.getSql().append(parser.getText());
-
-                            // 次のデータへ
-                            continue;
-
-                        }
-
-                        // 親クエリへ作成した条件式を追加する
-                        parentQuery.getSql().append(
-                                judgeStatement.toString()
-                                );
-
-                    // selectKeyの場合
-                    } else if (SQLQueryType.SELECT_KEY.equals(procQuery.getType())) {
-
-                        // 親クエリがない場合は例外
-                        if (parentQuery == null) {
-
-                            throw new IllegalStateException("illegal condition query type.");
-
-                        }
-
-                        // 条件式内の変数名を全て値に置換し、
-                        // 処理中クエリへテキストデータを設定する
-                        procQuery.getSql().append(
-                                replaceVariableName(parser.getText(), parametersMap)
-                                );
-
-                    // クエリが条件種別以外の場合
-                    } else {
-
-                        // テキストデータを設定する
-                        procQuery.getSql().append(parser.getText());
-
-                    }
-                    break;
-
-
-                // 終了タグの場合
-                case XmlPullParser.END_TAG:
-
-                    // 返却クエリがない場合
-                    if (procQuery == null) {
-
-                        // 次のデータへ
-                        continue;
-
-                    }
-
-
-                    // 親クエリが存在する場合
-                    // かつ処理中クエリにSQLテキストがある場合
-                    if ((parentQuery != null) && (procQuery.getSql().length() > 0)) {
-
-                        final String    prepend;    // 接頭語
+    /**
+     * 指定した参照SQLクエリを実行する。
+     *
+     * @param <T>           エンティティクラス
+     * @param queryId       実行するクエリのID
+     * @param resultClass   結果を格納するエンティティクラス
+     * @param parameters    検索に利用するパラメータ
+     * @return 結果データ
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException 結果を格納するエンティティクラスが null の場合
+     */
+    public <T> T selectForObject(
+            final String                queryId,
+            final Class<T>              resultClass,
+            final FRDatabaseParam...    parameters
+            ) {
 
-                        // クエリ種類別処理
-                        switch (procQuery.getType()) {
+        return selectForObject(dbXmlId, queryId, resultClass, parameters);
 
-                        // 動的宣言
-                        case DYNAMIC:
+    }
 
-                            // 接頭語を取得する
-                            prepend = procQuery.getAttributeValue(SQLQuery.ATTR_PREPEND);
 
-                            // 接頭語がある場合
-                            if (prepend != null) {
+    /**
+     * 指定した参照SQLクエリを実行する。
+     *
+     * @param <T>           エンティティクラス
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param resultClass   結果を格納するエンティティクラス
+     * @param parameters    検索に利用するパラメータ
+     * @return 結果データ
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException 結果を格納するエンティティクラスが null の場合
+     */
+    public <T> T selectForObject(
+            final int                   xmlResId,
+            final String                queryId,
+            final Class<T>              resultClass,
+            final FRDatabaseParam...    parameters
+            ) {
 
-                                // 改行を先頭に挿入する
-                                insertNewLine(procQuery.getSql());
+        // 引数が不正の場合は例外
+        if ((queryId == null) || (queryId.length() == 0) || (resultClass == null)) {
 
-                                // 接頭語を先頭に挿入する
-                                procQuery.getSql().insert(0, prepend);
+            throw new IllegalArgumentException();
 
-                            }
-                            break;
+        }
 
+        // コンパイル済みステートメントとクエリデータを取得する
+        final SQLStatement  statement = getStatement(xmlResId, queryId);
+        final SQLQuery      query     = statement.render(
+                FRDatabaseUtils.createSearchMap(parameters)
+                );
 
-                        // その他
-                        default:
+        // SQL文を取得する
+        String  sql = query.getSql().toString();
 
-                            // 処理なし
-                            break;
+        // LIMIT句を付加する場合
+        if (dbUniqueResultLimit) {
 
-                        }
+            sql = appendUniqueResultLimit(sql);
 
-                        // 親クエリに改行を付加する
-                        addNewLine(parentQuery.getSql());
+        }
 
-                        // 親クエリに処理中クエリのSQLテキストを付加する
-                        parentQuery.getSql().append(procQuery.getSql());
 
-                    }
+        // SQLをログへ出力
+        Log.d(getClass().getName(), sql);
 
-                    // クエリを返却する
-                    return procQuery;
+        // 取得したSQLが正しいかどうかをチェックする
+        checkCorrectSql(sql, SQLQueryType.SELECT);
 
 
-                // ドキュメント終端
-                case XmlPullParser.END_DOCUMENT:
+        FRDatabaseSession   session = null;     // DBアクセスセッション
+        Cursor              cursor  = null;     // カーソル
 
-                    // 読み込み完了とする
-                    isEnded = true;
-                    break;
+        try {
 
+            // セッションを開く
+            session = openSession(true);
 
-                // その他
-                default:
+            // SQLを実行する
+            cursor = session.rawQuery(
+                    sql,
+                    query.getBindArgs().toArray()
+                    );
 
-                    // 処理なし
-                    break;
+            // 結果がない場合
+            if (!cursor.moveToFirst()) {
 
-                }
+                // nullを返す
+                return null;
 
             }
 
-        } catch (final Throwable e) {
-
-            throw new IllegalStateException(e);
-
-        }
-
-
-        // クエリデータを返却する
-        return retQuery;
-
-    }
-
-
-    /**
-     * 指定XMLの指定されたクエリデータを取得する。
-     *
-     * @param xmlResId      クエリが定義されたXMLのリソースID
-     * @param queryId       取得したいクエリのID
-     * @param parametersMap 検索に利用するパラメータ
-     * @return 指定XMLの指定されたクエリデータ
-     * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
-     */
-    private SQLQuery getQuery(
-            final int                   xmlResId,
-            final String                queryId,
-            final Map<String, Object>   parametersMap
-            ) {
-
-        SQLQuery            retQuery = null;    // 返却クエリ
-        XmlResourceParser   parser   = null;    // クエリ定義元SQLパーサー
-
+            // 結果の型とカラム構成に対応する行マッパーを取得する
+            final RowMapper<T>  rowMapper = createRowMapper(statement, resultClass, cursor);
 
-        try {
+            // 先頭行を変換する
+            final T             retEntity = rowMapper.mapRow(cursor);
 
-            // クエリ定義元SQLパーサーを取得する
-            parser = dbContext.getResources().getXml(xmlResId);
+            // 2 行目がある場合は以降を読み込まずに例外
+            if (cursor.moveToNext()) {
 
-            // クエリデータ取得処理を行う
-            retQuery = processQuery(parser, null, null, queryId, parametersMap);
+                throw new IllegalStateException(ERROR_COLUMN_EXCLUDING_ZERO_OR_ONE);
 
-        } catch (final NotFoundException e) {
+            }
 
-            // XML取得失敗した場合
-            throw e;
+            // 結果を返す
+            return retEntity;
 
-        } catch (final Throwable e) {
+        } catch (final ReflectException e) {
 
-            // その他エラー時
-            throw new IllegalStateException(e);
+            e.printStackTrace();
 
         } finally {
 
-            // パーサーが作成されている場合
-            if (parser != null) {
+            // カーソルがある場合
+            if (cursor != null) {
 
-                // パーサーを閉じる
-                parser.close();
+                // カーソルを閉じる
+                cursor.close();
 
             }
 
-        }
-
-        // クエリの取得に失敗した場合
-        if (retQuery == null) {
-
-            // 例外を返す
-            throw new IllegalStateException("No sql data or illegal sql data.");
-
-        } else {
-
-            // 変数を全て置換する
-            retQuery.replaceVariables(parametersMap);
+            // セッションを閉じる
+            closeSession(session);
 
         }
 
-        // 取得したクエリを返却する
-        return retQuery;
-
-    }
-
-
-    /**
-     * DBアクセスセッションを取得する。<br>
-     * <br>
-     * SQLマッパーにセッションが設定されていない場合は、<br>
-     * 指定された設定でセッションを新規オープンする。<br>
-     * SQLマッパーにセッションが設定されている場合は<br>
-     * 設定されているセッションをそのまま返す。<br>
-     *
-     * @param readOnly 読み込み専用でオープンする場合は true
-     * @return DBアクセスセッション
-     */
-    private FRDatabaseSession openSession(
-            final boolean   readOnly
-            ) {
-
-        return dbSession == null ? dbManager.openSession(dbContext, readOnly) : dbSession;
+        // エンティティ取得失敗
+        return null;
 
     }
 
 
     /**
-     * 指定されたDBアクセスセッションを閉じる。<br>
-     * <br>
-     * 指定されたセッションがSQLマッパーに設定されているセッションと等しい場合は何もしない。<br>
+     * 指定された参照SQLにLIMIT句がない場合は単一結果の検索用LIMIT句を付加する。
      *
-     * @param session 閉じるDBアクセスセッション
+     * @param sql 参照SQL
+     * @return LIMIT句を付加したSQL
      */
-    private void closeSession(
-            final FRDatabaseSession session
+    private static String appendUniqueResultLimit(
+            final String    sql
             ) {
 
-        // セッションが null の場合
-        if (session == null) {
-
-            // 何もしない
-            return;
-
-        }
-
-        // 設定されているセッションと等しい場合
-        if ((dbSession != null) && dbSession.equals(session)) {
+        // 既にLIMIT句がある場合
+        if (LIMIT_PATTERN.matcher(sql).find()) {
 
-            // 何もしない
-            return;
+            // そのまま返す
+            return sql;
 
         }
 
-        // セッションを閉じる
-        session.close();
+        // 末尾の文終端と空白を除去してLIMIT句を付加して返す
+        return SQLQuery.trimStatementEnd(sql) + UNIQUE_RESULT_LIMIT;
 
     }
 
@@ -855,17 +813,17 @@ public class FRDatabaseSqlMapper {
      * @param queryId       実行するクエリのID
      * @param resultClass   結果を格納するエンティティクラス
      * @param entity        検索に利用するエンティティ
-     * @return 結果データ
+     * @return 結果データ一覧
      * @throws NotFoundException        XML取得に失敗した場合
      * @throws IllegalStateException    クエリ取得に失敗した場合
      */
-    public <T> T selectForObject(
+    public <T> List<T> selectForList(
             final String                queryId,
             final Class<T>              resultClass,
             final Object                entity
             ) {
 
-        return selectForObject(dbXmlId, queryId, resultClass, entity);
+        return selectForList(dbXmlId, queryId, resultClass, entity);
 
     }
 
@@ -878,24 +836,24 @@ public class FRDatabaseSqlMapper {
      * @param queryId       実行するクエリのID
      * @param resultClass   結果を格納するエンティティクラス
      * @param entity        検索に利用するエンティティ
-     * @return 結果データ
+     * @return 結果データ一覧
      * @throws NotFoundException        XML取得に失敗した場合
      * @throws IllegalStateException    クエリ取得に失敗した場合
      * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
      * @throws IllegalArgumentException 結果を格納するエンティティクラスが null の場合
      */
-    public <T> T selectForObject(
+    public <T> List<T> selectForList(
             final int                   xmlResId,
             final String                queryId,
             final Class<T>              resultClass,
             final Object                entity
             ) {
 
-        return selectForObject(
+        return selectForList(
                 xmlResId,
                 queryId,
                 resultClass,
-                FRDatabaseUtils.createNameValuePairs(entity)
+                createStatementParams(xmlResId, queryId, entity)
                 );
 
     }
@@ -908,19 +866,17 @@ public class FRDatabaseSqlMapper {
      * @param queryId       実行するクエリのID
      * @param resultClass   結果を格納するエンティティクラス
      * @param parameters    検索に利用するパラメータ
-     * @return 結果データ
+     * @return 結果データ一覧
      * @throws NotFoundException        XML取得に失敗した場合
      * @throws IllegalStateException    クエリ取得に失敗した場合
-     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
-     * @throws IllegalArgumentException 結果を格納するエンティティクラスが null の場合
      */
-    public <T> T selectForObject(
+    public <T> List<T> selectForList(
             final String                queryId,
             final Class<T>              resultClass,
             final FRDatabaseParam...    parameters
             ) {
 
-        return selectForObject(dbXmlId, queryId, resultClass, parameters);
+        return selectForList(dbXmlId, queryId, resultClass, parameters);
 
     }
 
@@ -933,134 +889,259 @@ public class FRDatabaseSqlMapper {
      * @param queryId       実行するクエリのID
      * @param resultClass   結果を格納するエンティティクラス
      * @param parameters    検索に利用するパラメータ
-     * @return 結果データ
+     * @return 結果データ一覧
      * @throws NotFoundException        XML取得に失敗した場合
      * @throws IllegalStateException    クエリ取得に失敗した場合
      * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
      * @throws IllegalArgumentException 結果を格納するエンティティクラスが null の場合
      */
-    public <T> T selectForObject(
+    public <T> List<T> selectForList(
             final int                   xmlResId,
             final String                queryId,
             final Class<T>              resultClass,
             final FRDatabaseParam...    parameters
             ) {
 
-        // 結果一覧を取得する
-        final List<T>   results = selectForList(xmlResId, queryId, resultClass, parameters);
-
-        // 結果が 1 より大きい場合
-        if (results.size() > 1) {
+        // 引数が不正の場合は例外
+        if ((queryId == null) || (queryId.length() == 0) || (resultClass == null)) {
 
-            throw new IllegalStateException(ERROR_COLUMN_EXCLUDING_ZERO_OR_ONE);
+            throw new IllegalArgumentException();
 
         }
 
-        // 結果がない場合
-        if (results.size() == 0) {
+        // コンパイル済みステートメントとクエリデータを取得する
+        final SQLStatement  statement = getStatement(xmlResId, queryId);
+        final SQLQuery      query     = statement.render(
+                FRDatabaseUtils.createSearchMap(parameters)
+                );
 
-            // nullを返す
-            return null;
+        // SQL文を取得する
+        final String    sql = query.getSql().toString();
 
-        }
 
+        // SQLをログへ出力
+        Log.d(getClass().getName(), sql);
 
-        // 結果を返す
-        return results.get(0);
+        // 取得したSQLが正しいかどうかをチェックする
+        checkCorrectSql(sql, SQLQueryType.SELECT);
+
+
+        FRDatabaseSession   session = null;     // DBアクセスセッション
+        Cursor              cursor  = null;     // カーソル
+
+        try {
+
+            // セッションを開く
+            session = openSession(true);
+
+            // SQLを実行する
+            cursor = session.rawQuery(
+                    sql,
+                    query.getBindArgs().toArray()
+                    );
+
+            // カーソルを先頭に移動する
+            if (!cursor.moveToFirst()) {
+
+                // 読み込み失敗
+                return new ArrayList<T>();
+
+            }
+
+
+            // 返却データ一覧
+            final List<T>   retEntities = new ArrayList<T>();
+
+            // 結果の型とカラム構成に対応する行マッパーを取得する
+            final RowMapper<T>  rowMapper = createRowMapper(statement, resultClass, cursor);
+
+            // 結果を読み込む
+            do {
+
+                // 一覧へ追加する
+                retEntities.add(rowMapper.mapRow(cursor));
+
+            // 次の行へ移動する
+            } while (cursor.moveToNext());
+
+            // エンティティ一覧を返す
+            return retEntities;
+
+        } catch (final ReflectException e) {
+
+            e.printStackTrace();
+
+        } finally {
+
+            // カーソルがある場合
+            if (cursor != null) {
+
+                // カーソルを閉じる
+                cursor.close();
+
+            }
+
+            // セッションを閉じる
+            closeSession(session);
+
+        }
+
+        // エンティティ取得失敗
+        return null;
 
     }
 
 
     /**
-     * 指定した参照SQLクエリを実行する。
+     * 指定した参照SQLクエリを実行し、結果を 1 行ずつハンドラーへ渡す。<br>
+     * <br>
+     * 結果の一覧は作成せず、1 行変換するごとにハンドラーへ渡す。<br>
+     * ハンドラーが false を返した場合はその時点で読み込みを終了する。<br>
      *
      * @param <T>           エンティティクラス
      * @param queryId       実行するクエリのID
      * @param resultClass   結果を格納するエンティティクラス
-     * @param entity        検索に利用するエンティティ
-     * @return 結果データ一覧
+     * @param handler       結果を処理するハンドラー
+     * @param parameters    検索に利用するパラメータ
+     * @return ハンドラーへ渡した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得またはエンティティへの変換に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException 結果を格納するエンティティクラスまたはハンドラーが null の場合
      */
-    public <T> List<T> selectForList(
-            final String                queryId,
-            final Class<T>              resultClass,
-            final Object                entity
+    public <T> int selectForEach(
+            final String                    queryId,
+            final Class<T>                  resultClass,
+            final FRDatabaseRowHandler<T>   handler,
+            final FRDatabaseParam...        parameters
             ) {
 
-        return selectForList(dbXmlId, queryId, resultClass, entity);
+        return selectForEach(dbXmlId, queryId, resultClass, handler, parameters);
 
     }
 
 
     /**
-     * 指定した参照SQLクエリを実行する。
+     * 指定した参照SQLクエリを実行し、結果を 1 行ずつハンドラーへ渡す。<br>
+     * <br>
+     * 結果の一覧は作成せず、1 行変換するごとにハンドラーへ渡す。<br>
+     * ハンドラーが false を返した場合はその時点で読み込みを終了する。<br>
      *
      * @param <T>           エンティティクラス
      * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
      * @param resultClass   結果を格納するエンティティクラス
-     * @param entity        検索に利用するエンティティ
-     * @return 結果データ一覧
+     * @param handler       結果を処理するハンドラー
+     * @param parameters    検索に利用するパラメータ
+     * @return ハンドラーへ渡した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得またはエンティティへの変換に失敗した場合
      * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
-     * @throws IllegalArgumentException 結果を格納するエンティティクラスが null の場合
+     * @throws IllegalArgumentException 結果を格納するエンティティクラスまたはハンドラーが null の場合
      */
-    public <T> List<T> selectForList(
-            final int                   xmlResId,
-            final String                queryId,
-            final Class<T>              resultClass,
-            final Object                entity
+    public <T> int selectForEach(
+            final int                       xmlResId,
+            final String                    queryId,
+            final Class<T>                  resultClass,
+            final FRDatabaseRowHandler<T>   handler,
+            final FRDatabaseParam...        parameters
             ) {
 
-        return selectForList(
+        // 引数が不正の場合は例外
+        if (handler == null) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+
+        // 結果カーソルを取得する
+        final FRDatabaseResultCursor<T>     results = selectForCursor(
                 xmlResId,
                 queryId,
                 resultClass,
-                FRDatabaseUtils.createNameValuePairs(entity)
+                parameters
                 );
 
+        int     count = 0;      // ハンドラーへ渡した行数
+
+        try {
+
+            // 結果がある間繰り返す
+            while (results.hasNext()) {
+
+                count++;
+
+                // ハンドラーが終了を指示した場合
+                if (!handler.handleRow(results.next())) {
+
+                    // 読み込み終了
+                    break;
+
+                }
+
+            }
+
+        } finally {
+
+            // 結果カーソルを閉じる
+            results.close();
+
+        }
+
+        // ハンドラーへ渡した行数を返す
+        return count;
+
     }
 
 
     /**
-     * 指定した参照SQLクエリを実行する。
+     * 指定した参照SQLクエリを実行し、結果を 1 行ずつ読み込むカーソルを取得する。<br>
+     * <br>
+     * 結果の一覧は作成せず、取り出すごとに 1 行ずつ変換する。<br>
+     * 全ての行を取り出した時点でカーソルとセッションは閉じられるが、<br>
+     * 途中で読み込みを終了する場合は必ず {@link FRDatabaseResultCursor#close()} を呼び出すこと。<br>
      *
      * @param <T>           エンティティクラス
      * @param queryId       実行するクエリのID
      * @param resultClass   結果を格納するエンティティクラス
      * @param parameters    検索に利用するパラメータ
-     * @return 結果データ一覧
+     * @return 結果を読み込むカーソル
      * @throws NotFoundException        XML取得に失敗した場合
      * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException 結果を格納するエンティティクラスが null の場合
      */
-    public <T> List<T> selectForList(
+    public <T> FRDatabaseResultCursor<T> selectForCursor(
             final String                queryId,
             final Class<T>              resultClass,
             final FRDatabaseParam...    parameters
             ) {
 
-        return selectForList(dbXmlId, queryId, resultClass, parameters);
+        return selectForCursor(dbXmlId, queryId, resultClass, parameters);
 
     }
 
 
     /**
-     * 指定した参照SQLクエリを実行する。
+     * 指定した参照SQLクエリを実行し、結果を 1 行ずつ読み込むカーソルを取得する。<br>
+     * <br>
+     * 結果の一覧は作成せず、取り出すごとに 1 行ずつ変換する。<br>
+     * 全ての行を取り出した時点でカーソルとセッションは閉じられるが、<br>
+     * 途中で読み込みを終了する場合は必ず {@link FRDatabaseResultCursor#close()} を呼び出すこと。<br>
      *
      * @param <T>           エンティティクラス
      * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
      * @param resultClass   結果を格納するエンティティクラス
      * @param parameters    検索に利用するパラメータ
-     * @return 結果データ一覧
+     * @return 結果を読み込むカーソル
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得またはエンティティへの変換準備に失敗した場合
      * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
      * @throws IllegalArgumentException 結果を格納するエンティティクラスが null の場合
      */
-    public <T> List<T> selectForList(
+    public <T> FRDatabaseResultCursor<T> selectForCursor(
             final int                   xmlResId,
             final String                queryId,
             final Class<T>              resultClass,
@@ -1074,10 +1155,9 @@ public class FRDatabaseSqlMapper {
 
         }
 
-        // クエリデータを取得する
-        final SQLQuery  query = getQuery(
-                xmlResId,
-                queryId,
+        // コンパイル済みステートメントとクエリデータを取得する
+        final SQLStatement  statement = getStatement(xmlResId, queryId);
+        final SQLQuery      query     = statement.render(
                 FRDatabaseUtils.createSearchMap(parameters)
                 );
 
@@ -1094,6 +1174,7 @@ public class FRDatabaseSqlMapper {
 
         FRDatabaseSession   session = null;     // DBアクセスセッション
         Cursor              cursor  = null;     // カーソル
+        boolean             opened  = false;    // 結果カーソルを作成したかどうか
 
         try {
 
@@ -1102,261 +1183,1038 @@ public class FRDatabaseSqlMapper {
 
             // SQLを実行する
             cursor = session.rawQuery(
-                    query.getSql().toString()
+                    sql,
+                    query.getBindArgs().toArray()
                     );
 
-            // カーソルを先頭に移動する
+            // 結果がない場合
             if (!cursor.moveToFirst()) {
 
-                // 読み込み失敗
-                return new ArrayList<T>();
+                // 空の結果カーソルを返す
+                return new FRDatabaseResultCursor<T>(null, null, null);
 
             }
 
+            // 結果カーソルを作成する
+            final FRDatabaseResultCursor<T>     results = new FRDatabaseResultCursor<T>(
+                    cursor,
+                    createRowMapper(statement, resultClass, cursor),
+                    isSharedSession(session) ? null : session
+                    );
 
-            // 返却データ一覧
-            final List<T>   retEntities = new ArrayList<T>();
-
-            // 変換可能型の場合
-            if (ConvertUtils.canConvertType(resultClass)) {
-
-                // カラムが 1 以外の場合
-                if (cursor.getColumnCount() != 1) {
-
-                    throw new IllegalStateException(ERROR_COLUMN_EXCLUDING_ONE);
-
-                }
-
-                // 結果を読み込む
-                do {
-
-                    // 一覧へ追加する
-                    retEntities.add(
-                            ConvertUtils.toType(
-                                    DataConvertType.DATABASE,
-                                    resultClass,
-                                    cursor.getString(0)
-                                    )
-                            );
-
-                // 次の行へ移動する
-                } while (cursor.moveToNext());
+            // カーソルとセッションは結果カーソルが閉じる
+            opened = true;
 
-            } else {
+            // 結果カーソルを返す
+            return results;
 
-                final String[]  columnNames = cursor.getColumnNames();      // カラム名一覧を取得する
+        } catch (final ReflectException e) {
 
-                // 結果を読み込む
-                do {
+            throw new IllegalStateException(e);
 
-                    // エンティティのインスタンスを作成する
-                    final T   entity = ReflectUtils.newInstance(resultClass);
+        } finally {
 
-                    // SQL定義されたカラム文だけ処理をする
-                    for (final String columnName : columnNames) {
+            // 結果カーソルを作成していない場合
+            if (!opened) {
 
-                        // エンティティの指定フィールドに値を設定する
-                        ReflectUtils.setBeanValue(
-                                DataConvertType.DATABASE,
-                                entity,
-                                columnName,
-                                cursor.getString(cursor.getColumnIndex(columnName))
-                                );
+                // カーソルがある場合
+                if (cursor != null) {
 
-                    }
+                    // カーソルを閉じる
+                    cursor.close();
 
-                    // エンティティを返却一覧へ追加する
-                    retEntities.add(entity);
+                }
 
-                // 次の行へ移動する
-                } while (cursor.moveToNext());
+                // セッションを閉じる
+                closeSession(session);
 
             }
 
-            // エンティティ一覧を返す
-            return retEntities;
+        }
 
-        } catch (final ReflectException e) {
+    }
 
-            e.printStackTrace();
 
-        } finally {
+    /**
+     * 結果の型とカーソルのカラム構成に対応する行マッパーを取得する。
+     *
+     * @param <T>           結果の型
+     * @param statement     実行したステートメント
+     * @param resultClass   結果の型
+     * @param cursor        結果のカーソル
+     * @return 行マッパー
+     * @throws ReflectException 行マッパーの作成に失敗した場合
+     * @throws IllegalStateException 変換可能型の結果でカラム数が 1 以外の場合
+     */
+    private static <T> RowMapper<T> createRowMapper(
+            final SQLStatement  statement,
+            final Class<T>      resultClass,
+            final Cursor        cursor
+            ) throws ReflectException {
 
-            // カーソルがある場合
-            if (cursor != null) {
+        // 変換可能型の場合
+        if (ConvertUtils.canConvertType(resultClass)) {
 
-                // カーソルを閉じる
-                cursor.close();
+            // カラムが 1 以外の場合
+            if (cursor.getColumnCount() != 1) {
+
+                throw new IllegalStateException(ERROR_COLUMN_EXCLUDING_ONE);
 
             }
 
-            // セッションを閉じる
-            closeSession(session);
+            // 先頭カラムを結果とする行マッパーを返す
+            return RowMapper.compileSingleColumn(resultClass);
 
         }
 
-        // エンティティ取得失敗
-        return null;
+        // エンティティへ変換する行マッパーを返す
+        return statement.getRowMapper(resultClass, cursor);
 
     }
 
 
     /**
-     * 指定した参照SQLクエリを実行する。
+     * 指定した 1 カラムの参照SQLクエリを実行し、結果をlongの配列で取得する。<br>
+     * <br>
+     * カーソルから型付きで直接読み込むため、値ごとのオブジェクト生成を行わない。<br>
+     * NULLのカラムは 0 とする。<br>
      *
-     * @param <K>           キークラス
-     * @param <V>           値クラス
      * @param queryId       実行するクエリのID
-     * @param keyClass      キークラス
-     * @param valueClass    値クラス
-     * @param keyProperty   キー名称
      * @param parameters    検索に利用するパラメータ
-     * @return 結果データのマッピングデータ
+     * @return 結果データの配列。結果がない場合は長さ 0 の配列
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合またはカラム数が 1 以外の場合
      * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
-     * @throws IllegalArgumentException 結果を格納するキークラスまたは値クラスが null の場合
-     * @throws IllegalArgumentException キー名称が null または長さが 0 の場合
      */
-    public <K, V> Map<K, V> selectForMap(
+    public long[] selectForLongArray(
             final String                queryId,
-            final Class<K>              keyClass,
-            final Class<V>              valueClass,
-            final String                keyProperty,
             final FRDatabaseParam...    parameters
             ) {
 
-        return selectForMap(
-                dbXmlId,
-                queryId,
-                keyClass,
-                valueClass,
-                keyProperty,
-                null,
-                parameters
-                );
+        return selectForLongArray(dbXmlId, queryId, parameters);
 
     }
 
 
     /**
-     * 指定した参照SQLクエリを実行する。
+     * 指定した 1 カラムの参照SQLクエリを実行し、結果をlongの配列で取得する。<br>
+     * <br>
+     * カーソルから型付きで直接読み込むため、値ごとのオブジェクト生成を行わない。<br>
+     * NULLのカラムは 0 とする。<br>
      *
-     * @param <K>           キークラス
-     * @param <V>           値クラス
+     * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
-     * @param keyClass      キークラス
-     * @param valueClass    値クラス
-     * @param keyProperty   キー名称
-     * @param valueProperty 値名称
      * @param parameters    検索に利用するパラメータ
-     * @return 結果データのマッピングデータ
+     * @return 結果データの配列。結果がない場合は長さ 0 の配列
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合またはカラム数が 1 以外の場合
      * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
-     * @throws IllegalArgumentException 結果を格納するキークラスまたは値クラスが null の場合
-     * @throws IllegalArgumentException キー名称が null または長さが 0 の場合
      */
-    public <K, V> Map<K, V> selectForMap(
+    public long[] selectForLongArray(
+            final int                   xmlResId,
             final String                queryId,
-            final Class<K>              keyClass,
-            final Class<V>              valueClass,
-            final String                keyProperty,
-            final String                valueProperty,
             final FRDatabaseParam...    parameters
             ) {
 
-        return selectForMap(
-                dbXmlId,
-                queryId,
-                keyClass,
-                valueClass,
-                keyProperty,
-                valueProperty,
-                parameters
-                );
+        return selectForResult(xmlResId, queryId, READER_LONG_ARRAY, parameters);
 
     }
 
 
     /**
-     * 指定した参照SQLクエリを実行する。
+     * 指定した 1 カラムの参照SQLクエリを実行し、結果をintの配列で取得する。<br>
+     * <br>
+     * カーソルから型付きで直接読み込むため、値ごとのオブジェクト生成を行わない。<br>
+     * NULLのカラムは 0 とする。<br>
      *
-     * @param <K>           キークラス
-     * @param <V>           値クラス
-     * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
-     * @param keyClass      キークラス
-     * @param valueClass    値クラス
-     * @param keyProperty   キー名称
      * @param parameters    検索に利用するパラメータ
-     * @return 結果データのマッピングデータ
+     * @return 結果データの配列。結果がない場合は長さ 0 の配列
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合またはカラム数が 1 以外の場合
      * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
-     * @throws IllegalArgumentException 結果を格納するキークラスまたは値クラスが null の場合
-     * @throws IllegalArgumentException キー名称が null または長さが 0 の場合
      */
-    public <K, V> Map<K, V> selectForMap(
-            final int                   xmlResId,
+    public int[] selectForIntArray(
             final String                queryId,
-            final Class<K>              keyClass,
-            final Class<V>              valueClass,
-            final String                keyProperty,
             final FRDatabaseParam...    parameters
             ) {
 
-        return selectForMap(
-                xmlResId,
-                queryId,
-                keyClass,
-                valueClass,
-                keyProperty,
-                null,
-                parameters
-                );
+        return selectForIntArray(dbXmlId, queryId, parameters);
 
     }
 
 
     /**
-     * 指定した参照SQLクエリを実行する。
+     * 指定した 1 カラムの参照SQLクエリを実行し、結果をintの配列で取得する。<br>
+     * <br>
+     * カーソルから型付きで直接読み込むため、値ごとのオブジェクト生成を行わない。<br>
+     * NULLのカラムは 0 とする。<br>
      *
-     * @param <K>           キークラス
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param parameters    検索に利用するパラメータ
+     * @return 結果データの配列。結果がない場合は長さ 0 の配列
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合またはカラム数が 1 以外の場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     */
+    public int[] selectForIntArray(
+            final int                   xmlResId,
+            final String                queryId,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        return selectForResult(xmlResId, queryId, READER_INT_ARRAY, parameters);
+
+    }
+
+
+    /**
+     * 指定した 1 カラムの参照SQLクエリを実行し、結果をdoubleの配列で取得する。<br>
+     * <br>
+     * カーソルから型付きで直接読み込むため、値ごとのオブジェクト生成を行わない。<br>
+     * NULLのカラムは 0 とする。<br>
+     *
+     * @param queryId       実行するクエリのID
+     * @param parameters    検索に利用するパラメータ
+     * @return 結果データの配列。結果がない場合は長さ 0 の配列
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合またはカラム数が 1 以外の場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     */
+    public double[] selectForDoubleArray(
+            final String                queryId,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        return selectForDoubleArray(dbXmlId, queryId, parameters);
+
+    }
+
+
+    /**
+     * 指定した 1 カラムの参照SQLクエリを実行し、結果をdoubleの配列で取得する。<br>
+     * <br>
+     * カーソルから型付きで直接読み込むため、値ごとのオブジェクト生成を行わない。<br>
+     * NULLのカラムは 0 とする。<br>
+     *
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param parameters    検索に利用するパラメータ
+     * @return 結果データの配列。結果がない場合は長さ 0 の配列
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合またはカラム数が 1 以外の場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     */
+    public double[] selectForDoubleArray(
+            final int                   xmlResId,
+            final String                queryId,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        return selectForResult(xmlResId, queryId, READER_DOUBLE_ARRAY, parameters);
+
+    }
+
+
+    /**
+     * 指定した 1 カラムの参照SQLクエリを実行し、結果を文字列の配列で取得する。<br>
+     * <br>
+     * カーソルから型付きで直接読み込むため、値ごとのオブジェクト生成を行わない。<br>
+     * NULLのカラムは null とする。<br>
+     *
+     * @param queryId       実行するクエリのID
+     * @param parameters    検索に利用するパラメータ
+     * @return 結果データの配列。結果がない場合は長さ 0 の配列
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合またはカラム数が 1 以外の場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     */
+    public String[] selectForStringArray(
+            final String                queryId,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        return selectForStringArray(dbXmlId, queryId, parameters);
+
+    }
+
+
+    /**
+     * 指定した 1 カラムの参照SQLクエリを実行し、結果を文字列の配列で取得する。<br>
+     * <br>
+     * カーソルから型付きで直接読み込むため、値ごとのオブジェクト生成を行わない。<br>
+     * NULLのカラムは null とする。<br>
+     *
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param parameters    検索に利用するパラメータ
+     * @return 結果データの配列。結果がない場合は長さ 0 の配列
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合またはカラム数が 1 以外の場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     */
+    public String[] selectForStringArray(
+            final int                   xmlResId,
+            final String                queryId,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        return selectForResult(xmlResId, queryId, READER_STRING_ARRAY, parameters);
+
+    }
+
+
+    /**
+     * 指定した参照SQLクエリを実行し、結果をカラム単位で取得する。<br>
+     * <br>
+     * カラムごとに全行分の値を 1 つの配列へ読み込み、エンティティの生成を行わない。<br>
+     * 集計結果をカラム単位で処理する場合に利用する。<br>
+     *
+     * @param queryId       実行するクエリのID
+     * @param columnTypes   カラムの型一覧 (long.class, int.class, double.class, String.class)。
+     *                      null の場合は全カラムを double とする
+     * @param parameters    検索に利用するパラメータ
+     * @return カラム単位の検索結果
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合、
+     *                                  またはカラムの型一覧が不正の場合
+     */
+    public FRDatabaseColumns selectForColumns(
+            final String                queryId,
+            final Class<?>[]            columnTypes,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        return selectForColumns(dbXmlId, queryId, columnTypes, parameters);
+
+    }
+
+
+    /**
+     * 指定した参照SQLクエリを実行し、結果をカラム単位で取得する。<br>
+     * <br>
+     * カラムごとに全行分の値を 1 つの配列へ読み込み、エンティティの生成を行わない。<br>
+     * 集計結果をカラム単位で処理する場合に利用する。<br>
+     *
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param columnTypes   カラムの型一覧 (long.class, int.class, double.class, String.class)。
+     *                      null の場合は全カラムを double とする
+     * @param parameters    検索に利用するパラメータ
+     * @return カラム単位の検索結果
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合、
+     *                                  またはカラムの型一覧が不正の場合
+     */
+    public FRDatabaseColumns selectForColumns(
+            final int                   xmlResId,
+            final String                queryId,
+            final Class<?>[]            columnTypes,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        return selectForResult(xmlResId, queryId, new ResultReader<FRDatabaseColumns>() {
+
+            @Override
+            void checkColumns(
+                    final Cursor    cursor
+                    ) {
+
+                // カラム構成は読み込み時に型一覧と照合する
+
+            }
+
+            @Override
+            FRDatabaseColumns read(
+                    final Cursor    cursor,
+                    final int       count
+                    ) {
+
+                return FRDatabaseColumns.read(cursor, count, columnTypes);
+
+            }
+
+        }, parameters);
+
+    }
+
+
+    /**
+     * 指定した参照SQLクエリを実行し、結果を読み込み処理で読み込んで取得する。
+     *
+     * @param <R>           読み込み結果の型
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param reader        結果の読み込み処理
+     * @param parameters    検索に利用するパラメータ
+     * @return 読み込み結果
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合またはカラム構成が不正の場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     */
+    private <R> R selectForResult(
+            final int                   xmlResId,
+            final String                queryId,
+            final ResultReader<R>  reader,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        // 引数が不正の場合は例外
+        if ((queryId == null) || (queryId.length() == 0)) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // クエリデータを取得する
+        final SQLQuery  query = getQuery(
+                xmlResId,
+                queryId,
+                FRDatabaseUtils.createSearchMap(parameters)
+                );
+
+        // SQL文を取得する
+        final String    sql = query.getSql().toString();
+
+
+        // SQLをログへ出力
+        Log.d(getClass().getName(), sql);
+
+        // 取得したSQLが正しいかどうかをチェックする
+        checkCorrectSql(sql, SQLQueryType.SELECT);
+
+
+        FRDatabaseSession   session = null;     // DBアクセスセッション
+        Cursor              cursor  = null;     // カーソル
+
+        try {
+
+            // セッションを開く
+            session = openSession(true);
+
+            // SQLを実行する
+            cursor = session.rawQuery(
+                    sql,
+                    query.getBindArgs().toArray()
+                    );
+
+            // 結果行数を取得する
+            final int   count = cursor.moveToFirst() ? cursor.getCount() : 0;
+
+            // 結果がある場合
+            if (count > 0) {
+
+                // カラム構成を確認する
+                reader.checkColumns(cursor);
+
+            }
+
+            // 結果を読み込んで返す
+            return reader.read(cursor, count);
+
+        } finally {
+
+            // カーソルがある場合
+            if (cursor != null) {
+
+                // カーソルを閉じる
+                cursor.close();
+
+            }
+
+            // セッションを閉じる
+            closeSession(session);
+
+        }
+
+    }
+
+
+    /**
+     * 指定した参照SQLクエリを実行する。
+     *
+     * @param <K>           キークラス
+     * @param <V>           値クラス
+     * @param queryId       実行するクエリのID
+     * @param keyClass      キークラス
+     * @param valueClass    値クラス
+     * @param keyProperty   キー名称
+     * @param parameters    検索に利用するパラメータ
+     * @return 結果データのマッピングデータ
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException 結果を格納するキークラスまたは値クラスが null の場合
+     * @throws IllegalArgumentException キー名称が null または長さが 0 の場合
+     */
+    public <K, V> Map<K, V> selectForMap(
+            final String                queryId,
+            final Class<K>              keyClass,
+            final Class<V>              valueClass,
+            final String                keyProperty,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        return selectForMap(
+                dbXmlId,
+                queryId,
+                keyClass,
+                valueClass,
+                keyProperty,
+                null,
+                parameters
+                );
+
+    }
+
+
+    /**
+     * 指定した参照SQLクエリを実行する。
+     *
+     * @param <K>           キークラス
      * @param <V>           値クラス
+     * @param queryId       実行するクエリのID
+     * @param keyClass      キークラス
+     * @param valueClass    値クラス
+     * @param keyProperty   キー名称
+     * @param valueProperty 値名称
+     * @param parameters    検索に利用するパラメータ
+     * @return 結果データのマッピングデータ
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException 結果を格納するキークラスまたは値クラスが null の場合
+     * @throws IllegalArgumentException キー名称が null または長さが 0 の場合
+     */
+    public <K, V> Map<K, V> selectForMap(
+            final String                queryId,
+            final Class<K>              keyClass,
+            final Class<V>              valueClass,
+            final String                keyProperty,
+            final String                valueProperty,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        return selectForMap(
+                dbXmlId,
+                queryId,
+                keyClass,
+                valueClass,
+                keyProperty,
+                valueProperty,
+                parameters
+                );
+
+    }
+
+
+    /**
+     * 指定した参照SQLクエリを実行する。
+     *
+     * @param <K>           キークラス
+     * @param <V>           値クラス
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param keyClass      キークラス
+     * @param valueClass    値クラス
+     * @param keyProperty   キー名称
+     * @param parameters    検索に利用するパラメータ
+     * @return 結果データのマッピングデータ
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException 結果を格納するキークラスまたは値クラスが null の場合
+     * @throws IllegalArgumentException キー名称が null または長さが 0 の場合
+     */
+    public <K, V> Map<K, V> selectForMap(
+            final int                   xmlResId,
+            final String                queryId,
+            final Class<K>              keyClass,
+            final Class<V>              valueClass,
+            final String                keyProperty,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        return selectForMap(
+                xmlResId,
+                queryId,
+                keyClass,
+                valueClass,
+                keyProperty,
+                null,
+                parameters
+                );
+
+    }
+
+
+    /**
+     * 指定した参照SQLクエリを実行する。
+     *
+     * @param <K>           キークラス
+     * @param <V>           値クラス
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param keyClass      キークラス
+     * @param valueClass    値クラス
+     * @param keyProperty   キー名称
+     * @param valueProperty 値名称
+     * @param parameters    検索に利用するパラメータ
+     * @return 結果データのマッピングデータ
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException 結果を格納するキークラスまたは値クラスが null の場合
+     * @throws IllegalArgumentException キー名称が null または長さが 0 の場合
+     */
+    public <K, V> Map<K, V> selectForMap(
+            final int                   xmlResId,
+            final String                queryId,
+            final Class<K>              keyClass,
+            final Class<V>              valueClass,
+            final String                keyProperty,
+            final String                valueProperty,
+            final FRDatabaseParam...    parameters
+            ) {
+
+        // 引数が不正の場合は例外
+        if ((queryId == null)
+            || (queryId.length() == 0)
+            || (keyClass == null)
+            || (valueClass == null)
+            || (keyProperty == null)
+            || (keyProperty.length() == 0)
+            ) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+
+        // コンパイル済みステートメントとクエリデータを取得する
+        final SQLStatement  statement = getStatement(xmlResId, queryId);
+        final SQLQuery      query     = statement.render(
+                FRDatabaseUtils.createSearchMap(parameters)
+                );
+
+        // SQL文を取得する
+        final String    sql = query.getSql().toString();
+
+
+        // SQLをログへ出力
+        Log.d(getClass().getName(), sql);
+
+        // 取得したSQLが正しいかどうかをチェックする
+        checkCorrectSql(sql, SQLQueryType.SELECT);
+
+
+        FRDatabaseSession   session = null;     // DBアクセスセッション
+        Cursor              cursor  = null;     // カーソル
+
+        try {
+
+            // セッションを開く
+            session = openSession(true);
+
+            // SQLを実行する
+            cursor = session.rawQuery(
+                    sql,
+                    query.getBindArgs().toArray()
+                    );
+
+            // カラムが 1 以下の場合
+            if (cursor.getColumnCount() <= 1) {
+
+                throw new IllegalStateException(ERROR_COLUMN_EXCLUDING_GREATER_ONE);
+
+            }
+
+            // カーソルを先頭に移動する
+            if (!cursor.moveToFirst()) {
+
+                // 読み込み失敗
+                return new HashMap<K, V>();
+
+            }
+
+
+            final Map<K, V>     retEntities = new HashMap<K, V>();      // 返却データテーブル
+            final int           keyIndex    = cursor.getColumnIndex(keyProperty);   // キーのカラム位置
+
+            // キーの型に応じた読み込み処理を作成する
+            final RowMapper.ColumnReader    keyReader = new RowMapper.ColumnReader(keyClass);
+
+
+            // 値が変換可能型の場合
+            if (ConvertUtils.canConvertType(valueClass)) {
+
+                // 値プロパティがない場合
+                if (valueProperty == null) {
+
+                    throw new IllegalStateException(ERROR_NO_VALUE_PROPERTY);
+
+                }
+
+                final int                       valueIndex  = cursor.getColumnIndex(valueProperty);   // 値のカラム位置
+                final RowMapper.ColumnReader    valueReader = new RowMapper.ColumnReader(valueClass);
+
+                // 結果を読み込む
+                do {
+
+                    // 一覧へ追加する
+                    retEntities.put(
+                            ConvertUtils.<K>cast(keyReader.read(cursor, keyIndex)),
+                            ConvertUtils.<V>cast(valueReader.read(cursor, valueIndex))
+                            );
+
+                // 次の行へ移動する
+                } while (cursor.moveToNext());
+
+            } else {
+
+                // カラム構成に対応する行マッパーを取得する
+                final RowMapper<V>  rowMapper = statement.getRowMapper(valueClass, cursor);
+
+                // 結果を読み込む
+                do {
+
+                    // エンティティを返却一覧へ追加する
+                    retEntities.put(
+                            ConvertUtils.<K>cast(keyReader.read(cursor, keyIndex)),
+                            rowMapper.mapRow(cursor)
+                            );
+
+                // 次の行へ移動する
+                } while (cursor.moveToNext());
+
+            }
+
+            // エンティティ一覧を返す
+            return retEntities;
+
+        } catch (final ReflectException e) {
+
+            e.printStackTrace();
+
+        } finally {
+
+            // カーソルがある場合
+            if (cursor != null) {
+
+                // カーソルを閉じる
+                cursor.close();
+
+            }
+
+            // セッションを閉じる
+            closeSession(session);
+
+        }
+
+        // エンティティ取得失敗
+        return null;
+
+    }
+
+
+    /**
+     * 指定されたINSERT文クエリにSQL文を持つ selectKey があるかどうかを取得する。
+     *
+     * @param queryInsert INSERT文クエリ
+     * @return SQL文を持つ selectKey がある場合は true
+     */
+    private static boolean hasSelectKeySql(
+            final SQLQuery  queryInsert
+            ) {
+
+        // サブクエリ分処理をする
+        for (final SQLQuery subQuery : queryInsert.getSubQueries()) {
+
+            // SQL文を持つ selectKey の場合
+            if (SQLQueryType.SELECT_KEY.equals(subQuery.getType()) && (subQuery.getSql().length() > 0)) {
+
+                return true;
+
+            }
+
+        }
+
+        return false;
+
+    }
+
+
+    /**
+     * INSERT文の selectKey クエリ実行処理を処理する。<br>
+     * <br>
+     * selectKey にSQL文がない場合は、INSERT文の実行で取得したROWIDをそのまま結果とし、<br>
+     * 追加のクエリは実行しない。<br>
+     *
+     * @param session       DBセッション
+     * @param queryInsert   INSERT文クエリ
+     * @param rowId         INSERT文の実行で追加した行のROWID
+     * @return keyPropertyの名前を使った名称値の実行結果。selectKey 指定がない場合は null
+     */
+    private static FRDatabaseParam processSelectKey(
+            final FRDatabaseSession session,
+            final SQLQuery          queryInsert,
+            final long              rowId
+            ) {
+
+        // サブクエリを取得する
+        final List<SQLQuery>    subQueries = queryInsert.getSubQueries();
+        final SQLQuery          subQuery;
+
+
+        // サブクエリ数が 0 の場合
+        if (subQueries.size() == 0) {
+
+            // 結果なし
+            return null;
+
+        }
+
+
+        // サブクエリ数が 1 以外の場合
+        // またはサブクエリが selectKey 以外の場合
+        if (subQueries.size() != 1) {
+
+            throw new IllegalStateException("Sub query count should be one.");
+
+        }
+
+        // サブクエリを取得する
+        subQuery = subQueries.get(0);
+
+        // selectKey以外の場合は例外
+        if (!SQLQueryType.SELECT_KEY.equals(subQuery.getType())) {
+
+            throw new IllegalStateException("Unsuppport it excluding the 'selectKey' tag.");
+
+        }
+
+
+        // キープロパティを取得する
+        final String    keyProperty = subQuery.getAttributeValue(SQLQuery.ATTR_KEY_PROPERTY);
+
+        // キープロパティがない場合は例外
+        if (keyProperty == null) {
+
+            throw new IllegalStateException("No 'keyProperty' attribute.");
+
+        }
+
+        // SQL文がない場合
+        if (subQuery.getSql().length() == 0) {
+
+            // 追加した行のROWIDを返す
+            return new FRDatabaseParam(
+                    keyProperty,
+                    Long.valueOf(rowId)
+                    );
+
+        }
+
+
+        Cursor    cursor = null;    // カーソル情報
+
+
+        try {
+
+            // サブクエリに設定されたSQL文を実行する
+            cursor = session.rawQuery(
+                    subQuery.getSql().toString().trim(),
+                    subQuery.getBindArgs().toArray()
+                    );
+
+            // カーソルを先頭に移動する
+            if (!cursor.moveToFirst()) {
+
+                // 結果なし
+                return null;
+
+            }
+
+            // 返却カラムが複数ある場合は例外
+            if (cursor.getColumnCount() != 1) {
+
+                throw new IllegalStateException("The column count should be one.");
+
+            }
+
+            // 返却結果が複数ある場合は例外
+            if (cursor.getCount() != 1) {
+
+                throw new IllegalStateException("The result count should be one.");
+
+            }
+
+            // 結果を返す
+            return new FRDatabaseParam(
+                    keyProperty,
+                    cursor.getString(0)
+                    );
+
+        } catch (final Throwable e) {
+
+            throw new IllegalStateException("sql error!", e);
+
+        } finally {
+
+            // カーソルが取得できている場合
+            if (cursor != null) {
+
+                // カーソルを閉じる
+                cursor.close();
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 指定されたSQLが指定されたSQLクエリ種別かどうかをチェックする。
+     *
+     * @param sql       調べるSQL文
+     * @param queryTypes  SQLクエリ種別
+     * @throws IllegalStateException 指定されたSQLが指定SQLクエリ種別でない場合
+     */
+    private static void checkCorrectSql(
+            final String            sql,
+            final SQLQueryType...   queryTypes
+            ) {
+
+        // 指定されたキーワードの一覧分繰り返す
+        for (final SQLQueryType queryType : queryTypes) {
+
+            // 指定されたSQLが指定SQLキーワードで開始する場合
+            if (isQueryType(sql, queryType)) {
+
+                // 処理なし
+                return;
+
+            }
+
+        }
+
+        // 一致しなかった場合は例外
+        throw new IllegalStateException(
+                "Illegal sql statement. Correct sql statement is [" + Arrays.toString(queryTypes) + "]"
+                );
+
+    }
+
+
+    /**
+     * 指定されたSQLが指定されたSQLクエリ種別のキーワードで開始するかどうかを取得する。<br>
+     * <br>
+     * UPSERT文はINSERT文のキーワードで判定する。<br>
+     *
+     * @param sql       調べるSQL文
+     * @param queryType SQLクエリ種別
+     * @return 指定されたSQLクエリ種別のキーワードで開始する場合は true
+     */
+    private static boolean isQueryType(
+            final String            sql,
+            final SQLQueryType      queryType
+            ) {
+
+        final String    keyword = SQLQueryType.UPSERT.equals(queryType)
+            ? SQLQueryType.INSERT.getName()
+            : queryType.getName();
+
+        return SQLQuery.isSqlKeyword(keyword)
+            && (sql.startsWith(keyword.toUpperCase())
+                || sql.startsWith(keyword.toLowerCase()));
+
+    }
+
+
+    /**
+     * 指定されたクエリ種別一覧の中に指定クエリ種別が含まれているかどうかを取得する。
+     *
+     * @param queryTypes    クエリ種別一覧
+     * @param queryType     一覧の中に含まれているかどうかを調べるクエリ種別
+     * @return 指定されたクエリ種別一覧の中に指定クエリ種別が含まれている場合は true
+     */
+    private static boolean containsQueryType(
+            final SQLQueryType[]    queryTypes,
+            final SQLQueryType      queryType
+            ) {
+
+        // 一覧要素分繰り返す
+        for (final SQLQueryType type : queryTypes) {
+
+            // 一致する場合
+            if (type.equals(queryType)) {
+
+                // 一致を返す
+                return true;
+
+            }
+
+        }
+
+        // 不一致を返す
+        return false;
+
+    }
+
+
+    /**
+     * 指定された更新登録用SQLクエリを実行する。
+     *
      * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
-     * @param keyClass      キークラス
-     * @param valueClass    値クラス
-     * @param keyProperty   キー名称
-     * @param valueProperty 値名称
-     * @param parameters    検索に利用するパラメータ
-     * @return 結果データのマッピングデータ
-     * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
-     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
-     * @throws IllegalArgumentException 結果を格納するキークラスまたは値クラスが null の場合
-     * @throws IllegalArgumentException キー名称が null または長さが 0 の場合
+     * @param queryType     実行するクエリ種別
+     * @param entity        selectKey の結果の設定先エンティティ。設定しない場合は null
+     * @param parameters    更新登録に利用するパラメータ
+     * @return INSERT文の場合は追加した行のROWID。それ以外の場合は変更した行数
+     * @throws IllegalStateException 指定されたSQLが指定SQLクエリ種別でない場合
      */
-    public <K, V> Map<K, V> selectForMap(
+    private long processUpdatingQuery(
             final int                   xmlResId,
             final String                queryId,
-            final Class<K>              keyClass,
-            final Class<V>              valueClass,
-            final String                keyProperty,
-            final String                valueProperty,
+            final SQLQueryType          queryType,
+            final Object                entity,
             final FRDatabaseParam...    parameters
             ) {
 
-        // 引数が不正の場合は例外
-        if ((queryId == null)
-            || (queryId.length() == 0)
-            || (keyClass == null)
-            || (valueClass == null)
-            || (keyProperty == null)
-            || (keyProperty.length() == 0)
+        return processUpdatingQuery(xmlResId, queryId, new SQLQueryType[] {queryType}, entity, parameters);
+
+    }
+
+
+    /**
+     * 指定された更新登録用SQLクエリを実行する。<br>
+     * <br>
+     * INSERT文はコンパイル済みステートメントで実行して追加した行のROWIDを直接取得し、<br>
+     * UPDATE文とDELETE文は変更した行数を取得する。<br>
+     * selectKey の結果は設定先エンティティがある場合のみ取得する。<br>
+     *
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param queryTypes    実行するクエリ種別
+     * @param entity        selectKey の結果の設定先エンティティ。設定しない場合は null
+     * @param parameters    更新登録に利用するパラメータ
+     * @return INSERT文の場合は追加した行のROWID。それ以外の場合は変更した行数
+     */
+    private long processUpdatingQuery(
+            final int                   xmlResId,
+            final String                queryId,
+            final SQLQueryType[]        queryTypes,
+            final Object                entity,
+            final FRDatabaseParam...    parameters
             ) {
 
+        // 引数が不正の場合は例外
+        if ((queryId == null) || (queryId.length() == 0)) {
+
             throw new IllegalArgumentException();
 
         }
@@ -1377,739 +2235,1083 @@ public class FRDatabaseSqlMapper {
         Log.d(getClass().getName(), sql);
 
         // 取得したSQLが正しいかどうかをチェックする
-        checkCorrectSql(sql, SQLQueryType.SELECT);
+        checkCorrectSql(sql, queryTypes);
 
 
-        FRDatabaseSession   session = null;     // DBアクセスセッション
-        Cursor              cursor  = null;     // カーソル
+        FRDatabaseSession   session     = null;     // DBアクセスセッション
 
         try {
 
             // セッションを開く
-            session = openSession(true);
+            session = openSession(false);
 
-            // SQLを実行する
-            cursor = session.rawQuery(
-                    query.getSql().toString()
+            // SQLを実行して結果を返す
+            return executeUpdatingQuery(
+                    session,
+                    sql,
+                    query,
+                    entity,
+                    createUpsertSql(
+                            session,
+                            query.getType(),
+                            query.getAttributeValue(SQLQuery.ATTR_CONFLICT_TARGET),
+                            query.getAttributeValue(SQLQuery.ATTR_REPLACE)
+                            ),
+                    true
                     );
 
-            // カラムが 1 以下の場合
-            if (cursor.getColumnCount() <= 1) {
-
-                throw new IllegalStateException(ERROR_COLUMN_EXCLUDING_GREATER_ONE);
+        } catch (final Throwable e) {
 
-            }
+            throw new IllegalStateException(e);
 
-            // カーソルを先頭に移動する
-            if (!cursor.moveToFirst()) {
+        } finally {
 
-                // 読み込み失敗
-                return new HashMap<K, V>();
+            // セッションを閉じる
+            closeSession(session);
 
-            }
+        }
 
+    }
 
-            final Map<K, V>     retEntities = new HashMap<K, V>();      // 返却データテーブル
 
+    /**
+     * 作成済みの更新登録用SQLクエリを実行する。
+     *
+     * @param session           DBアクセスセッション
+     * @param sql               実行するSQL文
+     * @param query             実行するクエリデータ
+     * @param entity            selectKey の結果の設定先エンティティ。設定しない場合は null
+     * @param upsert            UPSERT文の作成処理。UPSERT文ではない場合は null
+     * @param autoTransaction   自動トランザクション処理を有効にするかどうか
+     * @return INSERT文の場合は追加した行のROWID。DROP文の場合は 0。それ以外の場合は変更した行数
+     */
+    private static long executeUpdatingQuery(
+            final FRDatabaseSession session,
+            final String            sql,
+            final SQLQuery          query,
+            final Object            entity,
+            final UpsertSql         upsert,
+            final boolean           autoTransaction
+            ) {
 
-            // 値が変換可能型の場合
-            if (ConvertUtils.canConvertType(valueClass)) {
+        final Object[]  bindArgs = query.getBindArgs().toArray();     // バインド値一覧
 
-                // 値プロパティがない場合
-                if (valueProperty == null) {
 
-                    throw new IllegalStateException(ERROR_NO_VALUE_PROPERTY);
+        // UPSERT文の場合
+        if (upsert != null) {
 
-                }
+            // UPSERT文として実行し、追加または更新した行数を返す
+            return upsert.execute(session, sql, bindArgs, autoTransaction);
 
-                // 結果を読み込む
-                do {
+        }
 
-                    // 一覧へ追加する
-                    retEntities.put(
-                            ConvertUtils.toType(
-                                    DataConvertType.DATABASE,
-                                    keyClass,
-                                    cursor.getString(cursor.getColumnIndex(keyProperty))
-                                    ),
-                            ConvertUtils.toType(
-                                    DataConvertType.DATABASE,
-                                    valueClass,
-                                    cursor.getString(cursor.getColumnIndex(valueProperty))
-                                    )
-                            );
+        // INSERT文の場合
+        if (isQueryType(sql, SQLQueryType.INSERT)) {
 
-                // 次の行へ移動する
-                } while (cursor.moveToNext());
+            // selectKey のSQL文を自動トランザクションで実行する場合
+            // (書き込み用接続は共有されるため、他のスレッドのINSERTが間に入らないようにする)
+            if ((entity != null) && autoTransaction && hasSelectKeySql(query)) {
 
-            } else {
+                // トランザクションを開始する
+                session.beginTransaction();
 
-                final String[]  columnNames = cursor.getColumnNames();      // カラム名一覧を取得する
+                try {
 
-                // 結果を読み込む
-                do {
+                    // SQLを実行してROWIDを取得する
+                    final long  rowId = session.executeInsert(sql, bindArgs, false);
 
-                    // エンティティのインスタンスを作成する
-                    final V   entity = ReflectUtils.newInstance(valueClass);
+                    // トランザクション内で selectKey を実行してエンティティへ設定する
+                    setSelectKey(entity, processSelectKey(session, query, rowId));
 
-                    // SQL定義されたカラム文だけ処理をする
-                    for (final String columnName : columnNames) {
+                    // トランザクション成功とする
+                    session.setTransactionSuccessful();
 
-                        // エンティティの指定フィールドに値を設定する
-                        ReflectUtils.setBeanValue(
-                                DataConvertType.DATABASE,
-                                entity,
-                                columnName,
-                                cursor.getString(cursor.getColumnIndex(columnName))
-                                );
+                    // 追加した行のROWIDを返す
+                    return rowId;
 
-                    }
+                } finally {
 
-                    // エンティティを返却一覧へ追加する
-                    retEntities.put(
-                            ConvertUtils.toType(
-                                    DataConvertType.DATABASE,
-                                    keyClass,
-                                    cursor.getString(cursor.getColumnIndex(keyProperty))
-                                    ),
-                            entity
-                            );
+                    // トランザクションを終了する
+                    session.endTransaction();
 
-                // 次の行へ移動する
-                } while (cursor.moveToNext());
+                }
 
             }
 
-            // エンティティ一覧を返す
-            return retEntities;
+            // SQLを実行してROWIDを取得する
+            final long  rowId = session.executeInsert(sql, bindArgs, autoTransaction);
 
-        } catch (final ReflectException e) {
+            // 設定先エンティティがある場合
+            if (entity != null) {
 
-            e.printStackTrace();
+                // selectKeyタグがあればエンティティへ設定する
+                setSelectKey(entity, processSelectKey(session, query, rowId));
 
-        } finally {
+            }
 
-            // カーソルがある場合
-            if (cursor != null) {
+            // 追加した行のROWIDを返す
+            return rowId;
 
-                // カーソルを閉じる
-                cursor.close();
+        }
 
-            }
+        // DROP文の場合
+        if (isQueryType(sql, SQLQueryType.DROP)) {
 
-            // セッションを閉じる
-            closeSession(session);
+            // SQLを実行する
+            session.execSQL(sql, bindArgs, autoTransaction);
+
+            // 変更した行なし
+            return 0;
 
         }
 
-        // エンティティ取得失敗
-        return null;
+        // SQLを実行して変更した行数を返す
+        return session.executeUpdateDelete(sql, bindArgs, autoTransaction);
 
     }
 
 
     /**
-     * INSERT文の selectKey クエリ実行処理を処理する。
+     * 指定された更新登録用SQLクエリをエンティティ一覧の要素ごとに実行する。<br>
+     * <br>
+     * 全要素を 1 つのトランザクション (コミット単位が設定されている場合はその件数ごと) で実行する。<br>
+     * 同じSQLになる要素はセッションのコンパイル済みステートメントを再利用し、バインド値のみを設定する。<br>
+     * INSERT文に selectKey 指定がある場合は、取得した値を各エンティティのキープロパティへ設定する。<br>
+     * INSERT文に {@code multiRow="true"} 属性がある場合は、VALUES句が 1 行分のINSERT文を<br>
+     * バインド変数の上限を超えない行数ずつ 1 つの複数行INSERT文にまとめて実行する。<br>
      *
-     * @param session       DBセッション
-     * @param queryInsert   INSERT文クエリ
-     * @return keyPropertyの名前を使った名称値の実行結果
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param queryTypes    実行するクエリ種別
+     * @param entities      更新登録に利用するエンティティ一覧
+     * @return 変更した行数 (INSERT文の場合は追加した行数)
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException エンティティ一覧が null の場合
      */
-    private static FRDatabaseParam processSelectKey(
-            final FRDatabaseSession session,
-            final SQLQuery          queryInsert
+    private int processUpdatingBatch(
+            final int                   xmlResId,
+            final String                queryId,
+            final SQLQueryType[]        queryTypes,
+            final Collection<?>         entities
             ) {
 
-        // サブクエリを取得する
-        final List<SQLQuery>    subQueries = queryInsert.getSubQueries();
-        final SQLQuery          subQuery;
+        // 引数が不正の場合は例外
+        if ((queryId == null) || (queryId.length() == 0) || (entities == null)) {
 
+            throw new IllegalArgumentException();
 
-        // サブクエリ数が 0 の場合
-        if (subQueries.size() == 0) {
+        }
 
-            // 結果なし
-            return null;
+        // エンティティがない場合
+        if (entities.isEmpty()) {
+
+            // 実行なし
+            return 0;
 
         }
 
 
-        // サブクエリ数が 1 以外の場合
-        // またはサブクエリが selectKey 以外の場合
-        if (subQueries.size() != 1) {
+        final SQLStatement  statement   = getStatement(xmlResId, queryId);          // コンパイル済みステートメント
+        final Set<String>   names       = statement.getPropertyNames();             // 参照するプロパティ名一覧
+        final boolean       insert      = containsQueryType(queryTypes, SQLQueryType.INSERT);
+        final boolean       multiRow    = insert
+            && SQLQueryType.INSERT.equals(statement.getType())
+            && Boolean.parseBoolean(statement.getAttributeValue(SQLQuery.ATTR_MULTI_ROW));
+        final int           chunkSize   = dbBatchChunkSize;                         // コミット単位
+        final int           totalCount  = entities.size();                          // 全件数
+        FRDatabaseSession   session     = null;                                     // DBアクセスセッション
+        MultiRowInsert      rows        = null;                                     // 複数行INSERT文
+        UpsertSql           upsert      = null;                                     // UPSERT文の作成処理
+        String              lastSql     = null;                                     // 直前に実行したSQL
+        boolean             appendable  = false;                                    // 複数行INSERT文へ連結可能かどうか
+        int                 count       = 0;                                        // 実行件数
+        int                 rowCount    = 0;                                        // 変更した行数
 
-            throw new IllegalStateException("Sub query count should be one.");
+        try {
 
-        }
+            // セッションを開く
+            session = openSession(false);
 
-        // サブクエリを取得する
-        subQuery = subQueries.get(0);
+            // 複数行INSERT文を利用する場合
+            if (multiRow) {
 
-        // selectKey以外の場合は例外
-        if (!SQLQueryType.SELECT_KEY.equals(subQuery.getType())) {
+                rows = new MultiRowInsert(session);
 
-            throw new IllegalStateException("Unsuppport it excluding the 'selectKey' tag.");
+            }
 
-        }
+            // UPSERT文の場合はUPSERT文の作成処理を作成する
+            upsert = createUpsertSql(
+                    session,
+                    statement.getType(),
+                    statement.getAttributeValue(SQLQuery.ATTR_CONFLICT_TARGET),
+                    statement.getAttributeValue(SQLQuery.ATTR_REPLACE)
+                    );
 
+            // トランザクションを開始する
+            session.beginTransaction();
 
-        final String    sql;    // 実行するSQL
+            try {
 
+                // 全エンティティ分処理をする
+                for (final Object entity : entities) {
 
-        // SQL文がない場合
-        if (subQuery.getSql().length() == 0) {
+                    // 参照されるプロパティのみでクエリデータを作成する
+                    final SQLQuery  query = statement.render(
+                            FRDatabaseUtils.createSearchMap(
+                                    FRDatabaseUtils.createNameValuePairs(entity, names)
+                                    )
+                            );
+
+                    // SQL文を取得する
+                    final String    sql = query.getSql().toString();
+
+                    // 直前と異なるSQLの場合
+                    if (!sql.equals(lastSql)) {
+
+                        // SQLをログへ出力
+                        Log.d(getClass().getName(), sql);
+
+                        // 取得したSQLが正しいかどうかをチェックする
+                        checkCorrectSql(sql, queryTypes);
+
+                        lastSql     = sql;
+                        appendable  = (rows != null) && MultiRowInsert.canAppend(sql);
+
+                        // 複数行INSERT文を指定しているが連結できない場合
+                        if ((rows != null) && !appendable) {
+
+                            Log.w(
+                                    getClass().getName(),
+                                    "multiRow is ignored. The VALUES clause should be a single row. [queryId = "
+                                    + queryId + "]"
+                                    );
+
+                        }
+
+                    }
+
+                    // 複数行INSERT文へ連結できる場合 (selectKey 指定がある場合は行ごとに実行する)
+                    if (appendable && query.getSubQueries().isEmpty()) {
+
+                        // 行を連結する (上限に達した場合は連結済みの行を実行する)
+                        rowCount += rows.add(sql, query.getBindArgs());
+
+                    } else {
+
+                        // 複数行INSERT文がある場合
+                        if (rows != null) {
+
+                            // 順序を保つため連結済みの行を先に実行する
+                            rowCount += rows.flush();
 
-            // デフォルトSQLを設定する
-            sql = SQLQuery.SQL_STATEMENT_SELECT_KEY;
+                        }
 
-        } else {
+                        // トランザクション内でSQLを実行する
+                        final long  result = executeUpdatingQuery(session, sql, query, entity, upsert, false);
 
-            // サブクエリに設定されたSQLを設定する
-            sql = subQuery.getSql().toString();
+                        // INSERT文の場合
+                        if (insert && (upsert == null)) {
 
-        }
+                            // 追加できた場合は 1 行とする
+                            rowCount += (result == -1) ? 0 : 1;
 
+                        } else {
 
-        Cursor    cursor = null;    // カーソル情報
+                            // 変更した行数を加算する
+                            rowCount += result;
 
+                        }
 
-        try {
+                    }
 
-            // SQL文を実行する
-            cursor = session.rawQuery(sql);
+                    count++;
 
-            // カーソルを先頭に移動する
-            if (!cursor.moveToFirst()) {
+                    // コミット単位に達し、残りのエンティティがある場合
+                    if ((chunkSize > 0) && ((count % chunkSize) == 0) && (count < totalCount)) {
 
-                // 結果なし
-                return null;
+                        // 複数行INSERT文がある場合
+                        if (rows != null) {
 
-            }
+                            // 連結済みの行を実行する
+                            rowCount += rows.flush();
 
-            // 返却カラムが複数ある場合は例外
-            if (cursor.getColumnCount() != 1) {
+                        }
 
-                throw new IllegalStateException("The column count should be one.");
+                        // ここまでをコミットして次のトランザクションを開始する
+                        session.setTransactionSuccessful();
+                        session.endTransaction();
+                        session.beginTransaction();
 
-            }
+                    }
 
-            // 返却結果が複数ある場合は例外
-            if (cursor.getCount() != 1) {
+                }
 
-                throw new IllegalStateException("The result count should be one.");
+                // 複数行INSERT文がある場合
+                if (rows != null) {
 
-            }
+                    // 残りの行を実行する
+                    rowCount += rows.flush();
 
+                }
 
-            // キープロパティを取得する
-            final String    keyProperty = subQuery.getAttributeValue(SQLQuery.ATTR_KEY_PROPERTY);
+                // トランザクション成功とする
+                session.setTransactionSuccessful();
 
-            // キープロパティがない場合は例外
-            if (keyProperty == null) {
+            } finally {
 
-                throw new IllegalStateException("No 'keyProperty' attribute.");
+                // トランザクションを終了する
+                session.endTransaction();
 
             }
 
-            // 結果を返す
-            return new FRDatabaseParam(
-                    keyProperty,
-                    cursor.getString(0)
-                    );
-
         } catch (final Throwable e) {
 
-            throw new IllegalStateException("sql error!", e);
+            throw new IllegalStateException(e);
 
         } finally {
 
-            // カーソルが取得できている場合
-            if (cursor != null) {
-
-                // カーソルを閉じる
-                cursor.close();
-
-            }
+            // セッションを閉じる
+            closeSession(session);
 
         }
 
+        // 変更した行数を返す
+        return rowCount;
+
     }
 
 
     /**
-     * 指定されたSQLが指定されたSQLクエリ種別かどうかをチェックする。
+     * 指定されたクエリ種別がUPSERT文の場合はUPSERT文の作成処理を作成する。
      *
-     * @param sql       調べるSQL文
-     * @param queryTypes  SQLクエリ種別
-     * @throws IllegalStateException 指定されたSQLが指定SQLクエリ種別でない場合
+     * @param session           DBアクセスセッション
+     * @param queryType         クエリ種別
+     * @param conflictTarget    競合対象カラム一覧。ない場合は null
+     * @param replace           INSERT OR REPLACE で置換するかどうか ("true" の場合のみ置換)。ない場合は null
+     * @return UPSERT文の実行処理。UPSERT文ではない場合は null
      */
-    private static void checkCorrectSql(
-            final String            sql,
-            final SQLQueryType...   queryTypes
+    private static UpsertSql createUpsertSql(
+            final FRDatabaseSession session,
+            final SQLQueryType      queryType,
+            final String            conflictTarget,
+            final String            replace
             ) {
 
-        // 指定されたキーワードの一覧分繰り返す
-        for (final SQLQueryType queryType : queryTypes) {
-
-            // 指定されたSQLが指定SQLキーワードで開始する場合
-            if (SQLQuery.isSqlKeyword(queryType.getName())
-                && (sql.startsWith(queryType.getName().toUpperCase())
-                    || sql.startsWith(queryType.getName().toLowerCase()))
-                ) {
-
-                // 処理なし
-                return;
+        // UPSERT文ではない場合
+        if (!SQLQueryType.UPSERT.equals(queryType)) {
 
-            }
+            return null;
 
         }
 
-        // 一致しなかった場合は例外
-        throw new IllegalStateException(
-                "Illegal sql statement. Correct sql statement is [" + Arrays.toString(queryTypes) + "]"
+        // 競合対象カラムとSQLiteのバージョンからUPSERT文の実行処理を作成する
+        return new UpsertSql(
+                conflictTarget,
+                Boolean.parseBoolean(replace),
+                session.getSqliteVersionNumber()
                 );
 
     }
 
 
     /**
-     * 指定されたクエリ種別一覧の中に指定クエリ種別が含まれているかどうかを取得する。
+     * selectKey の実行結果を指定されたエンティティのキープロパティへ設定する。
      *
-     * @param queryTypes    クエリ種別一覧
-     * @param queryType     一覧の中に含まれているかどうかを調べるクエリ種別
-     * @return 指定されたクエリ種別一覧の中に指定クエリ種別が含まれている場合は true
+     * @param entity    設定先エンティティ
+     * @param selectKey selectKey の実行結果。null の場合は何もしない
      */
-    private static boolean containsQueryType(
-            final SQLQueryType[]    queryTypes,
-            final SQLQueryType      queryType
+    private static void setSelectKey(
+            final Object            entity,
+            final FRDatabaseParam   selectKey
             ) {
 
-        // 一覧要素分繰り返す
-        for (final SQLQueryType type : queryTypes) {
+        // selectKeyタグがない場合、またはエンティティが名称値型の場合
+        if ((selectKey == null) || (entity == null) || (entity instanceof FRDatabaseParam)) {
 
-            // 一致する場合
-            if (type.equals(queryType)) {
+            // 何もしない
+            return;
 
-                // 一致を返す
-                return true;
+        }
 
-            }
+        try {
+
+            // 指定されたエンティティのキープロパティへ値を設定する
+            ReflectUtils.setBeanValue(
+                    DataConvertType.DATABASE,
+                    entity,
+                    selectKey.getName(),
+                    selectKey.getValue()
+                    );
+
+        } catch (final ReflectException e) {
+
+            e.printStackTrace();
 
         }
 
-        // 不一致を返す
-        return false;
+    }
+
+
+    /**
+     * 指定した追加登録SQLクエリを実行する。<br>
+     * <br>
+     * selectKey 指定がある場合は、取得した値をエンティティのキープロパティへ設定する。<br>
+     *
+     * @param queryId       実行するクエリのID
+     * @param entity        追加登録に利用するエンティティ
+     * @return 追加した行のROWID。追加しなかった場合は -1
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     */
+    public long insert(
+            final String                queryId,
+            final Object                entity
+            ) {
+
+        return insert(dbXmlId, queryId, entity);
 
     }
 
 
     /**
-     * 指定された更新登録用SQLクエリを実行する。
+     * 指定した追加登録SQLクエリを実行する。<br>
+     * <br>
+     * selectKey 指定がある場合は、取得した値をエンティティのキープロパティへ設定する。<br>
      *
      * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
-     * @param queryType     実行するクエリ種別
-     * @param parameters    更新登録に利用するパラメータ
-     * @return 追加したデータの行番号または主キーを返す selectKey 指定がある場合はその値。それ以外の場合は null (INSERT文でのみ有効)
-     * @throws IllegalStateException 指定されたSQLが指定SQLクエリ種別でない場合
+     * @param entity        追加登録に利用するエンティティ
+     * @return 追加した行のROWID。追加しなかった場合は -1
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
      */
-    private FRDatabaseParam processUpdatingQuery(
+    public long insert(
             final int                   xmlResId,
             final String                queryId,
-            final SQLQueryType          queryType,
-            final FRDatabaseParam...    parameters
+            final Object                entity
             ) {
 
-        return processUpdatingQuery(xmlResId, queryId, new SQLQueryType[] {queryType}, parameters);
+        // 追加登録SQLを実行する
+        return processUpdatingQuery(
+                xmlResId,
+                queryId,
+                SQLQueryType.INSERT,
+                entity,
+                createStatementParams(xmlResId, queryId, entity)
+                );
 
     }
 
 
     /**
-     * 指定された更新登録用SQLクエリを実行する。
+     * 指定した追加登録SQLクエリを実行する。
      *
-     * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
-     * @param queryTypes    実行するクエリ種別
-     * @param parameters    更新登録に利用するパラメータ
-     * @return 追加したデータの行番号または主キーを返す selectKey 指定がある場合はその値。それ以外の場合は null (INSERT文でのみ有効)
+     * @param parameters    追加登録に利用するパラメータ
+     * @return 追加した行のROWID。追加しなかった場合は -1
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
      */
-    private FRDatabaseParam processUpdatingQuery(
-            final int                   xmlResId,
+    public long insert(
             final String                queryId,
-            final SQLQueryType[]        queryTypes,
             final FRDatabaseParam...    parameters
             ) {
 
-        // 引数が不正の場合は例外
-        if ((queryId == null) || (queryId.length() == 0)) {
+        return insert(dbXmlId, queryId, parameters);
 
-            throw new IllegalArgumentException();
+    }
 
-        }
 
+    /**
+     * 指定した追加登録SQLクエリを実行する。
+     *
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param parameters    追加登録に利用するパラメータ
+     * @return 追加した行のROWID。追加しなかった場合は -1
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     */
+    public long insert(
+            final int                   xmlResId,
+            final String                queryId,
+            final FRDatabaseParam...    parameters
+            ) {
 
-        // クエリデータを取得する
-        final SQLQuery  query = getQuery(
+        // 追加登録SQLを実行する
+        return processUpdatingQuery(
                 xmlResId,
                 queryId,
-                FRDatabaseUtils.createSearchMap(parameters)
+                SQLQueryType.INSERT,
+                null,
+                parameters
                 );
 
-        // SQL文を取得する
-        final String    sql = query.getSql().toString();
+    }
 
 
-        // SQLをログへ出力
-        Log.d(getClass().getName(), sql);
+    /**
+     * 指定した更新SQLクエリを実行する。
+     *
+     * @param queryId       実行するクエリのID
+     * @param entity        更新に利用するエンティティ
+     * @return 更新した行数
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     */
+    public int update(
+            final String                queryId,
+            final Object                entity
+            ) {
 
-        // 取得したSQLが正しいかどうかをチェックする
-        checkCorrectSql(sql, queryTypes);
+        return update(dbXmlId, queryId, entity);
 
+    }
 
-        FRDatabaseSession   session     = null;     // DBアクセスセッション
-        FRDatabaseParam     selectKey   = null;     // 返却する行番号または主キー
 
-        try {
+    /**
+     * 指定した更新SQLクエリを実行する。
+     *
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param entity        更新に利用するエンティティ
+     * @return 更新した行数
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     */
+    public int update(
+            final int                   xmlResId,
+            final String                queryId,
+            final Object                entity
+            ) {
 
-            // セッションを開く
-            session = openSession(false);
+        // 更新SQLを実行する
+        return (int)processUpdatingQuery(
+                xmlResId,
+                queryId,
+                SQLQueryType.UPDATE,
+                entity,
+                createStatementParams(xmlResId, queryId, entity)
+                );
 
-            // SQLを実行する
-            session.execSQL(sql);
+    }
 
-            // INSERT文の場合
-            if (containsQueryType(queryTypes, SQLQueryType.INSERT)) {
 
-                // selectKeyタグがあれば処理をする
-                selectKey = processSelectKey(session, query);
+    /**
+     * 指定した更新SQLクエリを実行する。
+     *
+     * @param queryId       実行するクエリのID
+     * @param parameters    更新に利用するパラメータ
+     * @return 更新した行数
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     */
+    public int update(
+            final String                queryId,
+            final FRDatabaseParam...    parameters
+            ) {
 
-            }
+        return update(dbXmlId, queryId, parameters);
 
-        } catch (final Throwable e) {
+    }
 
-            throw new IllegalStateException(e);
 
-        } finally {
+    /**
+     * 指定した更新SQLクエリを実行する。
+     *
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param parameters    更新に利用するパラメータ
+     * @return 更新した行数
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     */
+    public int update(
+            final int                   xmlResId,
+            final String                queryId,
+            final FRDatabaseParam...    parameters
+            ) {
 
-            // セッションを閉じる
-            closeSession(session);
+        // 更新SQLを実行する
+        return (int)processUpdatingQuery(
+                xmlResId,
+                queryId,
+                SQLQueryType.UPDATE,
+                null,
+                parameters
+                );
+
+    }
+
+
+    /**
+     * 指定した削除SQLクエリを実行する。
+     *
+     * @param queryId       実行するクエリのID
+     * @param entity        削除に利用するエンティティ
+     * @return 削除した行数 (DROP文の場合は 0)
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     */
+    public int delete(
+            final String                queryId,
+            final Object                entity
+            ) {
+
+        return delete(dbXmlId, queryId, entity);
+
+    }
 
-        }
 
-        // 取得した行番号または主キーを返す
-        return selectKey;
+    /**
+     * 指定した削除SQLクエリを実行する。
+     *
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param entity        削除に利用するエンティティ
+     * @return 削除した行数 (DROP文の場合は 0)
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合
+     */
+    public int delete(
+            final int                   xmlResId,
+            final String                queryId,
+            final Object                entity
+            ) {
+
+        // 削除SQLを実行する
+        return (int)processUpdatingQuery(
+                xmlResId,
+                queryId,
+                new SQLQueryType[] {
+                        SQLQueryType.DELETE,
+                        SQLQueryType.DROP,
+                },
+                entity,
+                createStatementParams(xmlResId, queryId, entity)
+                );
 
     }
 
 
     /**
-     * 指定した追加登録SQLクエリを実行する。
+     * 指定した削除SQLクエリを実行する。
      *
      * @param queryId       実行するクエリのID
-     * @param entity        追加登録に利用するエンティティ
-     * @return 追加したデータの行番号または主キーを返す selectKey 指定がある場合はその値。それ以外の場合は null
+     * @param parameters    削除に利用するパラメータ
+     * @return 削除した行数 (DROP文の場合は 0)
      * @throws NotFoundException        XML取得に失敗した場合
      * @throws IllegalStateException    クエリ取得に失敗した場合
      */
-    public String insert(
+    public int delete(
             final String                queryId,
-            final Object                entity
+            final FRDatabaseParam...    parameters
             ) {
 
-        return insert(dbXmlId, queryId, entity);
+        return delete(dbXmlId, queryId, parameters);
 
     }
 
 
     /**
-     * 指定した追加登録SQLクエリを実行する。
+     * 指定した削除SQLクエリを実行する。
      *
      * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
-     * @param entity        追加登録に利用するエンティティ
-     * @return 追加したデータの行番号または主キーを返す selectKey 指定がある場合はその値。それ以外の場合は null
+     * @param parameters    削除に利用するパラメータ
+     * @return 削除した行数 (DROP文の場合は 0)
      * @throws NotFoundException        XML取得に失敗した場合
      * @throws IllegalStateException    クエリ取得に失敗した場合
      */
-    public String insert(
+    public int delete(
             final int                   xmlResId,
             final String                queryId,
-            final Object                entity
+            final FRDatabaseParam...    parameters
             ) {
 
-        // 追加登録SQLを実行する
-        final FRDatabaseParam   selectKey = processUpdatingQuery(
+        // 削除SQLを実行する
+        return (int)processUpdatingQuery(
                 xmlResId,
                 queryId,
-                SQLQueryType.INSERT,
-                FRDatabaseUtils.createNameValuePairs(entity)
+                new SQLQueryType[] {
+                        SQLQueryType.DELETE,
+                        SQLQueryType.DROP,
+                },
+                null,
+                parameters
                 );
 
-        // selectKeyタグが存在した場合
-        if (selectKey != null) {
+    }
 
-            try {
 
-                // 指定されたエンティティのキープロパティへ値を設定する
-                ReflectUtils.setBeanValue(
-                        DataConvertType.DATABASE,
-                        entity,
-                        selectKey.getName(),
-                        selectKey.getValue()
-                        );
 
-            } catch (final ReflectException e) {
 
-                e.printStackTrace();
+    /**
+     * 指定したUPSERT SQLクエリを実行する。<br>
+     * <br>
+     * {@code <upsert>} に定義されたINSERT文を、{@code conflictTarget} 属性のカラムの値が一致する行があれば<br>
+     * その行を更新し、なければ追加する。<br>
+     * SQLiteが 3.24.0 以降の場合は {@code ON CONFLICT ... DO UPDATE} を、<br>
+     * それより前の場合は UPDATE文と、更新した行がなければ INSERT文を実行するため、<br>
+     * どの端末でも既存行のROWIDと指定していないカラムの値は保持される。<br>
+     * {@code replace="true"} 属性がある場合のみ {@code INSERT OR REPLACE} を利用する。<br>
+     * この場合は既存行を削除してから追加するため、指定していないカラムは初期値となり、<br>
+     * {@code INTEGER PRIMARY KEY} 以外ではROWIDが変わり、{@code ON DELETE CASCADE} も実行される。<br>
+     *
+     * @param queryId       実行するクエリのID
+     * @param entity        追加または更新に利用するエンティティ
+     * @return 追加または更新した行数
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合、または競合対象カラムがなく置換も指定されていない場合
+     */
+    public int upsert(
+            final String                queryId,
+            final Object                entity
+            ) {
 
-            }
+        return upsert(dbXmlId, queryId, entity);
 
-            // 行番号または主キーを返す
-            return String.valueOf(selectKey.getValue());
+    }
 
-        }
 
-        // 返却データなし
-        return null;
+    /**
+     * 指定したUPSERT SQLクエリを実行する。<br>
+     * <br>
+     * {@code <upsert>} に定義されたINSERT文を、{@code conflictTarget} 属性のカラムの値が一致する行があれば<br>
+     * その行を更新し、なければ追加する。<br>
+     * SQLiteが 3.24.0 以降の場合は {@code ON CONFLICT ... DO UPDATE} を、<br>
+     * それより前の場合は UPDATE文と、更新した行がなければ INSERT文を実行するため、<br>
+     * どの端末でも既存行のROWIDと指定していないカラムの値は保持される。<br>
+     * {@code replace="true"} 属性がある場合のみ {@code INSERT OR REPLACE} を利用する。<br>
+     * この場合は既存行を削除してから追加するため、指定していないカラムは初期値となり、<br>
+     * {@code INTEGER PRIMARY KEY} 以外ではROWIDが変わり、{@code ON DELETE CASCADE} も実行される。<br>
+     *
+     * @param xmlResId      クエリが定義されたXMLのリソースID
+     * @param queryId       実行するクエリのID
+     * @param entity        追加または更新に利用するエンティティ
+     * @return 追加または更新した行数
+     * @throws NotFoundException        XML取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合、または競合対象カラムがなく置換も指定されていない場合
+     */
+    public int upsert(
+            final int                   xmlResId,
+            final String                queryId,
+            final Object                entity
+            ) {
+
+        // UPSERT SQLを実行する
+        return (int)processUpdatingQuery(
+                xmlResId,
+                queryId,
+                SQLQueryType.UPSERT,
+                null,
+                createStatementParams(xmlResId, queryId, entity)
+                );
 
     }
 
 
     /**
-     * 指定した追加登録SQLクエリを実行する。
+     * 指定したUPSERT SQLクエリを実行する。<br>
+     * <br>
+     * {@code <upsert>} に定義されたINSERT文を、{@code conflictTarget} 属性のカラムの値が一致する行があれば<br>
+     * その行を更新し、なければ追加する。<br>
+     * SQLiteが 3.24.0 以降の場合は {@code ON CONFLICT ... DO UPDATE} を、<br>
+     * それより前の場合は UPDATE文と、更新した行がなければ INSERT文を実行するため、<br>
+     * どの端末でも既存行のROWIDと指定していないカラムの値は保持される。<br>
+     * {@code replace="true"} 属性がある場合のみ {@code INSERT OR REPLACE} を利用する。<br>
+     * この場合は既存行を削除してから追加するため、指定していないカラムは初期値となり、<br>
+     * {@code INTEGER PRIMARY KEY} 以外ではROWIDが変わり、{@code ON DELETE CASCADE} も実行される。<br>
      *
      * @param queryId       実行するクエリのID
-     * @param parameters    追加登録に利用するパラメータ
-     * @return 追加したデータの行番号または主キーを返す selectKey 指定がある場合はその値。それ以外の場合は null
+     * @param parameters    追加または更新に利用するパラメータ
+     * @return 追加または更新した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合、または競合対象カラムがなく置換も指定されていない場合
      */
-    public String insert(
+    public int upsert(
             final String                queryId,
             final FRDatabaseParam...    parameters
             ) {
 
-        return insert(dbXmlId, queryId, parameters);
+        return upsert(dbXmlId, queryId, parameters);
 
     }
 
 
     /**
-     * 指定した追加登録SQLクエリを実行する。
+     * 指定したUPSERT SQLクエリを実行する。<br>
+     * <br>
+     * {@code <upsert>} に定義されたINSERT文を、{@code conflictTarget} 属性のカラムの値が一致する行があれば<br>
+     * その行を更新し、なければ追加する。<br>
+     * SQLiteが 3.24.0 以降の場合は {@code ON CONFLICT ... DO UPDATE} を、<br>
+     * それより前の場合は UPDATE文と、更新した行がなければ INSERT文を実行するため、<br>
+     * どの端末でも既存行のROWIDと指定していないカラムの値は保持される。<br>
+     * {@code replace="true"} 属性がある場合のみ {@code INSERT OR REPLACE} を利用する。<br>
+     * この場合は既存行を削除してから追加するため、指定していないカラムは初期値となり、<br>
+     * {@code INTEGER PRIMARY KEY} 以外ではROWIDが変わり、{@code ON DELETE CASCADE} も実行される。<br>
      *
      * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
-     * @param parameters    追加登録に利用するパラメータ
-     * @return 追加したデータの行番号または主キーを返す selectKey 指定がある場合はその値。それ以外の場合は null
+     * @param parameters    追加または更新に利用するパラメータ
+     * @return 追加または更新した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得に失敗した場合、または競合対象カラムがなく置換も指定されていない場合
      */
-    public String insert(
+    public int upsert(
             final int                   xmlResId,
             final String                queryId,
             final FRDatabaseParam...    parameters
             ) {
 
-        // 追加登録SQLを実行する
-        final FRDatabaseParam   selectKey = processUpdatingQuery(
+        // UPSERT SQLを実行する
+        return (int)processUpdatingQuery(
                 xmlResId,
                 queryId,
-                SQLQueryType.INSERT,
+                SQLQueryType.UPSERT,
+                null,
                 parameters
                 );
 
-        // selectKeyタグが存在した場合
-        if (selectKey != null) {
-
-            // 行番号または主キーを返す
-            return String.valueOf(selectKey.getValue());
-
-        }
-
-        // 返却データなし
-        return null;
-
     }
 
 
     /**
-     * 指定した更新SQLクエリを実行する。
+     * 指定した追加登録SQLクエリをエンティティ一覧の要素ごとに一括で実行する。<br>
+     * <br>
+     * 全要素を 1 つのトランザクションで実行する。<br>
+     * {@link #setBatchChunkSize(int)} が設定されている場合はその件数ごとにコミットする。<br>
+     * selectKey 指定がある場合は、取得した値を各エンティティのキープロパティへ設定する。<br>
+     * {@code multiRow="true"} 属性がある場合は、複数行をまとめた 1 つのINSERT文で実行する。<br>
      *
      * @param queryId       実行するクエリのID
-     * @param entity        更新に利用するエンティティ
+     * @param entities      追加登録に利用するエンティティ一覧
+     * @return 追加した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得またはSQLの実行に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException エンティティ一覧が null の場合
      */
-    public void update(
+    public int insertBatch(
             final String                queryId,
-            final Object                entity
+            final Collection<?>         entities
             ) {
 
-        update(dbXmlId, queryId, entity);
+        return insertBatch(dbXmlId, queryId, entities);
 
     }
 
 
     /**
-     * 指定した更新SQLクエリを実行する。
+     * 指定した追加登録SQLクエリをエンティティ一覧の要素ごとに一括で実行する。<br>
+     * <br>
+     * 全要素を 1 つのトランザクションで実行する。<br>
+     * {@link #setBatchChunkSize(int)} が設定されている場合はその件数ごとにコミットする。<br>
+     * selectKey 指定がある場合は、取得した値を各エンティティのキープロパティへ設定する。<br>
+     * {@code multiRow="true"} 属性がある場合は、複数行をまとめた 1 つのINSERT文で実行する。<br>
      *
      * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
-     * @param entity        更新に利用するエンティティ
+     * @param entities      追加登録に利用するエンティティ一覧
+     * @return 追加した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得またはSQLの実行に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException エンティティ一覧が null の場合
      */
-    public void update(
+    public int insertBatch(
             final int                   xmlResId,
             final String                queryId,
-            final Object                entity
+            final Collection<?>         entities
             ) {
 
-        // 更新SQLを実行する
-        processUpdatingQuery(
+        // 追加登録SQLを一括で実行する
+        return processUpdatingBatch(
                 xmlResId,
                 queryId,
-                SQLQueryType.UPDATE,
-                FRDatabaseUtils.createNameValuePairs(entity)
+                new SQLQueryType[] {
+                        SQLQueryType.INSERT,
+                },
+                entities
                 );
 
     }
 
 
     /**
-     * 指定した更新SQLクエリを実行する。
+     * 指定した更新SQLクエリをエンティティ一覧の要素ごとに一括で実行する。<br>
+     * <br>
+     * 全要素を 1 つのトランザクションで実行する。<br>
+     * {@link #setBatchChunkSize(int)} が設定されている場合はその件数ごとにコミットする。<br>
      *
      * @param queryId       実行するクエリのID
-     * @param parameters    更新に利用するパラメータ
+     * @param entities      更新に利用するエンティティ一覧
+     * @return 更新した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得またはSQLの実行に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException エンティティ一覧が null の場合
      */
-    public void update(
+    public int updateBatch(
             final String                queryId,
-            final FRDatabaseParam...    parameters
+            final Collection<?>         entities
             ) {
 
-        update(dbXmlId, queryId, parameters);
+        return updateBatch(dbXmlId, queryId, entities);
 
     }
 
 
     /**
-     * 指定した更新SQLクエリを実行する。
+     * 指定した更新SQLクエリをエンティティ一覧の要素ごとに一括で実行する。<br>
+     * <br>
+     * 全要素を 1 つのトランザクションで実行する。<br>
+     * {@link #setBatchChunkSize(int)} が設定されている場合はその件数ごとにコミットする。<br>
      *
      * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
-     * @param parameters    更新に利用するパラメータ
+     * @param entities      更新に利用するエンティティ一覧
+     * @return 更新した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得またはSQLの実行に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException エンティティ一覧が null の場合
      */
-    public void update(
+    public int updateBatch(
             final int                   xmlResId,
             final String                queryId,
-            final FRDatabaseParam...    parameters
+            final Collection<?>         entities
             ) {
 
-        // 更新SQLを実行する
-        processUpdatingQuery(
+        // 更新SQLを一括で実行する
+        return processUpdatingBatch(
                 xmlResId,
                 queryId,
-                SQLQueryType.UPDATE,
-                parameters
+                new SQLQueryType[] {
+                        SQLQueryType.UPDATE,
+                },
+                entities
                 );
 
     }
 
 
     /**
-     * 指定した削除SQLクエリを実行する。
+     * 指定した削除SQLクエリをエンティティ一覧の要素ごとに一括で実行する。<br>
+     * <br>
+     * 全要素を 1 つのトランザクションで実行する。<br>
+     * {@link #setBatchChunkSize(int)} が設定されている場合はその件数ごとにコミットする。<br>
      *
      * @param queryId       実行するクエリのID
-     * @param entity        削除に利用するエンティティ
+     * @param entities      削除に利用するエンティティ一覧
+     * @return 削除した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得またはSQLの実行に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException エンティティ一覧が null の場合
      */
-    public void delete(
+    public int deleteBatch(
             final String                queryId,
-            final Object                entity
+            final Collection<?>         entities
             ) {
 
-        delete(dbXmlId, queryId, entity);
+        return deleteBatch(dbXmlId, queryId, entities);
 
     }
 
 
     /**
-     * 指定した削除SQLクエリを実行する。
+     * 指定した削除SQLクエリをエンティティ一覧の要素ごとに一括で実行する。<br>
+     * <br>
+     * 全要素を 1 つのトランザクションで実行する。<br>
+     * {@link #setBatchChunkSize(int)} が設定されている場合はその件数ごとにコミットする。<br>
      *
      * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
-     * @param entity        削除に利用するエンティティ
+     * @param entities      削除に利用するエンティティ一覧
+     * @return 削除した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得またはSQLの実行に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException エンティティ一覧が null の場合
      */
-    public void delete(
+    public int deleteBatch(
             final int                   xmlResId,
             final String                queryId,
-            final Object                entity
+            final Collection<?>         entities
             ) {
 
-        // 削除SQLを実行する
-        processUpdatingQuery(
+        // 削除SQLを一括で実行する
+        return processUpdatingBatch(
                 xmlResId,
                 queryId,
                 new SQLQueryType[] {
                         SQLQueryType.DELETE,
                         SQLQueryType.DROP,
                 },
-                FRDatabaseUtils.createNameValuePairs(entity)
+                entities
                 );
 
     }
 
 
     /**
-     * 指定した削除SQLクエリを実行する。
+     * 指定したUPSERT SQLクエリをエンティティ一覧の要素ごとに一括で実行する。<br>
+     * <br>
+     * 全要素を 1 つのトランザクションで実行する。<br>
+     * {@link #setBatchChunkSize(int)} が設定されている場合はその件数ごとにコミットする。<br>
+     * 競合時の処理は {@link #upsert(int, String, Object)} と同じ。<br>
+     * {@code replace="true"} 属性がない場合は、既存行を削除せずに更新する。<br>
      *
      * @param queryId       実行するクエリのID
-     * @param parameters    削除に利用するパラメータ
+     * @param entities      追加または更新に利用するエンティティ一覧
+     * @return 追加または更新した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得またはSQLの実行に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException エンティティ一覧が null の場合
      */
-    public void delete(
+    public int upsertBatch(
             final String                queryId,
-            final FRDatabaseParam...    parameters
+            final Collection<?>         entities
             ) {
 
-        delete(dbXmlId, queryId, parameters);
+        return upsertBatch(dbXmlId, queryId, entities);
 
     }
 
 
     /**
-     * 指定した削除SQLクエリを実行する。
+     * 指定したUPSERT SQLクエリをエンティティ一覧の要素ごとに一括で実行する。<br>
+     * <br>
+     * 全要素を 1 つのトランザクションで実行する。<br>
+     * {@link #setBatchChunkSize(int)} が設定されている場合はその件数ごとにコミットする。<br>
+     * 競合時の処理は {@link #upsert(int, String, Object)} と同じ。<br>
+     * {@code replace="true"} 属性がない場合は、既存行を削除せずに更新する。<br>
      *
      * @param xmlResId      クエリが定義されたXMLのリソースID
      * @param queryId       実行するクエリのID
-     * @param parameters    削除に利用するパラメータ
+     * @param entities      追加または更新に利用するエンティティ一覧
+     * @return 追加または更新した行数
      * @throws NotFoundException        XML取得に失敗した場合
-     * @throws IllegalStateException    クエリ取得に失敗した場合
+     * @throws IllegalStateException    クエリ取得またはSQLの実行に失敗した場合
+     * @throws IllegalArgumentException クエリIDが null または長さが 0 の場合
+     * @throws IllegalArgumentException エンティティ一覧が null の場合
      */
-    public void delete(
+    public int upsertBatch(
             final int                   xmlResId,
             final String                queryId,
-            final FRDatabaseParam...    parameters
+            final Collection<?>         entities
             ) {
 
-        // 削除SQLを実行する
-        processUpdatingQuery(
+        // UPSERT SQLを一括で実行する
+        return processUpdatingBatch(
                 xmlResId,
                 queryId,
                 new SQLQueryType[] {
-                        SQLQueryType.DELETE,
-                        SQLQueryType.DROP,
+                        SQLQueryType.UPSERT,
                 },
-                parameters
+                entities
                 );
 
     }
@@ -2117,13 +3319,61 @@ public class FRDatabaseSqlMapper {
 
 
 
+    /**
+     * 検索結果をカーソルから読み込む処理。<br>
+     * <br>
+     * デフォルトでは 1 カラムの検索結果のみを読み込み対象とする。<br>
+     *
+     * @param <R> 読み込み結果の型
+     * @author Kou
+     *
+     */
+    private abstract static class ResultReader<R> {
+
+
+        /**
+         * 結果があるカーソルのカラム構成を確認する。
+         *
+         * @param cursor 確認するカーソル
+         * @throws IllegalStateException カラムが 1 以外の場合
+         */
+        void checkColumns(
+                final Cursor    cursor
+                ) {
+
+            // カラムが 1 以外の場合は例外
+            if (cursor.getColumnCount() != 1) {
+
+                throw new IllegalStateException(ERROR_COLUMN_EXCLUDING_ONE);
+
+            }
+
+        }
+
+
+        /**
+         * 先頭行へ移動済みのカーソルから指定行数分の値を読み込む。
+         *
+         * @param cursor    読み込み元カーソル
+         * @param count     読み込む行数
+         * @return 読み込み結果
+         */
+        abstract R read(
+                final Cursor    cursor,
+                final int       count
+                );
+
+
+    }
+
+
     /**
      * SQLクエリ種別。
      *
      * @author Kou
      *
      */
-    private static enum SQLQueryType {
+    static enum SQLQueryType {
 
 
         /**
@@ -2151,6 +3401,11 @@ public class FRDatabaseSqlMapper {
          */
         DROP("DROP"),
 
+        /**
+         * UPSERT文 (重複時に更新するINSERT文)
+         */
+        UPSERT("UPSERT"),
+
         /**
          * プライマリキー選択
          */
@@ -2198,6 +3453,7 @@ public class FRDatabaseSqlMapper {
             queryTypes.put(UPDATE.getName(), UPDATE);
             queryTypes.put(DELETE.getName(), DELETE);
             queryTypes.put(DROP.getName(), DROP);
+            queryTypes.put(UPSERT.getName(), UPSERT);
 
             // SQLクエリ内部種別名をキーにしてSQLクエリ種別を追加する
             queryInnerTypes.put(SELECT_KEY.getName(), SELECT_KEY);
@@ -2478,12 +3734,37 @@ public class FRDatabaseSqlMapper {
          */
         static final String     ATTR_COMPARE_VALUE  = "compareValue";
 
+        /**
+         * クエリ属性名 : 複数行INSERT文で一括実行するかどうか
+         */
+        static final String     ATTR_MULTI_ROW      = "multiRow";
+
+        /**
+         * クエリ属性名 : UPSERT文の競合対象カラム一覧
+         */
+        static final String     ATTR_CONFLICT_TARGET = "conflictTarget";
+
+        /**
+         * クエリ属性名 : UPSERT文を INSERT OR REPLACE で置換するかどうか
+         */
+        static final String     ATTR_REPLACE        = "replace";
+
+
+
+        /**
+         * SQLトークン : 参照変数の開始と終了を表すトークン
+         */
+        static final String     TOKEN_VARIABLE          = "#";
 
+        /**
+         * SQLトークン : バインド変数
+         */
+        static final String     TOKEN_BIND              = "?";
 
         /**
-         * SQL内にある参照変数名のフォーマット
+         * SQL値 : null
          */
-        static final String     FORMAT_VARIABLE_NAME    = "#(%s)#";
+        static final String     SQL_NULL                = "null";
 
         /**
          * SQL文字列値のフォーマット
@@ -2507,19 +3788,25 @@ public class FRDatabaseSqlMapper {
         /**
          * クエリ種別
          */
-        private SQLQueryType                queryType;
+        private final SQLQueryType          queryType;
 
         /**
          * 属性一覧
          */
-        private final Map<String, String>   queryAttributes =
-            new HashMap<String, String>();
+        private final Map<String, String>   queryAttributes;
 
         /**
          * 実行SQLデータ
          */
         private StringBuilder               querySql    = new StringBuilder();
 
+        /**
+         * バインド値一覧<br>
+         * <br>
+         * 実行SQLデータ内のバインド変数の出現順に並んだ値
+         */
+        private final List<Object>          queryBindArgs = new ArrayList<Object>();
+
         /**
          * 実行サブクエリ一覧<br>
          * <br>
@@ -2532,6 +3819,11 @@ public class FRDatabaseSqlMapper {
          */
         private boolean                     queryLastSqlKeyword;
 
+        /**
+         * 数値の変数値をバインド変数ではなく数値リテラルとして追加するかどうか
+         */
+        private boolean                     queryNumberLiteral;
+
 
         /**
          * SQLキーワードテーブルを作成する
@@ -2571,43 +3863,56 @@ public class FRDatabaseSqlMapper {
 
 
         /**
-         * クエリ種別を設定する。
+         * 指定されたSQL文の末尾の文終端 (;) と空白を除去する。
          *
-         * @param type クエリ種別
+         * @param sql 除去するSQL文
+         * @return 末尾の文終端と空白を除去したSQL文
          */
-        public void setType(
-                final SQLQueryType  type
+        static String trimStatementEnd(
+                final String    sql
                 ) {
 
-            queryType = type;
+            int     end = sql.length();     // 除去後の終了位置
+
+            // 末尾が文終端または空白の間繰り返す
+            while ((end > 0)
+                    && ((sql.charAt(end - 1) == ';') || Character.isWhitespace(sql.charAt(end - 1)))) {
+
+                end--;
+
+            }
+
+            // 除去したSQL文を返す
+            return sql.substring(0, end);
 
         }
 
 
         /**
-         * クエリ種別を取得する。
+         * SQLクエリデータを作成する。
          *
-         * @return クエリ種別
+         * @param type          クエリ種別
+         * @param attributes    属性一覧
          */
-        public SQLQueryType getType() {
+        SQLQuery(
+                final SQLQueryType          type,
+                final Map<String, String>   attributes
+                ) {
 
-            return queryType;
+            queryType       = type;
+            queryAttributes = attributes;
 
         }
 
 
         /**
-         * 指定した名前の属性値を設定する。
+         * クエリ種別を取得する。
          *
-         * @param name  属性名
-         * @param value 属性値
+         * @return クエリ種別
          */
-        public void setAttributeValue(
-                final String    name,
-                final String    value
-                ) {
+        public SQLQueryType getType() {
 
-            queryAttributes.put(name, value);
+            return queryType;
 
         }
 
@@ -2652,17 +3957,24 @@ public class FRDatabaseSqlMapper {
 
 
         /**
-         * 指定したパラメータマップにある変数を全て置換する。
+         * バインド値一覧を取得する。
          *
-         * @param parametersMap 置換するパラメータマップ
+         * @return バインド値一覧
          */
-        public void replaceVariables(
-                final Map<String, Object>   parametersMap
-                ) {
+        public List<Object> getBindArgs() {
+
+            return queryBindArgs;
+
+        }
 
-            querySql = new StringBuilder(
-                    replaceVariableName(querySql.toString().trim(), parametersMap)
-                    );
+
+        /**
+         * 実行SQLテキストの前後の空白を除去する。
+         *
+         */
+        public void trimSql() {
+
+            querySql = new StringBuilder(querySql.toString().trim());
 
         }
 
@@ -2693,6 +4005,35 @@ public class FRDatabaseSqlMapper {
         }
 
 
+        /**
+         * 数値の変数値を数値リテラルとして追加するかどうかを設定する。<br>
+         * <br>
+         * 参照用SQLのバインド値は文字列としてしか設定できないため、<br>
+         * 数値として比較させる場合に有効にする。<br>
+         *
+         * @param enable 数値リテラルとして追加する場合は true
+         */
+        public void setNumberLiteralEnabled(
+                final boolean   enable
+                ) {
+
+            queryNumberLiteral = enable;
+
+        }
+
+
+        /**
+         * 数値の変数値を数値リテラルとして追加するかどうかを取得する。
+         *
+         * @return 数値リテラルとして追加する場合は true
+         */
+        public boolean isNumberLiteralEnabled() {
+
+            return queryNumberLiteral;
+
+        }
+
+
     }
 
 
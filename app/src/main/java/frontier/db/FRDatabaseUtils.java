@@ -15,22 +15,20 @@
  */
 package frontier.db;
 
-import java.lang.reflect.Method;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 import frontier.db.ConvertUtils.DataConvertType;
 import frontier.db.ConvertUtils.DateFormatType;
-import frontier.db.FRDatabaseSqlMapper.SQLQuery;
 
 
 
@@ -53,11 +51,6 @@ public final class FRDatabaseUtils {
      */
     private static final int            FLAG_FALSE  = 0;
 
-    /**
-     * null値の文字列表現
-     */
-    private static final String         SQL_VALUE_NULL          = "null";
-
     /**
      * システムテーブル名一覧
      */
@@ -80,14 +73,6 @@ public final class FRDatabaseUtils {
      */
     private static final String         SQL_EXISTS_STRING_TRUE  = "'1'";
 
-    /**
-     * UPDATE分のカラムと値のフォーマット<br>
-     * <br>
-     * 1$ - カラム名
-     * 2$ - 値
-     */
-    private static final String         SQL_UPDATE_ITEM         = "%1$s = '%2$s'";
-
     /**
      * テーブル名一覧取得SQL
      */
@@ -102,14 +87,6 @@ public final class FRDatabaseUtils {
     private static final String         SQL_TABLE_RECORD_COUNT  =
         "SELECT COUNT(ROWID) FROM %1$s";
 
-    /**
-     * テーブルROWID一覧取得SQL<br>
-     * <br>
-     * 1$ - テーブル名<br>
-     */
-    private static final String         SQL_TABLE_ROWID_LIST    =
-        "SELECT ROWID FROM %1$s";
-
     /**
      * テーブルカラム名一覧取得SQL<br>
      * <br>
@@ -121,31 +98,136 @@ public final class FRDatabaseUtils {
     /**
      * テーブルレコード一覧取得SQL<br>
      * <br>
+     * 処理済みのROWIDをバインド値として指定する。<br>
      * 1$ - カラム名を {@link #SQL_COLUMN_TOKEN} で連結した文字列<br>
      * 2$ - テーブル名<br>
      */
     private static final String         SQL_TABLE_RECORD_LIST   =
-        "SELECT ROWID, %1$s FROM %2$s";
+        "SELECT ROWID, %1$s FROM %2$s WHERE ROWID > ? ORDER BY ROWID";
 
     /**
-     * テーブル内容コピーSQL<br>
+     * 新しいデータベースへ接続する古いデータベースの別名
+     */
+    private static final String         SQL_OLD_DATABASE_ALIAS  = "frontier_old";
+
+    /**
+     * 古いデータベース接続SQL<br>
+     * <br>
+     * 古いデータベースのファイルパスをバインド値として指定する。<br>
+     */
+    private static final String         SQL_ATTACH_OLD_DATABASE =
+        "ATTACH DATABASE ? AS " + SQL_OLD_DATABASE_ALIAS;
+
+    /**
+     * 古いデータベース切断SQL
+     */
+    private static final String         SQL_DETACH_OLD_DATABASE =
+        "DETACH DATABASE " + SQL_OLD_DATABASE_ALIAS;
+
+    /**
+     * 古いデータベースからのテーブル内容一括コピーSQL<br>
      * <br>
+     * 対象とするROWIDの範囲 (下限を含まない, 上限を含む) をバインド値として指定する。<br>
      * 1$ - コピー先テーブル名<br>
      * 2$ - コピーするカラム名を {@link #SQL_COLUMN_TOKEN} で連結した文字列<br>
-     * 3$ - コピーする値を {@link #SQL_COLUMN_TOKEN} で連結した文字列<br>
+     * 3$ - コピー元テーブル名<br>
+     */
+    private static final String         SQL_TABLE_COPY_SELECT   =
+        "INSERT INTO main.%1$s (%2$s) SELECT %2$s FROM " + SQL_OLD_DATABASE_ALIAS + ".%3$s WHERE ROWID > ? AND ROWID <= ? ORDER BY ROWID";
+
+    /**
+     * 古いデータベースからのテーブル内容一括更新SQL<br>
+     * <br>
+     * 対象とするROWIDの範囲 (下限を含まない, 上限を含む) をバインド値として指定する。<br>
+     * 1$ - 更新先テーブル名<br>
+     * 2$ - {@link #SQL_UPDATE_ITEM_SELECT} を {@link #SQL_COLUMN_TOKEN} で連結した文字列<br>
+     * 3$ - 更新元テーブル名<br>
+     */
+    private static final String         SQL_TABLE_UPDATE_SELECT =
+        "UPDATE main.%1$s SET %2$s WHERE ROWID IN (SELECT ROWID FROM " + SQL_OLD_DATABASE_ALIAS
+        + ".%3$s WHERE ROWID > ? AND ROWID <= ?)";
+
+    /**
+     * 古いデータベースの次の処理単位の最後のROWID取得SQL<br>
+     * <br>
+     * 処理済みのROWIDをバインド値として指定する。対象レコードがない場合は処理済みのROWIDを返す。<br>
+     * 1$ - テーブル名<br>
+     * 2$ - 処理単位のレコード数<br>
+     */
+    private static final String         SQL_CHUNK_LAST_ROWID    =
+        "SELECT IFNULL(MAX(r), ?1) FROM (SELECT ROWID AS r FROM " + SQL_OLD_DATABASE_ALIAS
+        + ".%1$s WHERE ROWID > ?1 ORDER BY ROWID LIMIT %2$d)";
+
+    /**
+     * 新しいデータベースの最大ROWID取得SQL<br>
+     * <br>
+     * 1$ - テーブル名<br>
+     */
+    private static final String         SQL_TABLE_MAX_ROWID     =
+        "SELECT IFNULL(MAX(ROWID), 0) FROM main.%1$s";
+
+    /**
+     * 直前の文で変更したレコード数取得SQL
+     */
+    private static final String         SQL_CHANGES             = "SELECT changes()";
+
+    /**
+     * データベースのページ数取得SQL
+     */
+    private static final String         SQL_PAGE_COUNT          = "PRAGMA page_count";
+
+    /**
+     * データベースのページサイズ取得SQL
+     */
+    private static final String         SQL_PAGE_SIZE           = "PRAGMA page_size";
+
+    /**
+     * 進捗を記録してコミットするレコード数
+     */
+    private static final int            CHECKPOINT_RECORD_COUNT = 5000;
+
+    /**
+     * 一括更新SQLのカラムと値のフォーマット<br>
+     * <br>
+     * 1$ - カラム名<br>
+     * 2$ - 更新先テーブル名<br>
+     * 3$ - 更新元テーブル名<br>
+     */
+    private static final String         SQL_UPDATE_ITEM_SELECT  =
+        "%1$s = (SELECT o.%1$s FROM " + SQL_OLD_DATABASE_ALIAS + ".%3$s AS o WHERE o.ROWID = %2$s.ROWID)";
+
+    /**
+     * 古いデータベースからのレコード追加SQL<br>
+     * <br>
+     * 追加するレコードのROWIDをバインド値として指定する。<br>
+     * 1$ - 追加先テーブル名<br>
+     * 2$ - 追加するカラム名を {@link #SQL_COLUMN_TOKEN} で連結した文字列<br>
+     * 3$ - 追加元テーブル名<br>
      */
-    private static final String         SQL_TABLE_COPY          =
-        "INSERT INTO %1$s (%2$s) VALUES (%3$s)";
+    private static final String         SQL_TABLE_COPY_ROW      =
+        "INSERT INTO main.%1$s (%2$s) SELECT %2$s FROM " + SQL_OLD_DATABASE_ALIAS + ".%3$s WHERE ROWID = ?";
 
     /**
-     * テーブル内容更新SQL<br>
+     * 古いデータベースからのレコード更新SQL<br>
      * <br>
-     * 1$ - 更新先テーブル名
-     * 2$ - 更新するカラム名と値を {@link #SQL_COLUMN_TOKEN} で連結した文字列<br>
-     * 3$ - 更新するレコードのROWID
+     * 更新するレコードのROWIDを 1 番目のバインド値として指定する。<br>
+     * 1$ - 更新先テーブル名<br>
+     * 2$ - {@link #SQL_UPDATE_ITEM_ROW} を {@link #SQL_COLUMN_TOKEN} で連結した文字列<br>
      */
-    private static final String         SQL_TABLE_UPDATE        =
-        "UPDATE %1$s SET %2$s WHERE ROWID = %3$s";
+    private static final String         SQL_TABLE_UPDATE_ROW    =
+        "UPDATE main.%1$s SET %2$s WHERE ROWID = ?1";
+
+    /**
+     * レコード更新SQLのカラムと値のフォーマット<br>
+     * <br>
+     * 保存するかどうかのバインド値が 0 の場合は現在の値のままとする。<br>
+     * 1$ - カラム名<br>
+     * 2$ - 保存するかどうかのバインド値の番号<br>
+     * 3$ - 更新元テーブル名<br>
+     */
+    private static final String         SQL_UPDATE_ITEM_ROW     =
+        "%1$s = CASE WHEN ?%2$d THEN (SELECT o.%1$s FROM " + SQL_OLD_DATABASE_ALIAS
+        + ".%3$s AS o WHERE o.ROWID = ?1) ELSE %1$s END";
 
     /**
      * データベースフォーマット変換処理一覧<br>
@@ -196,36 +278,6 @@ public final class FRDatabaseUtils {
         DATABASE_CONVERSIONS.put(Timestamp.class, dateConversion);
 
 
-        // String型の処理を定義する
-        DATABASE_CONVERSIONS.put(String.class, new DatabaseFormatConvertible() {
-
-            @Override
-            public Object convertDatabaseFormat(
-                    final Object value
-                    ) {
-
-                // シングルクォーテーションをエスケープして返す
-                return StringUtils.replace((String)value, "'", "''");
-
-            }
-
-        });
-
-        // CharSequence型の処理を定義する
-        DATABASE_CONVERSIONS.put(CharSequence.class, new DatabaseFormatConvertible() {
-
-            @Override
-            public Object convertDatabaseFormat(
-                    final Object value
-                    ) {
-
-                // シングルクォーテーションをエスケープして返す
-                return StringUtils.replace(((CharSequence)value).toString(), "'", "''");
-
-            }
-
-        });
-
         // Boolean型の処理を定義する
         DATABASE_CONVERSIONS.put(Boolean.class, new DatabaseFormatConvertible() {
 
@@ -433,6 +485,21 @@ public final class FRDatabaseUtils {
     }
 
 
+    /**
+     * 指定された型のデータベース形式への変換処理を取得する。
+     *
+     * @param type 変換元の型
+     * @return 変換処理。変換が不要な型の場合は null
+     */
+    static DatabaseFormatConvertible getDatabaseConversion(
+            final Class<?>  type
+            ) {
+
+        return DATABASE_CONVERSIONS.get(type);
+
+    }
+
+
     /**
      * 指定されたJavaBeanクラスから名称値パラメータ一覧を取得する。
      *
@@ -464,30 +531,86 @@ public final class FRDatabaseUtils {
 
         try {
 
-            // 返却名称値一覧を作成する
-            final List<FRDatabaseParam>     retPairs = new ArrayList<FRDatabaseParam>();
+            // 指定JavaBeanクラスのプロパティ一覧を取得する
+            final BeanProperty[]        properties = BeanProperty.getProperties(bean.getClass());
+            final FRDatabaseParam[]     retPairs   = new FRDatabaseParam[properties.length];
+
+            // 全プロパティ分処理をする
+            for (int i = 0; i < properties.length; i++) {
 
-            // 指定JavaBeanクラスのgetterメソッド一覧を取得する
-            final List<Method>              methods = ReflectUtils.getGetterMethods(bean.getClass());
+                // getterメソッドから取得した値を名称値へ変換して設定する
+                retPairs[i] = new FRDatabaseParam(
+                        properties[i].getName(),
+                        properties[i].getValue(bean)
+                        );
 
-            // 全getterメソッド分処理をする
-            for (final Method method : methods) {
+            }
 
-                // getterメソッドから値を取得する
-                final Object    value = ReflectUtils.invokeInstancePublicMethod(bean, method.getName());
+            // 作成した返却名称値一覧を返す
+            return retPairs;
 
-                // 名称値へ変換して設定する
-                retPairs.add(
-                        new FRDatabaseParam(
-                                ReflectUtils.toBeanFieldName(method.getName()),
-                                value
-                                )
-                        );
+        } catch (final ReflectException e) {
+
+            e.printStackTrace();
+
+        }
+
+        // 取得パラメータなし
+        return null;
+
+    }
+
+
+    /**
+     * 指定されたJavaBeanクラスから指定された名前のプロパティのみの名称値パラメータ一覧を取得する。<br>
+     * <br>
+     * 指定された名前以外のプロパティはgetterメソッドを実行しない。<br>
+     *
+     * @param bean  JavaBeanクラスインスタンス
+     * @param names 取得するプロパティ名一覧
+     * @return 指定されたJavaBeanクラスの名称値パラメータ一覧
+     */
+    static FRDatabaseParam[] createNameValuePairs(
+            final Object        bean,
+            final Set<String>   names
+            ) {
+
+        // パラメータが null または名称値型の場合
+        if ((bean == null) || (bean instanceof FRDatabaseParam)) {
+
+            // 全プロパティの名称値パラメータ一覧を返す
+            return createNameValuePairs(bean);
+
+        }
+
+
+        try {
+
+            // 指定JavaBeanクラスのプロパティ一覧を取得する
+            final BeanProperty[]            properties = BeanProperty.getProperties(bean.getClass());
+            final List<FRDatabaseParam>     retPairs   = new ArrayList<FRDatabaseParam>(names.size());
+
+            // 全プロパティ分処理をする
+            for (final BeanProperty property : properties) {
+
+                // 参照されないプロパティの場合
+                if (!names.contains(property.getName())) {
+
+                    // 次のプロパティへ
+                    continue;
+
+                }
+
+                // getterメソッドから取得した値を名称値へ変換して追加する
+                retPairs.add(new FRDatabaseParam(
+                        property.getName(),
+                        property.getValue(bean)
+                        ));
 
             }
 
             // 作成した返却名称値一覧を返す
-            return retPairs.toArray(new FRDatabaseParam[]{});
+            return retPairs.toArray(new FRDatabaseParam[retPairs.size()]);
 
         } catch (final ReflectException e) {
 
@@ -511,7 +634,39 @@ public final class FRDatabaseUtils {
             final Object    bean
             ) {
 
-        return createSearchMap(createNameValuePairs(bean));
+        // パラメータが null または名称値型の場合
+        if ((bean == null) || (bean instanceof FRDatabaseParam)) {
+
+            // 名称値から検索テーブルを作成する
+            return createSearchMap(createNameValuePairs(bean));
+
+        }
+
+
+        try {
+
+            final BeanProperty[]        properties   = BeanProperty.getProperties(bean.getClass());
+            final Map<String, Object>   retSearchMap = new HashMap<String, Object>();
+
+            // 全プロパティ分処理をする
+            for (final BeanProperty property : properties) {
+
+                // データベース形式の値を追加する
+                retSearchMap.put(property.getName(), property.getDatabaseValue(bean));
+
+            }
+
+            // 作成した検索テーブルを返す
+            return retSearchMap;
+
+        } catch (final ReflectException e) {
+
+            e.printStackTrace();
+
+        }
+
+        // 空の検索テーブルを返す
+        return new HashMap<String, Object>();
 
     }
 
@@ -716,81 +871,305 @@ public final class FRDatabaseUtils {
 
 
     /**
-     * 指定されたデータベーステーブルのROWID一覧を取得する。
+     * 接続した古いデータベースのテーブル内容を、新しいデータベースへ一括コピーする。
      *
-     * @param db    ROWID一覧を取得するデータベース
-     * @param table ROWID一覧を取得するテーブル情報
-     * @return 指定されたデータベーステーブルのROWID一覧
+     * @param newDB         コピー先のデータベース
+     * @param journal       進捗記録
+     * @param reporter      進捗集計処理
+     * @param oldTable      コピー元のテーブル情報
+     * @param newTable      コピー先のテーブル情報
+     * @param columnJoinStr コピーするカラム名を {@link #SQL_COLUMN_TOKEN} で連結した文字列
      */
-    private static Set<String> getDatabaseTableRowIds(
-            final SQLiteDatabase    db,
-            final FRDatabaseTable   table
+    private static void copyTableBySelect(
+            final SQLiteDatabase        newDB,
+            final UpgradeJournal        journal,
+            final MigrationReporter     reporter,
+            final FRDatabaseTable       oldTable,
+            final FRDatabaseTable       newTable,
+            final String                columnJoinStr
             ) {
 
-        final Set<String>       rowIds  = new HashSet<String>();    // ROWID一覧
-        Cursor                  cursor  = null;                     // カーソル情報
+        // 処理単位ごとにテーブル内容をコピーする
+        processTableByChunk(
+                newDB,
+                journal,
+                reporter,
+                oldTable.getName(),
+                String.format(
+                    SQL_TABLE_COPY_SELECT,
+                    newTable.getName(),
+                    columnJoinStr,
+                    oldTable.getName()
+                    )
+                );
+
+    }
+
+
+    /**
+     * 接続した古いデータベースのテーブル内容で、新しいデータベースの同じROWIDのレコードを一括更新する。<br>
+     * <br>
+     * レコード単位の保存判定処理がない場合の {@link FRDatabaseSavable#RESULT_UPDATE} と同じ結果となる。<br>
+     *
+     * @param newDB         更新先のデータベース
+     * @param journal       進捗記録
+     * @param reporter      進捗集計処理
+     * @param oldTable      更新元のテーブル情報
+     * @param newTable      更新先のテーブル情報
+     * @param columns       更新するカラム名一覧
+     * @param savable       保存判定処理ハンドラ
+     */
+    private static void updateTableBySelect(
+            final SQLiteDatabase        newDB,
+            final UpgradeJournal        journal,
+            final MigrationReporter     reporter,
+            final FRDatabaseTable       oldTable,
+            final FRDatabaseTable       newTable,
+            final List<String>          columns,
+            final FRDatabaseSavable     savable
+            ) {
+
+        final List<String>      items = new ArrayList<String>();    // 更新するカラムと値
+
+
+        // 対象カラム分繰り返し
+        for (final String columnName : columns) {
+
+            // 保存非対象カラムの場合
+            if (savable.isIgnoreColumn(oldTable.getName(), columnName)) {
+
+                // 次のカラムへ
+                continue;
+
+            }
+
+            // 古いデータベースの値で更新する
+            items.add(String.format(SQL_UPDATE_ITEM_SELECT, columnName, newTable.getName(), oldTable.getName()));
+
+        }
+
+        // 更新するカラムがない場合
+        if (items.isEmpty()) {
+
+            // 処理終了
+            return;
+
+        }
+
+        // 処理単位ごとに新しいデータベースのレコードを一括更新する
+        processTableByChunk(
+                newDB,
+                journal,
+                reporter,
+                oldTable.getName(),
+                String.format(
+                    SQL_TABLE_UPDATE_SELECT,
+                    newTable.getName(),
+                    StringUtils.join(items.toArray(new String[items.size()]), SQL_COLUMN_TOKEN),
+                    oldTable.getName()
+                    )
+                );
+
+    }
+
+
+    /**
+     * 古いデータベースのテーブルをROWID順に {@link #CHECKPOINT_RECORD_COUNT} 件ずつ処理する。<br>
+     * <br>
+     * 処理単位ごとにトランザクションをコミットし、処理済みのROWIDを進捗記録へ保存する。<br>
+     * 進捗記録に処理済みのROWIDがある場合は、その続きから処理する。<br>
+     *
+     * @param newDB         処理先のデータベース
+     * @param journal       進捗記録
+     * @param reporter      進捗集計処理
+     * @param oldTableName  古いデータベースのテーブル名
+     * @param sql           処理単位のROWIDの範囲 (下限を含まない, 上限を含む) をバインド値とするSQL
+     */
+    private static void processTableByChunk(
+            final SQLiteDatabase        newDB,
+            final UpgradeJournal        journal,
+            final MigrationReporter     reporter,
+            final String                oldTableName,
+            final String                sql
+            ) {
+
+        final SQLiteStatement   lastRowIdStatement = newDB.compileStatement(
+                String.format(SQL_CHUNK_LAST_ROWID, oldTableName, CHECKPOINT_RECORD_COUNT)
+                );
+        SQLiteStatement         chunkStatement     = null;
+        SQLiteStatement         changesStatement   = null;
+        long                    lastRowId          = journal.getLastRowId(oldTableName);
 
 
         try {
 
-            // テーブルROWID一覧取得SQLを実行する
-            cursor = db.rawQuery(
-                    String.format(SQL_TABLE_ROWID_LIST, table.getName()),
-                    null
-                    );
+            chunkStatement   = newDB.compileStatement(sql);
+            changesStatement = newDB.compileStatement(SQL_CHANGES);
 
-            // カーソルを先頭に移動する
-            if (!cursor.moveToFirst()) {
+            // 全レコード分繰り返す
+            while (true) {
 
-                // 失敗
-                return rowIds;
+                // 次の処理単位の最後のROWIDを取得する
+                lastRowIdStatement.bindLong(1, lastRowId);
+                final long  chunkRowId = lastRowIdStatement.simpleQueryForLong();
+
+                // 未処理のレコードがない場合
+                if (chunkRowId == lastRowId) {
+
+                    break;
+
+                }
+
+                final long  changes;    // 処理単位で保存したレコード数
+
+                newDB.beginTransaction();
+
+                try {
+
+                    // 処理単位のレコードを処理する
+                    chunkStatement.bindLong(1, lastRowId);
+                    chunkStatement.bindLong(2, chunkRowId);
+                    chunkStatement.execute();
+
+                    // 保存したレコード数を集計する
+                    changes = changesStatement.simpleQueryForLong();
+
+                    // 進捗を記録する
+                    journal.save(oldTableName, chunkRowId, 0, false);
+
+                    newDB.setTransactionSuccessful();
+
+                } finally {
+
+                    newDB.endTransaction();
+
+                }
+
+                // 進捗を通知する
+                reporter.addCopied(changes);
+                reporter.progress();
+
+                lastRowId = chunkRowId;
 
             }
 
-            // カラム数が 1 以外の場合
-            if (cursor.getColumnCount() != 1) {
+            // テーブルの処理完了を記録する
+            newDB.beginTransaction();
 
-                // 失敗
-                return rowIds;
+            try {
+
+                journal.save(oldTableName, lastRowId, 0, true);
+                newDB.setTransactionSuccessful();
+
+            } finally {
+
+                newDB.endTransaction();
 
             }
 
+        } finally {
 
-            // 全レコード分繰り返す
-            do {
+            // コンパイルした文を閉じる
+            closeStatement(lastRowIdStatement);
+            closeStatement(chunkStatement);
+            closeStatement(changesStatement);
 
-                // ROWID一覧へ追加する
-                rowIds.add(cursor.getString(0));
+        }
 
-            } while (cursor.moveToNext());
+    }
 
 
-            // カーソルを閉じる
-            cursor.close();
-            cursor = null;
+    /**
+     * 接続した古いデータベースから、バインドしたROWIDのレコードを 1 件追加する文をコンパイルする。
+     *
+     * @param newDB         追加先のデータベース
+     * @param oldTable      追加元のテーブル情報
+     * @param newTable      追加先のテーブル情報
+     * @param columnJoinStr 追加するカラム名を {@link #SQL_COLUMN_TOKEN} で連結した文字列
+     * @return コンパイルした文
+     */
+    private static SQLiteStatement compileRecordCopyStatement(
+            final SQLiteDatabase        newDB,
+            final FRDatabaseTable       oldTable,
+            final FRDatabaseTable       newTable,
+            final String                columnJoinStr
+            ) {
 
-        } catch (final Throwable e) {
+        return newDB.compileStatement(
+                String.format(
+                    SQL_TABLE_COPY_ROW,
+                    newTable.getName(),
+                    columnJoinStr,
+                    oldTable.getName()
+                    )
+                );
 
-            e.printStackTrace();
+    }
+
+
+    /**
+     * 接続した古いデータベースの値で、バインドしたROWIDのレコードを 1 件更新する文をコンパイルする。<br>
+     * <br>
+     * 1 番目にROWID、2 番目以降にカラムごとの保存するかどうか (1 または 0) をバインドする。<br>
+     *
+     * @param newDB         更新先のデータベース
+     * @param oldTable      更新元のテーブル情報
+     * @param newTable      更新先のテーブル情報
+     * @param columns       更新するカラム名一覧
+     * @return コンパイルした文。更新するカラムがない場合は null
+     */
+    private static SQLiteStatement compileRecordUpdateStatement(
+            final SQLiteDatabase        newDB,
+            final FRDatabaseTable       oldTable,
+            final FRDatabaseTable       newTable,
+            final List<String>          columns
+            ) {
+
+        // 更新するカラムがない場合
+        if (columns.isEmpty()) {
 
-            // 失敗
             return null;
 
-        } finally {
+        }
 
-            // カーソルがある場合
-            if (cursor != null) {
 
-                // カーソルを閉じる
-                cursor.close();
+        final List<String>      items = new ArrayList<String>();    // 更新するカラムと値
 
-            }
+        // 更新するカラム分繰り返し
+        for (int i = 0; i < columns.size(); i++) {
+
+            // 保存する場合のみ古いデータベースの値で更新する
+            items.add(String.format(SQL_UPDATE_ITEM_ROW, columns.get(i), i + 2, oldTable.getName()));
 
         }
 
+        return newDB.compileStatement(
+                String.format(
+                    SQL_TABLE_UPDATE_ROW,
+                    newTable.getName(),
+                    StringUtils.join(items.toArray(new String[items.size()]), SQL_COLUMN_TOKEN)
+                    )
+                );
 
-        // ROWID一覧情報を返却する
-        return rowIds;
+    }
+
+
+    /**
+     * 指定された文を閉じる。
+     *
+     * @param statement 閉じる文。null の場合は何もしない
+     */
+    private static void closeStatement(
+            final SQLiteStatement   statement
+            ) {
+
+        // 文がある場合
+        if (statement != null) {
+
+            // 文を閉じる
+            statement.close();
+
+        }
 
     }
 
@@ -861,17 +1240,26 @@ public final class FRDatabaseUtils {
 
 
     /**
-     * 古いデータベースのデータ内容を新規データベースへ追加する。
+     * 古いデータベースのデータ内容を新規データベースへ追加する。<br>
+     * <br>
+     * 古いデータベースを新しいデータベースへ接続 (ATTACH) し、テーブル単位で一括コピーする。<br>
+     * 保存判定処理ハンドラにレコード単位の保存判定処理がある場合のみ、1 レコードずつ保存する。<br>
+     * <br>
+     * {@link #CHECKPOINT_RECORD_COUNT} 件ごとにコミットし、進捗を新しいデータベース内に記録する。<br>
+     * 処理が中断された新しいデータベースを指定した場合は、記録した進捗の続きから処理する。<br>
+     * 全テーブルの処理が完了した時点で進捗記録は削除される。<br>
      *
      * @param oldDBPath     古いデータベースのファイルパス
      * @param newDBPath     新しいデータベースのファイルパス
      * @param savable       保存判定処理ハンドラ
+     * @param listener      進捗を通知するリスナー。通知しない場合は null
      * @return 更新が発生した場合は true。処理失敗または更新が発生しなかった場合は false
      */
     static boolean updateDatabase(
-            final String                oldDBPath,
-            final String                newDBPath,
-            final FRDatabaseSavable     savable
+            final String                        oldDBPath,
+            final String                        newDBPath,
+            final FRDatabaseSavable             savable,
+            final FRDatabaseMigrationListener   listener
             ) {
 
         // 引数が不正の場合は例外
@@ -887,6 +1275,14 @@ public final class FRDatabaseUtils {
         SQLiteDatabase      oldDB       = null;     // 古いデータベース
         SQLiteDatabase      newDB       = null;     // 新しいデータベース
         Cursor              oldCursor   = null;     // 古いデータベースの読み込みカーソル
+        boolean             attached    = false;    // 古いデータベースを接続したかどうか
+        UpgradeJournal      journal     = null;     // 進捗記録
+        SQLiteStatement     copyStatement    = null;    // レコード追加用の文
+        SQLiteStatement     updateStatement  = null;    // レコード更新用の文
+        SQLiteStatement     changesStatement = null;    // 変更件数取得用の文
+        TableRowIds         newTableRowIds  = null; // 新しいデータベースのROWID存在判定処理
+        boolean             successful  = false;    // 更新に成功したかどうか
+        final MigrationReporter reporter = new MigrationReporter(listener);    // 進捗集計処理
 
 
         try {
@@ -925,31 +1321,37 @@ public final class FRDatabaseUtils {
 
             }
 
-            // 古いデータベースと新規データベースのテーブル情報を取得する
-            final Map<String, FRDatabaseTable>     oldTablesMap = getDatabaseTablesMap(oldDB);
-            final Map<String, FRDatabaseTable>     newTablesMap = getDatabaseTablesMap(newDB);
+            // 進捗記録を開く
+            journal = UpgradeJournal.open(newDB, oldVersion, oldDBPath);
 
-            // 一覧が取得できなかった場合
-            if ((oldTablesMap == null) || (newTablesMap == null)) {
+            // 記録時から古いデータベースが変更されている場合
+            if (journal == null) {
 
                 // 失敗
                 return false;
 
             }
 
-            // 文字列変換処理ハンドラを取得する
-            final DatabaseFormatConvertible     formatConversion = DATABASE_CONVERSIONS.get(String.class);
+            reporter.setDatabase(oldVersion, newVersion, journal.isResumed());
 
-            // ハンドラが null の場合
-            if (formatConversion == null) {
+            // 古いデータベースと新規データベースのテーブル情報を取得する
+            final Map<String, FRDatabaseTable>     oldTablesMap = getDatabaseTablesMap(oldDB);
+            final Map<String, FRDatabaseTable>     newTablesMap = getDatabaseTablesMap(newDB);
+
+            // 一覧が取得できなかった場合
+            if ((oldTablesMap == null) || (newTablesMap == null)) {
 
-                throw new IllegalStateException("There is not string format conversion.");
+                // 失敗
+                return false;
 
             }
 
+            // 新しいデータベースへ古いデータベースを接続する (トランザクション外で行う必要がある)
+            newDB.execSQL(SQL_ATTACH_OLD_DATABASE, new Object[] {oldDBPath});
+            attached = true;
 
-            // トランザクションを開始する
-            newDB.beginTransaction();
+            // 変更件数取得用の文を作成する
+            changesStatement = newDB.compileStatement(SQL_CHANGES);
 
             // 古いデータベースのテーブル分処理をする
             for (final Map.Entry<String, FRDatabaseTable> entry : oldTablesMap.entrySet()) {
@@ -958,14 +1360,13 @@ public final class FRDatabaseUtils {
                 final FRDatabaseTable   newTable = newTablesMap.get(entry.getKey());
 
                 // 該当テーブルがない場合
+                // または処理済みのテーブルの場合
                 // または古いテーブルにレコードデータがない場合
-                // または保存判定処理ハンドラがない場合で、新しいテーブルにレコードデータがある場合
-                // または保存判定処理ハンドラがある場合で、対象テーブルの保存が可能でない場合
+                // または保存判定処理ハンドラがない場合で、処理開始前の新しいテーブルにレコードデータがある場合
                 if ((newTable == null)
+                    || journal.isDone(entry.getKey())
                     || !entry.getValue().hasRecords()
-                    || ((savable == null) && newTable.hasRecords())
-                    || ((savable != null) && !savable.canSaveTableInner(
-                                                newTable.getName(), oldVersion, newVersion))
+                    || ((savable == null) && newTable.hasRecords() && !journal.isStarted(entry.getKey()))
                     ) {
 
                     // 次のテーブルへ
@@ -976,6 +1377,26 @@ public final class FRDatabaseUtils {
 
                 // 古いデータベースのカラム一覧とレコード一覧を取得する
                 final FRDatabaseTable       oldTable        = entry.getValue();
+
+                // テーブルの処理開始を通知する
+                reporter.startTable(
+                        oldTable.getName(),
+                        oldTable.getRecordCount(),
+                        journal.isStarted(oldTable.getName()),
+                        getDatabaseSize(newDB)
+                        );
+
+                // 保存判定処理ハンドラがある場合で、対象テーブルの保存が可能でない場合
+                if ((savable != null) && !savable.canSaveTableInner(newTable.getName(), oldVersion, newVersion)) {
+
+                    // テーブルの全レコードをスキップする
+                    reporter.addSkipped(oldTable.getRecordCount());
+                    reporter.endTable(getDatabaseSize(newDB));
+
+                    // 次のテーブルへ
+                    continue;
+
+                }
                 final List<String>          insertColumns   = oldTable.getColumns();
 
                 // 新しいデータベースと一致するカラムのみを抽出する
@@ -987,6 +1408,38 @@ public final class FRDatabaseUtils {
                         SQL_COLUMN_TOKEN
                         );
 
+                // 保存判定処理ハンドラがない場合
+                if (savable == null) {
+
+                    // テーブル内容を一括コピーする
+                    copyTableBySelect(newDB, journal, reporter, oldTable, newTable, columnJoinStr);
+                    reporter.endTable(getDatabaseSize(newDB));
+
+                    // 次のテーブルへ
+                    continue;
+
+                }
+
+                // レコード単位の保存判定処理がない場合
+                if (!savable.hasRecordDecision()) {
+
+                    // テーブル内容を一括更新する
+                    updateTableBySelect(newDB, journal, reporter, oldTable, newTable, insertColumns, savable);
+                    reporter.endTable(getDatabaseSize(newDB));
+
+                    // 次のテーブルへ
+                    continue;
+
+                }
+
+
+                // 処理済みのROWIDと、処理開始時の新しいテーブルの最大ROWIDを取得する
+                final long      startRowId  = journal.getLastRowId(oldTable.getName());
+                final long      maxRowId    = journal.getMaxRowId(
+                        oldTable.getName(),
+                        queryLong(newDB, String.format(SQL_TABLE_MAX_ROWID, newTable.getName()))
+                        );
+
                 // カラム取得用のSQL文を作成する
                 final String    columnSelectSql = String.format(
                         SQL_TABLE_RECORD_LIST,
@@ -995,8 +1448,8 @@ public final class FRDatabaseUtils {
                         );
 
 
-                // 古いテーブルと新しいテーブルのレコードを取得する
-                oldCursor = oldDB.rawQuery(columnSelectSql, null);
+                // 古いテーブルの未処理のレコードを取得する
+                oldCursor = oldDB.rawQuery(columnSelectSql, new String[] {Long.toString(startRowId)});
 
 
                 // レコードの先頭へ移動出来ない場合
@@ -1006,220 +1459,219 @@ public final class FRDatabaseUtils {
                     oldCursor.close();
                     oldCursor = null;
 
+                    reporter.endTable(getDatabaseSize(newDB));
+
                     // 次のテーブルへ
                     continue;
 
                 }
 
 
-                // 更新判定処理ハンドラがない場合
-                if (savable == null) {
-
-                    // レコードデータを取得する
-                    do {
+                // 現在のレコードを表すデータを作成する
+                final FRDatabaseRecord  oldRecord = new FRDatabaseRecord(oldCursor);
 
-                        final List<String>  values = new ArrayList<String>();
+                // 更新するカラム名一覧 (保存非対象カラムを除く)
+                final List<String>      updateColumns = new ArrayList<String>();
 
+                // 対象カラム分繰り返し
+                for (final String columnName : insertColumns) {
 
-                        // 対象カラム分繰り返し
-                        for (final String columnName : insertColumns) {
+                    // 保存非対象カラムではない場合
+                    if (!savable.isIgnoreColumn(oldTable.getName(), columnName)) {
 
-                            // レコードデータを文字列形式で追加する
-                            values.add(
-                                    String.format(
-                                            SQLQuery.FORMAT_VALUE_STRING,
-                                            formatConversion.convertDatabaseFormat(
-                                                    oldCursor.getString(oldCursor.getColumnIndex(columnName))
-                                                    )
-                                            )
-                                    );
+                        // 更新するカラムとして追加する
+                        updateColumns.add(columnName);
 
-                        }
+                    }
 
-                        // 新しいデータベースへ古いデータベースの内容をコピーする
-                        newDB.execSQL(
-                                String.format(
-                                    SQL_TABLE_COPY,
-                                    newTable.getName(),
-                                    columnJoinStr,
-                                    StringUtils.join(
-                                            values.toArray(new String[values.size()]),
-                                            SQL_COLUMN_TOKEN)
-                                    )
-                                );
+                }
 
-                    // 次のデータがあれば繰り返し
-                    } while (oldCursor.moveToNext());
+                // 更新するカラムのカーソル上のインデックス一覧
+                final int[]             updateColumnIndexes = new int[updateColumns.size()];
 
-                } else {
+                // 更新するカラム分繰り返し
+                for (int i = 0; i < updateColumnIndexes.length; i++) {
 
-                    // 現在のレコードを表すデータを作成する
-                    final FRDatabaseRecord  oldRecord = new FRDatabaseRecord(oldCursor);
+                    // カラムインデックスを取得する
+                    updateColumnIndexes[i] = oldCursor.getColumnIndex(updateColumns.get(i));
 
-                    // 新しいデータベースのROWID一覧
-                    final Set<String>       newTableRowIds = getDatabaseTableRowIds(newDB, newTable);
+                }
 
+                // テーブル単位でレコード追加用とレコード更新用の文をコンパイルする
+                copyStatement   = compileRecordCopyStatement(newDB, oldTable, newTable, columnJoinStr);
+                updateStatement = compileRecordUpdateStatement(newDB, oldTable, newTable, updateColumns);
 
-                    // レコードデータを取得する
-                    do {
+                int     chunkCount = 0;     // コミット前のレコード数
 
-                        final List<String>  values      = new ArrayList<String>();  // 更新値
+                // トランザクションを開始する
+                newDB.beginTransaction();
 
-                        // レコードの保存が可能な場合
-                        final int   result = savable.canSaveRecord(
-                                oldTable.getName(),
-                                oldRecord,
-                                oldVersion,
-                                newVersion
-                                );
+                // レコードデータを取得する
+                do {
 
-                        // 結果別処理
-                        switch (result) {
+                    // レコードの保存が可能な場合
+                    final int   result = savable.canSaveRecord(
+                            oldTable.getName(),
+                            oldRecord,
+                            oldVersion,
+                            newVersion
+                            );
 
-                        // 保存なし
-                        case FRDatabaseSavable.RESULT_SKIP:
+                    // 結果別処理
+                    switch (result) {
 
-                            // 処理なし
-                            break;
+                    // 保存なし
+                    case FRDatabaseSavable.RESULT_SKIP:
 
+                        // スキップしたレコード数を集計する
+                        reporter.addSkipped(1);
+                        break;
 
-                        // 追加保存
-                        // 更新保存
-                        case FRDatabaseSavable.RESULT_INSERT:
-                        case FRDatabaseSavable.RESULT_UPDATE:
 
-                            // レコード追加保存以外の場合
-                            // または新しいデータベースのROWID一覧に同じROWIDがない場合
-                            if ((result != FRDatabaseSavable.RESULT_INSERT)
-                                || !newTableRowIds.contains(oldCursor.getString(0))
-                                ) {
+                    // 追加保存
+                    // 更新保存
+                    case FRDatabaseSavable.RESULT_INSERT:
+                    case FRDatabaseSavable.RESULT_UPDATE:
 
-                                // 対象カラム分繰り返し
-                                for (final String columnName : insertColumns) {
+                        // レコード追加保存で、新しいデータベースのROWID存在判定処理がない場合
+                        if ((result == FRDatabaseSavable.RESULT_INSERT) && (newTableRowIds == null)) {
 
-                                    // カラムインデックスを取得する
-                                    final int   columnIndex = oldCursor.getColumnIndex(columnName);
+                            // 処理開始時のレコードを対象としたROWID存在判定処理を作成する
+                            newTableRowIds = new TableRowIds(newDB, newTable, maxRowId);
 
-                                    // 保存非対象カラムの場合
-                                    if (!savable.canSaveColumnInner(
-                                            oldTable.getName(),
-                                            columnName,
-                                            oldCursor.getString(columnIndex),
-                                            oldVersion,
-                                            newVersion
-                                            )) {
+                        }
 
-                                        // 次のカラムへ
-                                        continue;
+                        // レコード追加保存以外の場合
+                        // または新しいデータベースに同じROWIDがない場合
+                        if ((result != FRDatabaseSavable.RESULT_INSERT)
+                            || !newTableRowIds.contains(oldCursor.getLong(0))
+                            ) {
 
-                                    }
+                            // 更新するカラムがない場合
+                            if (updateStatement == null) {
 
-                                    // 指定カラムのデータが null の場合
-                                    if (oldCursor.isNull(columnIndex)) {
+                                // スキップしたレコード数を集計する
+                                reporter.addSkipped(1);
+                                break;
 
-                                        // nullの文字列表現を追加する
-                                        values.add(SQL_VALUE_NULL);
+                            }
 
-                                    } else {
+                            // 更新するレコードのROWIDを設定する
+                            updateStatement.bindLong(1, oldCursor.getLong(0));
+
+                            // 更新するカラム分繰り返し
+                            for (int i = 0; i < updateColumnIndexes.length; i++) {
+
+                                // カラムごとに保存するかどうかを設定する
+                                updateStatement.bindLong(
+                                        i + 2,
+                                        savable.canSaveColumnInner(
+                                                oldTable.getName(),
+                                                updateColumns.get(i),
+                                                oldCursor.getString(updateColumnIndexes[i]),
+                                                oldVersion,
+                                                newVersion
+                                                ) ? FLAG_TRUE : FLAG_FALSE
+                                        );
 
-                                        // レコードデータを文字列形式で追加する
-                                        values.add(
-                                                String.format(
-                                                        SQL_UPDATE_ITEM,
-                                                        columnName,
-                                                        formatConversion.convertDatabaseFormat(
-                                                                oldCursor.getString(columnIndex)
-                                                                )
-                                                        )
-                                                );
+                            }
 
-                                    }
+                            // 新しいデータベースのレコードを上書きする
+                            updateStatement.execute();
 
-                                }
+                            // 上書きするレコードがなかった場合
+                            if (changesStatement.simpleQueryForLong() == 0) {
 
-                                // 新しいデータベースのレコードを上書きする
-                                newDB.execSQL(
-                                        String.format(
-                                            SQL_TABLE_UPDATE,
-                                            newTable.getName(),
-                                            StringUtils.join(
-                                                    values.toArray(new String[values.size()]),
-                                                    SQL_COLUMN_TOKEN),
-                                            oldCursor.getString(0)
-                                            )
-                                        );
+                                // スキップしたレコード数を集計する
+                                reporter.addSkipped(1);
 
                             } else {
 
-                                // 対象カラム分繰り返し
-                                for (final String columnName : insertColumns) {
+                                reporter.addCopied(1);
 
-                                    // カラムインデックスを取得する
-                                    final int   columnIndex = oldCursor.getColumnIndex(columnName);
+                            }
 
-                                    // 指定カラムのデータが null の場合
-                                    if (oldCursor.isNull(columnIndex)) {
+                        } else {
 
-                                        // nullの文字列表現を追加する
-                                        values.add(SQL_VALUE_NULL);
+                            // 追加するレコードのROWIDを設定する
+                            copyStatement.bindLong(1, oldCursor.getLong(0));
 
-                                    } else {
+                            // 新しいデータベースへ古いデータベースの内容をコピーする
+                            copyStatement.executeInsert();
+                            reporter.addCopied(1);
 
-                                        // レコードデータを文字列形式で追加する
-                                        values.add(
-                                                String.format(
-                                                        SQLQuery.FORMAT_VALUE_STRING,
-                                                        formatConversion.convertDatabaseFormat(
-                                                                oldCursor.getString(columnIndex)
-                                                                )
-                                                        )
-                                                );
+                        }
+                        break;
 
-                                    }
 
-                                }
+                    // 不正な結果種別
+                    default:
 
-                                // 新しいデータベースへ古いデータベースの内容をコピーする
-                                newDB.execSQL(
-                                        String.format(
-                                            SQL_TABLE_COPY,
-                                            newTable.getName(),
-                                            columnJoinStr,
-                                            StringUtils.join(
-                                                    values.toArray(new String[values.size()]),
-                                                    SQL_COLUMN_TOKEN)
-                                            )
-                                        );
+                        throw new IllegalStateException(
+                                "Illegal result type of 'FRDatabaseSavable' [type = " + result + "]"
+                                );
 
-                            }
-                            break;
+                    }
 
+                    // コミットするレコード数に達した場合
+                    if (++chunkCount >= CHECKPOINT_RECORD_COUNT) {
 
-                        // 不正な結果種別
-                        default:
+                        // 進捗を記録してコミットする
+                        journal.save(oldTable.getName(), oldCursor.getLong(0), maxRowId, false);
+                        newDB.setTransactionSuccessful();
+                        newDB.endTransaction();
 
-                            throw new IllegalStateException(
-                                    "Illegal result type of 'FRDatabaseSavable' [type = " + result + "]"
-                                    );
+                        // 次のトランザクションを開始する
+                        newDB.beginTransaction();
+                        chunkCount = 0;
 
-                        }
+                        // 進捗を通知する
+                        reporter.progress();
 
-                    // 次のデータがあれば繰り返し
-                    } while (oldCursor.moveToNext());
+                    }
 
-                }
+                // 次のデータがあれば繰り返し
+                } while (oldCursor.moveToNext());
 
 
+                // テーブルの処理完了を記録してコミットする
+                journal.save(oldTable.getName(), Long.MAX_VALUE, maxRowId, true);
+                newDB.setTransactionSuccessful();
+                newDB.endTransaction();
+
+                // テーブルの処理終了を通知する
+                reporter.endTable(getDatabaseSize(newDB));
+
                 // カーソルを閉じる
                 oldCursor.close();
                 oldCursor = null;
 
+                // コンパイルした文を閉じる
+                closeStatement(copyStatement);
+                closeStatement(updateStatement);
+                copyStatement   = null;
+                updateStatement = null;
+
+                // ROWID存在判定処理がある場合
+                if (newTableRowIds != null) {
+
+                    // ROWID存在判定処理を閉じる
+                    newTableRowIds.close();
+                    newTableRowIds = null;
+
+                }
+
             }
 
+            // 進捗記録を削除する
+            newDB.beginTransaction();
+            journal.drop();
+
             // トランザクション成功を設定する
             newDB.setTransactionSuccessful();
 
             // 更新成功
+            successful = true;
             return true;
 
         } catch (final Throwable e) {
@@ -1239,6 +1691,27 @@ public final class FRDatabaseUtils {
 
             }
 
+            // コンパイルした文を閉じる
+            closeStatement(copyStatement);
+            closeStatement(updateStatement);
+            closeStatement(changesStatement);
+
+            // ROWID存在判定処理がある場合
+            if (newTableRowIds != null) {
+
+                // ROWID存在判定処理を閉じる
+                newTableRowIds.close();
+
+            }
+
+            // 進捗記録がある場合
+            if (journal != null) {
+
+                // 進捗記録を閉じる
+                journal.close();
+
+            }
+
             // 新しいデータベースがある場合
             if (newDB != null) {
 
@@ -1250,6 +1723,22 @@ public final class FRDatabaseUtils {
 
                 }
 
+                // 古いデータベースを接続している場合
+                if (attached) {
+
+                    try {
+
+                        // 古いデータベースを切断する
+                        newDB.execSQL(SQL_DETACH_OLD_DATABASE);
+
+                    } catch (final Throwable e) {
+
+                        e.printStackTrace();
+
+                    }
+
+                }
+
                 // データベースを閉じる
                 newDB.close();
 
@@ -1263,6 +1752,53 @@ public final class FRDatabaseUtils {
 
             }
 
+            // 更新結果を通知してログ出力する
+            Log.d(FRDatabaseUtils.class.getName(),
+                  "[Database Update] " + reporter.finish(successful)
+                  );
+
+        }
+
+    }
+
+
+    /**
+     * 指定されたデータベースのファイルサイズを取得する。
+     *
+     * @param db サイズを取得するデータベース
+     * @return データベースのサイズ (ページ数 * ページサイズ)
+     */
+    private static long getDatabaseSize(
+            final SQLiteDatabase    db
+            ) {
+
+        return queryLong(db, SQL_PAGE_COUNT) * queryLong(db, SQL_PAGE_SIZE);
+
+    }
+
+
+    /**
+     * 指定された数値を 1 つ返すSQLを実行する。
+     *
+     * @param db    実行するデータベース
+     * @param sql   実行するSQL
+     * @return 実行結果の数値
+     */
+    private static long queryLong(
+            final SQLiteDatabase    db,
+            final String            sql
+            ) {
+
+        final SQLiteStatement   statement = db.compileStatement(sql);
+
+        try {
+
+            return statement.simpleQueryForLong();
+
+        } finally {
+
+            statement.close();
+
         }
 
     }
@@ -1278,7 +1814,7 @@ public final class FRDatabaseUtils {
      * @author Kou
      *
      */
-    private interface DatabaseFormatConvertible {
+    interface DatabaseFormatConvertible {
 
 
         /**
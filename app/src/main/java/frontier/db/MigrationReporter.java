@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.os.SystemClock;
+
+
+/**
+ * データベース更新の進捗集計処理。<br>
+ * <br>
+ * テーブルごとの件数と時間を集計し、リスナーへ通知する。<br>
+ * リスナーで発生した例外は出力のみ行い、更新処理へは伝播させない。<br>
+ * <br>
+ * 本クラスはスレッドセーフではない。<br>
+ *
+ * @author Kou
+ *
+ */
+final class MigrationReporter {
+
+
+    /**
+     * 通知先のリスナー (通知しない場合は null)
+     */
+    private final FRDatabaseMigrationListener               listener;
+
+    /**
+     * テーブルごとの更新結果一覧
+     */
+    private final List<FRDatabaseMigrationTableResult>      tableResults =
+        new ArrayList<FRDatabaseMigrationTableResult>();
+
+    /**
+     * 更新開始時間
+     */
+    private final long                                      startTime;
+
+    /**
+     * 古いデータベースのバージョン
+     */
+    private int                                             oldVersion;
+
+    /**
+     * 新しいデータベースのバージョン
+     */
+    private int                                             newVersion;
+
+    /**
+     * 中断した更新を再開したかどうか
+     */
+    private boolean                                         resumed;
+
+    /**
+     * 処理中のテーブル名 (処理中でない場合は null)
+     */
+    private String                                          tableName;
+
+    /**
+     * 処理中のテーブルのレコード数
+     */
+    private long                                            tableRecordCount;
+
+    /**
+     * 処理中のテーブルを再開したかどうか
+     */
+    private boolean                                         tableResumed;
+
+    /**
+     * 処理中のテーブルの開始時間
+     */
+    private long                                            tableStartTime;
+
+    /**
+     * 処理中のテーブルの開始時のデータベースサイズ
+     */
+    private long                                            tableStartSize;
+
+    /**
+     * 処理中のテーブルの保存したレコード数
+     */
+    private long                                            copiedCount;
+
+    /**
+     * 処理中のテーブルのスキップしたレコード数
+     */
+    private long                                            skippedCount;
+
+
+
+
+    /**
+     * 進捗集計処理を作成する。
+     *
+     * @param migrationListener 通知先のリスナー。通知しない場合は null
+     */
+    MigrationReporter(
+            final FRDatabaseMigrationListener   migrationListener
+            ) {
+
+        listener    = migrationListener;
+        startTime   = SystemClock.uptimeMillis();
+
+    }
+
+
+    /**
+     * 更新するデータベースの情報を設定する。
+     *
+     * @param argOldVersion 古いデータベースのバージョン
+     * @param argNewVersion 新しいデータベースのバージョン
+     * @param argResumed    中断した更新を再開したかどうか
+     */
+    void setDatabase(
+            final int       argOldVersion,
+            final int       argNewVersion,
+            final boolean   argResumed
+            ) {
+
+        oldVersion  = argOldVersion;
+        newVersion  = argNewVersion;
+        resumed     = argResumed;
+
+    }
+
+
+    /**
+     * テーブルの処理開始を通知する。
+     *
+     * @param argTableName      テーブル名
+     * @param recordCount       古いデータベースのテーブルのレコード数
+     * @param argResumed        中断した処理を再開したかどうか
+     * @param databaseSize      開始時の新しいデータベースのサイズ
+     */
+    void startTable(
+            final String    argTableName,
+            final long      recordCount,
+            final boolean   argResumed,
+            final long      databaseSize
+            ) {
+
+        tableName           = argTableName;
+        tableRecordCount    = recordCount;
+        tableResumed        = argResumed;
+        tableStartTime      = SystemClock.uptimeMillis();
+        tableStartSize      = databaseSize;
+        copiedCount         = 0;
+        skippedCount        = 0;
+
+        // リスナーがある場合
+        if (listener != null) {
+
+            try {
+
+                listener.onTableStart(argTableName, recordCount);
+
+            } catch (final RuntimeException e) {
+
+                e.printStackTrace();
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 処理中のテーブルの保存したレコード数を加算する。
+     *
+     * @param count 保存したレコード数
+     */
+    void addCopied(
+            final long  count
+            ) {
+
+        copiedCount += count;
+
+    }
+
+
+    /**
+     * 処理中のテーブルのスキップしたレコード数を加算する。
+     *
+     * @param count スキップしたレコード数
+     */
+    void addSkipped(
+            final long  count
+            ) {
+
+        skippedCount += count;
+
+    }
+
+
+    /**
+     * 処理中のテーブルの進捗を通知する。
+     */
+    void progress() {
+
+        // リスナーがある場合
+        if (listener != null) {
+
+            try {
+
+                listener.onTableProgress(tableName, copiedCount + skippedCount, tableRecordCount);
+
+            } catch (final RuntimeException e) {
+
+                e.printStackTrace();
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 処理中のテーブルの処理終了を通知する。
+     *
+     * @param databaseSize 終了時の新しいデータベースのサイズ
+     */
+    void endTable(
+            final long      databaseSize
+            ) {
+
+        final FRDatabaseMigrationTableResult    result = new FRDatabaseMigrationTableResult(
+                tableName,
+                tableRecordCount,
+                copiedCount,
+                skippedCount,
+                Math.max(databaseSize - tableStartSize, 0),
+                SystemClock.uptimeMillis() - tableStartTime,
+                tableResumed
+                );
+
+        tableResults.add(result);
+        tableName = null;
+
+        // リスナーがある場合
+        if (listener != null) {
+
+            try {
+
+                listener.onTableEnd(result);
+
+            } catch (final RuntimeException e) {
+
+                e.printStackTrace();
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 更新終了を通知する。
+     *
+     * @param successful 更新に成功した場合は true
+     * @return 更新結果の集計
+     */
+    FRDatabaseMigrationSummary finish(
+            final boolean   successful
+            ) {
+
+        // 処理中のテーブルがある場合 (途中で失敗した場合)
+        if (tableName != null) {
+
+            // 処理した分までをテーブルの結果とする
+            endTable(tableStartSize);
+
+        }
+
+        final FRDatabaseMigrationSummary    summary = new FRDatabaseMigrationSummary(
+                oldVersion,
+                newVersion,
+                successful,
+                resumed,
+                SystemClock.uptimeMillis() - startTime,
+                tableResults
+                );
+
+        // リスナーがある場合
+        if (listener != null) {
+
+            try {
+
+                listener.onFinish(summary);
+
+            } catch (final RuntimeException e) {
+
+                e.printStackTrace();
+
+            }
+
+        }
+
+        return summary;
+
+    }
+
+
+}
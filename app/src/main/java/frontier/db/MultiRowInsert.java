@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import frontier.db.FRDatabaseSqlMapper.SQLQuery;
+
+
+/**
+ * 複数行INSERT文の作成処理。<br>
+ * <br>
+ * 1 行分ずつ作成された {@code INSERT INTO ... VALUES (...)} を連結し、<br>
+ * {@code INSERT INTO ... VALUES (...), (...), ...} として 1 度に実行する。<br>
+ * バインド変数の数がSQLiteの上限を超えないように、行ごとのバインド変数の数から<br>
+ * 1 文に含める行数を決定する。<br>
+ * 複数行のVALUES句に対応していないSQLite (3.7.11 より前) では<br>
+ * {@code INSERT INTO ... SELECT ... UNION ALL SELECT ...} として連結する。<br>
+ * <br>
+ * 本クラスはスレッドセーフではない。<br>
+ *
+ * @author Kou
+ *
+ */
+final class MultiRowInsert {
+
+
+    /**
+     * 1 文に含められるバインド変数の最大数 (SQLITE_MAX_VARIABLE_NUMBER のデフォルト値)
+     */
+    private static final int        MAX_VARIABLE_NUMBER = 999;
+
+    /**
+     * 1 文に含める最大行数 (SQLITE_MAX_COMPOUND_SELECT のデフォルト値)
+     */
+    private static final int        MAX_ROW_COUNT       = 500;
+
+    /**
+     * 複数行のVALUES句に対応したSQLiteのバージョン番号 (3.7.11)
+     */
+    private static final int        SQLITE_VERSION_MULTI_ROW_VALUES = 3007011;
+
+    /**
+     * VALUES句の検出パターン
+     */
+    private static final Pattern    VALUES_PATTERN =
+        Pattern.compile("\\bVALUES\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 行データの接頭語 (VALUES句)
+     */
+    private static final String     PREFIX_VALUES       = "\nVALUES\n";
+
+    /**
+     * 行データの接頭語 (UNION ALL)
+     */
+    private static final String     PREFIX_SELECT       = "\nSELECT ";
+
+    /**
+     * 行の区切り (VALUES句)
+     */
+    private static final String     SEPARATOR_VALUES    = ",\n";
+
+    /**
+     * 行の区切り (UNION ALL)
+     */
+    private static final String     SEPARATOR_UNION     = "\nUNION ALL SELECT ";
+
+
+
+    /**
+     * 実行するDBアクセスセッション
+     */
+    private final FRDatabaseSession     session;
+
+    /**
+     * 複数行のVALUES句を利用するかどうか
+     */
+    private final boolean               valuesSupported;
+
+    /**
+     * 連結中のINSERT文のVALUES句より前の部分
+     */
+    private String                      insertHead;
+
+    /**
+     * 連結中の行データ
+     */
+    private final StringBuilder         rowsSql         = new StringBuilder();
+
+    /**
+     * 連結中の行データのバインド値一覧
+     */
+    private final List<Object>          rowsBindArgs    = new ArrayList<Object>();
+
+    /**
+     * 連結中の行数
+     */
+    private int                         rowCount;
+
+
+
+
+    /**
+     * 複数行INSERT文の作成処理を作成する。
+     *
+     * @param executeSession 実行するDBアクセスセッション
+     */
+    MultiRowInsert(
+            final FRDatabaseSession executeSession
+            ) {
+
+        session         = executeSession;
+        valuesSupported = executeSession.getSqliteVersionNumber() >= SQLITE_VERSION_MULTI_ROW_VALUES;
+
+    }
+
+
+    /**
+     * 指定された 1 行分のINSERT文を連結する。<br>
+     * <br>
+     * VALUES句より前の部分が連結中の行と異なる場合、<br>
+     * または行を加えると上限を超える場合は、連結中の行を先に実行する。<br>
+     *
+     * @param sql       1 行分のINSERT文
+     * @param bindArgs  1 行分のバインド値一覧
+     * @return 連結中の行を先に実行した場合は追加した行数。それ以外の場合は 0
+     * @throws IllegalArgumentException 連結できないINSERT文の場合
+     */
+    int add(
+            final String        sql,
+            final List<Object>  bindArgs
+            ) {
+
+        final String    rowSql      = SQLQuery.trimStatementEnd(sql);   // 文終端を除去したINSERT文
+        final int       valuesStart = findValuesStart(rowSql);          // VALUES句の開始位置
+
+        // 連結できない場合は例外
+        if (valuesStart < 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+
+        final String    head    = rowSql.substring(0, valuesStart).trim();
+        final String    row     = rowSql.substring(valuesStart + SQLQuery.SQL_VALUES.length()).trim();
+        int             retRows = 0;
+
+
+        // 連結中の行と異なるINSERT文の場合
+        // または上限を超える場合
+        if ((rowCount > 0)
+                && (!head.equals(insertHead)
+                    || (rowCount >= MAX_ROW_COUNT)
+                    || ((rowsBindArgs.size() + bindArgs.size()) > MAX_VARIABLE_NUMBER))
+                ) {
+
+            // 連結中の行を実行する
+            retRows = flush();
+
+        }
+
+        // 先頭行の場合
+        if (rowCount == 0) {
+
+            insertHead = head;
+
+        } else {
+
+            // 行の区切りを追加する
+            rowsSql.append(valuesSupported ? SEPARATOR_VALUES : SEPARATOR_UNION);
+
+        }
+
+        // 行データを追加する
+        rowsSql.append(valuesSupported ? row : row.substring(1, row.length() - 1));
+        rowsBindArgs.addAll(bindArgs);
+        rowCount++;
+
+        // 先に実行した行数を返す
+        return retRows;
+
+    }
+
+
+    /**
+     * 連結中の行を 1 つのINSERT文として実行する。
+     *
+     * @return 追加した行数
+     */
+    int flush() {
+
+        // 連結中の行がない場合
+        if (rowCount == 0) {
+
+            return 0;
+
+        }
+
+
+        final StringBuilder     sql = new StringBuilder(insertHead.length() + rowsSql.length() + 16);
+
+        // INSERT文を作成する
+        sql.append(insertHead)
+           .append(valuesSupported ? PREFIX_VALUES : PREFIX_SELECT)
+           .append(rowsSql);
+
+        try {
+
+            // INSERT文を実行して追加した行数を返す
+            return session.executeUpdateDelete(sql.toString(), rowsBindArgs.toArray(), false);
+
+        } finally {
+
+            // 連結中の行をクリアする
+            insertHead = null;
+            rowsSql.setLength(0);
+            rowsBindArgs.clear();
+            rowCount = 0;
+
+        }
+
+    }
+
+
+    /**
+     * 指定されたINSERT文が連結可能かどうかを取得する。
+     *
+     * @param sql 判定するINSERT文
+     * @return VALUES句の後ろが 1 行分の値のみ (末尾の文終端を除く) の場合は true
+     */
+    static boolean canAppend(
+            final String    sql
+            ) {
+
+        return findValuesStart(SQLQuery.trimStatementEnd(sql)) >= 0;
+
+    }
+
+
+    /**
+     * 指定されたINSERT文のVALUES句の開始位置を取得する。<br>
+     * <br>
+     * VALUES句の後ろが括弧で囲まれた 1 行分の値のみの場合に連結可能とする。<br>
+     * 末尾の文終端は除去済みであること。<br>
+     *
+     * @param sql 解析するINSERT文
+     * @return VALUES句の開始位置。連結できない場合は -1
+     */
+    private static int findValuesStart(
+            final String    sql
+            ) {
+
+        final Matcher   matcher = VALUES_PATTERN.matcher(sql);
+
+        // VALUES句がない場合
+        if (!matcher.find()) {
+
+            return -1;
+
+        }
+
+        // 行データが 1 行分の値のみの場合は開始位置を返す
+        return isSingleRow(sql.substring(matcher.end()).trim()) ? matcher.start() : -1;
+
+    }
+
+
+    /**
+     * 指定された文字列が括弧で囲まれた 1 行分の値のみかどうかを取得する。
+     *
+     * @param row 判定する文字列
+     * @return 括弧で囲まれた 1 行分の値のみの場合は true
+     */
+    private static boolean isSingleRow(
+            final String    row
+            ) {
+
+        // 括弧で開始していない場合
+        if (!row.startsWith("(")) {
+
+            return false;
+
+        }
+
+
+        int         depth   = 0;        // 括弧の深さ
+        char        quote   = 0;        // 処理中の引用符 (引用符外の場合は 0)
+
+        // 全文字分処理をする
+        for (int i = 0; i < row.length(); i++) {
+
+            final char  c = row.charAt(i);
+
+            // 引用符内の場合
+            if (quote != 0) {
+
+                // 引用符の終了の場合
+                if (c == quote) {
+
+                    quote = 0;
+
+                }
+
+            } else if ((c == '\'') || (c == '"')) {
+
+                quote = c;
+
+            } else if (c == '(') {
+
+                depth++;
+
+            } else if (c == ')') {
+
+                depth--;
+
+                // 先頭の括弧が閉じた場合は末尾かどうかを返す
+                if (depth == 0) {
+
+                    return i == (row.length() - 1);
+
+                }
+
+            }
+
+        }
+
+        // 括弧が閉じていない
+        return false;
+
+    }
+
+
+}
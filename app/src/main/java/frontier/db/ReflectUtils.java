@@ -2562,27 +2562,8 @@ final class ReflectUtils {
 
         try {
 
-            // メソッド一覧キャッシュマップを取得する
-            final Map<String, Method>   methods = getPublicMethodsForMap(instance.getClass());
-            Method                      method  = null;
-
-            // setter接頭語分繰り返す
-            for (final String prefix : PREFIX_SETTER) {
-
-                // 指定フィールド名に対応するsetterメソッドを取得する
-                method = methods.get(
-                        prefix + StringUtils.toUpperCaseFront(fieldName)
-                        );
-
-                // 一致するフィールド名がある場合
-                if (method != null) {
-
-                    // ループ終了
-                    break;
-
-                }
-
-            }
+            // 指定フィールド名に対応するsetterメソッドを取得する
+            final Method    method = getBeanSetterMethod(instance.getClass(), fieldName);
 
             // メソッドが取得出来なかった場合
             if (method == null) {
@@ -2651,6 +2632,46 @@ final class ReflectUtils {
     }
 
 
+    /**
+     * JavaBeanの規定に則って作成されたクラスの指定フィールドに対応するsetterメソッドを取得する。
+     *
+     * @param clazz     JavaBeanクラス
+     * @param fieldName 値を設定するフィールド名
+     * @return 指定フィールドのsetterメソッド。ない場合は null
+     * @throws ReflectException メソッド取得失敗エラー時
+     */
+    static Method getBeanSetterMethod(
+            final Class<?>  clazz,
+            final String    fieldName
+            ) throws ReflectException {
+
+        // メソッド一覧キャッシュマップを取得する
+        final Map<String, Method>   methods = getPublicMethodsForMap(clazz);
+
+        // setter接頭語分繰り返す
+        for (final String prefix : PREFIX_SETTER) {
+
+            // 指定フィールド名に対応するsetterメソッドを取得する
+            final Method    method = methods.get(
+                    prefix + StringUtils.toUpperCaseFront(fieldName)
+                    );
+
+            // 一致するフィールド名がある場合
+            if (method != null) {
+
+                // 取得したメソッドを返す
+                return method;
+
+            }
+
+        }
+
+        // 一致するメソッドなし
+        return null;
+
+    }
+
+
     /**
      * JavaBeanの規定に則って作成されたクラスインスタンスの指定フィールドの値を取得する。
      *
@@ -0,0 +1,543 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import android.database.Cursor;
+import frontier.db.ConvertUtils.DataConvertType;
+import frontier.db.ConvertUtils.TypeConvertiable;
+
+
+/**
+ * 検索結果の 1 行をエンティティへ変換する行マッパー。<br>
+ * <br>
+ * エンティティクラスとカラム構成の組み合わせごとに 1 度だけ作成し、<br>
+ * カラム位置、setterメソッド、カラムの読み込み処理を配列で保持する。<br>
+ * 行ごとの処理では文字列の組み立てやマップの検索を行わない。<br>
+ * カラムの値は設定先の型に応じてカーソルから型付きで読み込む。<br>
+ * 変換可能型を結果とする場合は、先頭カラムの値をそのまま結果とする。<br>
+ * <br>
+ * 作成後は不変のため、複数スレッドから同時に利用できる。<br>
+ *
+ * @param <T> エンティティクラス
+ * @author Kou
+ *
+ */
+final class RowMapper<T> {
+
+
+    /**
+     * エンティティのコンストラクター。変換可能型を結果とする場合は null
+     */
+    private final Constructor<T>        entityConstructor;
+
+    /**
+     * 値を設定するカラム位置一覧
+     */
+    private final int[]                 columnIndexes;
+
+    /**
+     * カラムごとのsetterメソッド一覧
+     */
+    private final Method[]              setterMethods;
+
+    /**
+     * カラムごとの読み込み処理一覧
+     */
+    private final ColumnReader[]        columnReaders;
+
+
+
+
+    /**
+     * 行マッパーを作成する。
+     *
+     * @param constructor   エンティティのコンストラクター
+     * @param indexes       値を設定するカラム位置一覧
+     * @param methods       カラムごとのsetterメソッド一覧
+     * @param readers       カラムごとの読み込み処理一覧
+     */
+    private RowMapper(
+            final Constructor<T>        constructor,
+            final int[]                 indexes,
+            final Method[]              methods,
+            final ColumnReader[]        readers
+            ) {
+
+        entityConstructor   = constructor;
+        columnIndexes       = indexes;
+        setterMethods       = methods;
+        columnReaders       = readers;
+
+    }
+
+
+    /**
+     * 先頭カラムの値を指定された変換可能型で結果とする行マッパーを作成する。
+     *
+     * @param <T>           結果の型
+     * @param resultClass   結果の型
+     * @return 作成した行マッパー
+     */
+    static <T> RowMapper<T> compileSingleColumn(
+            final Class<T>  resultClass
+            ) {
+
+        return new RowMapper<T>(
+                null,
+                new int[] {0},
+                null,
+                new ColumnReader[] {new ColumnReader(resultClass)}
+                );
+
+    }
+
+
+    /**
+     * 指定されたエンティティクラスとカーソルのカラム構成から行マッパーを作成する。<br>
+     * <br>
+     * 対応するsetterメソッドがないカラムは無視する。<br>
+     *
+     * @param <T>           エンティティクラス
+     * @param resultClass   エンティティクラス
+     * @param cursor        カラム構成を取得するカーソル
+     * @return 作成した行マッパー
+     * @throws ReflectException コンストラクターまたはsetterメソッドの取得に失敗した場合
+     */
+    static <T> RowMapper<T> compile(
+            final Class<T>  resultClass,
+            final Cursor    cursor
+            ) throws ReflectException {
+
+        final String[]                  columnNames = cursor.getColumnNames();
+        final List<Integer>             indexes     = new ArrayList<Integer>();
+        final List<Method>              methods     = new ArrayList<Method>();
+        final List<ColumnReader>        readers     = new ArrayList<ColumnReader>();
+        final Constructor<T>            constructor;
+
+        try {
+
+            // コンストラクターを取得する
+            constructor = resultClass.getConstructor();
+
+            // アクセス可能に設定する
+            constructor.setAccessible(true);
+
+        } catch (final Throwable e) {
+
+            throw new ReflectException(e);
+
+        }
+
+        // カラム分処理をする
+        for (final String columnName : columnNames) {
+
+            // カラム名に対応するsetterメソッドを取得する
+            final Method    method = ReflectUtils.getBeanSetterMethod(resultClass, columnName);
+
+            // setterメソッドがない場合
+            if (method == null) {
+
+                // 次のカラムへ
+                continue;
+
+            }
+
+            // 引数の型を取得する
+            final Class<?>[]    parameters = method.getParameterTypes();
+
+            // パラメータがない場合
+            if (parameters.length == 0) {
+
+                // パラメータなし例外
+                throw new ReflectException("this method has not any arguments.");
+
+            // パラメータが多すぎる場合
+            } else if (parameters.length > 1) {
+
+                // パラメータ過多例外
+                throw new ReflectException("this method has arguments too much.");
+
+            }
+
+            // カラム情報を追加する
+            indexes.add(cursor.getColumnIndex(columnName));
+            methods.add(method);
+            readers.add(new ColumnReader(parameters[0]));
+
+        }
+
+
+        final int[]     retIndexes = new int[indexes.size()];
+
+        // カラム位置を配列へ変換する
+        for (int i = 0; i < retIndexes.length; i++) {
+
+            retIndexes[i] = indexes.get(i);
+
+        }
+
+        // 作成した行マッパーを返す
+        return new RowMapper<T>(
+                constructor,
+                retIndexes,
+                methods.toArray(new Method[methods.size()]),
+                readers.toArray(new ColumnReader[readers.size()])
+                );
+
+    }
+
+
+    /**
+     * カーソルの現在行をエンティティへ変換する。
+     *
+     * @param cursor 変換する行を指しているカーソル
+     * @return 変換したエンティティ
+     * @throws ReflectException エンティティの生成または値の設定に失敗した場合
+     */
+    T mapRow(
+            final Cursor    cursor
+            ) throws ReflectException {
+
+        // 変換可能型を結果とする場合
+        if (entityConstructor == null) {
+
+            // 先頭カラムの値を返す
+            return ConvertUtils.<T>cast(columnReaders[0].read(cursor, columnIndexes[0]));
+
+        }
+
+
+        try {
+
+            // エンティティのインスタンスを作成する
+            final T     entity = entityConstructor.newInstance();
+
+            // カラム分処理をする
+            for (int i = 0; i < columnIndexes.length; i++) {
+
+                // カラムの値を引数の型で読み込んで設定する
+                setterMethods[i].invoke(entity, columnReaders[i].read(cursor, columnIndexes[i]));
+
+            }
+
+            // 作成したエンティティを返す
+            return entity;
+
+        } catch (final Throwable e) {
+
+            // リフレクション例外としてスローする
+            throw new ReflectException(e);
+
+        }
+
+    }
+
+
+    /**
+     * 設定先の型に応じてカーソルからカラムの値を読み込む処理。<br>
+     * <br>
+     * 数値型とバイト配列はカーソルから型付きで読み込み、文字列への変換と解析を行わない。<br>
+     * その他の型は文字列として読み込んで型変換処理で変換する。<br>
+     * NULLのカラムは型変換処理へ null を渡した結果とする。<br>
+     *
+     * @author Kou
+     *
+     */
+    static final class ColumnReader {
+
+
+        /**
+         * 読み込み方法 : 文字列として読み込み型変換する
+         */
+        private static final int        READ_STRING = 0;
+
+        /**
+         * 読み込み方法 : int
+         */
+        private static final int        READ_INT    = READ_STRING + 1;
+
+        /**
+         * 読み込み方法 : long
+         */
+        private static final int        READ_LONG   = READ_INT + 1;
+
+        /**
+         * 読み込み方法 : float
+         */
+        private static final int        READ_FLOAT  = READ_LONG + 1;
+
+        /**
+         * 読み込み方法 : double
+         */
+        private static final int        READ_DOUBLE = READ_FLOAT + 1;
+
+        /**
+         * 読み込み方法 : バイト配列
+         */
+        private static final int        READ_BLOB   = READ_DOUBLE + 1;
+
+
+        /**
+         * 読み込み先の型
+         */
+        private final Class<?>          valueType;
+
+        /**
+         * 読み込み方法
+         */
+        private final int               readType;
+
+        /**
+         * 型変換処理。変換処理がない型の場合は null
+         */
+        private final TypeConvertiable  converter;
+
+
+
+        /**
+         * 指定された型へ読み込む処理を作成する。
+         *
+         * @param type 読み込み先の型
+         */
+        ColumnReader(
+                final Class<?>  type
+                ) {
+
+            valueType = type;
+            converter = ConvertUtils.getTypeConverter(type);
+
+            // 型に応じた読み込み方法を設定する
+            if ((type == int.class) || (type == Integer.class)) {
+
+                readType = READ_INT;
+
+            } else if ((type == long.class) || (type == Long.class)) {
+
+                readType = READ_LONG;
+
+            } else if ((type == float.class) || (type == Float.class)) {
+
+                readType = READ_FLOAT;
+
+            } else if ((type == double.class) || (type == Double.class)) {
+
+                readType = READ_DOUBLE;
+
+            } else if (type == byte[].class) {
+
+                readType = READ_BLOB;
+
+            } else {
+
+                readType = READ_STRING;
+
+            }
+
+        }
+
+
+        /**
+         * カーソルの現在行の指定カラムの値を読み込む。
+         *
+         * @param cursor    読み込み元カーソル
+         * @param index     カラム位置
+         * @return 読み込んだ値
+         */
+        Object read(
+                final Cursor    cursor,
+                final int       index
+                ) {
+
+            // 文字列として読み込む場合
+            if (readType == READ_STRING) {
+
+                final String    value = cursor.getString(index);
+
+                // 文字列型で値がある場合はそのまま返す
+                if ((value != null) && (valueType == String.class)) {
+
+                    return value;
+
+                }
+
+                // 値を型変換して返す
+                return convert(value);
+
+            }
+
+            // NULLの場合
+            if (cursor.isNull(index)) {
+
+                // null を型変換した値を返す
+                return convert(null);
+
+            }
+
+            // 読み込み方法別処理
+            switch (readType) {
+
+            // int
+            case READ_INT:
+
+                return Integer.valueOf(cursor.getInt(index));
+
+
+            // long
+            case READ_LONG:
+
+                return Long.valueOf(cursor.getLong(index));
+
+
+            // float
+            case READ_FLOAT:
+
+                return Float.valueOf(cursor.getFloat(index));
+
+
+            // double
+            case READ_DOUBLE:
+
+                return Double.valueOf(cursor.getDouble(index));
+
+
+            // その他 (バイト配列)
+            default:
+
+                return cursor.getBlob(index);
+
+            }
+
+        }
+
+
+        /**
+         * 指定された値を読み込み先の型へ変換する。
+         *
+         * @param value 変換する値
+         * @return 変換した値。変換処理がない型の場合は null
+         */
+        private Object convert(
+                final Object    value
+                ) {
+
+            return converter == null
+                ? null
+                : converter.convertType(DataConvertType.DATABASE, valueType, value);
+
+        }
+
+
+    }
+
+
+    /**
+     * 行マッパーのキャッシュキー。<br>
+     * <br>
+     * エンティティクラスとカラム名一覧の組み合わせを表す。<br>
+     *
+     * @author Kou
+     *
+     */
+    static final class Key {
+
+
+        /**
+         * エンティティクラス
+         */
+        private final Class<?>      resultClass;
+
+        /**
+         * カラム名一覧
+         */
+        private final String[]      columnNames;
+
+        /**
+         * ハッシュ値
+         */
+        private final int           hashCode;
+
+
+
+        /**
+         * 行マッパーのキャッシュキーを作成する。
+         *
+         * @param clazz エンティティクラス
+         * @param names カラム名一覧
+         */
+        Key(
+                final Class<?>  clazz,
+                final String[]  names
+                ) {
+
+            resultClass = clazz;
+            columnNames = names;
+            hashCode    = 31 * clazz.hashCode() + Arrays.hashCode(names);
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+
+            return hashCode;
+
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(
+                final Object    obj
+                ) {
+
+            // 同じインスタンスの場合
+            if (this == obj) {
+
+                return true;
+
+            }
+
+            // 型が異なる場合
+            if (!(obj instanceof Key)) {
+
+                return false;
+
+            }
+
+            final Key   other = (Key)obj;
+
+            // クラスとカラム名一覧を比較する
+            return (resultClass == other.resultClass)
+                && Arrays.equals(columnNames, other.columnNames);
+
+        }
+
+
+    }
+
+
+}
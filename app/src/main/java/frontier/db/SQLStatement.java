@@ -0,0 +1,1214 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import android.content.res.XmlResourceParser;
+import android.database.Cursor;
+import frontier.db.FRDatabaseSqlMapper.SQLQuery;
+import frontier.db.FRDatabaseSqlMapper.SQLQueryType;
+
+
+/**
+ * コンパイル済みSQLステートメント。<br>
+ * <br>
+ * マッピングXMLに定義された 1 つのクエリを解析した結果を保持する不変クラス。<br>
+ * XMLの解析はリソースごとに 1 度だけ行い、<br>
+ * 実行時にはパラメータに対する条件判定のみを行ってSQLクエリデータを作成する。<br>
+ * 検索結果の変換に利用する行マッパーもステートメントごとにキャッシュする。<br>
+ * ステートメントが参照するパラメータ名もコンパイル時に収集し、<br>
+ * エンティティからは参照されるプロパティのみを取得できるようにする。<br>
+ *
+ * @author Kou
+ *
+ */
+final class SQLStatement {
+
+
+    /**
+     * ステートメントのルートノード
+     */
+    private final SQLNode       rootNode;
+
+    /**
+     * 変数と条件判定で参照するパラメータ名一覧
+     */
+    private final Set<String>   propertyNames;
+
+    /**
+     * エンティティクラスとカラム構成ごとの行マッパーのキャッシュ
+     */
+    private final Map<RowMapper.Key, RowMapper<?>>  rowMappers =
+        new HashMap<RowMapper.Key, RowMapper<?>>();
+
+
+
+    /**
+     * コンパイル済みSQLステートメントを作成する。
+     *
+     * @param node ステートメントのルートノード
+     */
+    private SQLStatement(
+            final SQLNode   node
+            ) {
+
+        final Set<String>   names = new HashSet<String>();
+
+        // 参照するパラメータ名を収集する
+        collectPropertyNames(node, names);
+
+        rootNode        = node;
+        propertyNames   = Collections.unmodifiableSet(names);
+
+    }
+
+
+    /**
+     * 指定ノード以下で参照するパラメータ名を収集する。<br>
+     * <br>
+     * テキスト内の変数名と、条件判定の property 属性値を対象とする。<br>
+     *
+     * @param node  収集対象ノード
+     * @param names 収集したパラメータ名の追加先
+     */
+    private static void collectPropertyNames(
+            final SQLNode       node,
+            final Set<String>   names
+            ) {
+
+        // テキストノードの場合
+        if (node.isText()) {
+
+            final String[]  tokens = node.getTokens();
+
+            // 変数名のトークン分処理をする
+            for (int i = 1; i < tokens.length; i += 2) {
+
+                // 変数名を追加する
+                names.add(tokens[i]);
+
+            }
+
+            // 処理終了
+            return;
+
+        }
+
+        // 条件判定のプロパティ名を取得する
+        final String    property = node.getAttributeValue(SQLQuery.ATTR_PROPERTY);
+
+        // プロパティ名がある場合
+        if (property != null) {
+
+            // プロパティ名を追加する
+            names.add(property);
+
+        }
+
+        // 子ノード分処理をする
+        for (final SQLNode child : node.getChildren()) {
+
+            // 子ノードのパラメータ名を収集する
+            collectPropertyNames(child, names);
+
+        }
+
+    }
+
+
+    /**
+     * 指定されたパーサーのXMLドキュメント全体をコンパイルする。
+     *
+     * @param parser 読み込み元XMLパーサー
+     * @return クエリIDをキーにしたコンパイル済みSQLステートメントのマップ
+     * @throws XmlPullParserException   XML解析に失敗した場合
+     * @throws IOException              XML読み込みに失敗した場合
+     */
+    static Map<String, SQLStatement> compile(
+            final XmlResourceParser parser
+            ) throws XmlPullParserException, IOException {
+
+        final Map<String, SQLStatement>     retStatements = new HashMap<String, SQLStatement>();
+
+
+        // XML解析が終了するまでループする
+        for (int eventType = parser.getEventType();
+             eventType != XmlPullParser.END_DOCUMENT;
+             eventType = parser.next()
+             ) {
+
+            // タグ開始以外の場合
+            if (eventType != XmlPullParser.START_TAG) {
+
+                // 次のデータへ
+                continue;
+
+            }
+
+            // クエリ種別を取得する
+            final SQLQueryType  queryType = SQLQueryType.toQuerySqlType(parser.getName());
+
+            // クエリ種別の取得ができなかった場合
+            if (queryType == null) {
+
+                // 次のデータへ
+                continue;
+
+            }
+
+            // クエリノードをコンパイルする
+            final SQLNode   node    = compileNode(parser, queryType);
+            final String    queryId = node.getAttributeValue(SQLQuery.ATTR_ID);
+
+            // クエリIDがない場合
+            // または同じクエリIDが既に定義されている場合 (先に定義されたものを優先する)
+            if ((queryId == null) || retStatements.containsKey(queryId)) {
+
+                // 次のデータへ
+                continue;
+
+            }
+
+            // コンパイル済みステートメントを追加する
+            retStatements.put(queryId, new SQLStatement(node));
+
+        }
+
+        // 変更不可能なマップとして返す
+        return Collections.unmodifiableMap(retStatements);
+
+    }
+
+
+    /**
+     * 現在のタグ開始位置から対応するタグ終了位置までをノードとしてコンパイルする。
+     *
+     * @param parser    読み込み元XMLパーサー
+     * @param queryType ノードのクエリ種別
+     * @return コンパイルしたノード
+     * @throws XmlPullParserException   XML解析に失敗した場合
+     * @throws IOException              XML読み込みに失敗した場合
+     */
+    private static SQLNode compileNode(
+            final XmlResourceParser parser,
+            final SQLQueryType      queryType
+            ) throws XmlPullParserException, IOException {
+
+        final Map<String, String>   attributes = new HashMap<String, String>();
+        final List<SQLNode>         children   = new ArrayList<SQLNode>();
+
+
+        // 属性分処理をする
+        for (int i = 0; i < parser.getAttributeCount(); i++) {
+
+            // 属性値を追加する
+            attributes.put(
+                    parser.getAttributeName(i),
+                    parser.getAttributeValue(i)
+                    );
+
+        }
+
+        // 対応するタグ終了までループする
+        for (int eventType = parser.next();
+             eventType != XmlPullParser.END_TAG;
+             eventType = parser.next()
+             ) {
+
+            // イベント種類別処理
+            switch (eventType) {
+
+            // タグ開始
+            case XmlPullParser.START_TAG:
+
+                // 内部クエリ種別を取得する
+                final SQLQueryType  innerType = SQLQueryType.toQueryInnerType(parser.getName());
+
+                // 内部クエリ種別でない場合
+                if (innerType == null) {
+
+                    // タグ終了まで読み飛ばす
+                    skipNode(parser);
+
+                } else {
+
+                    // 子ノードとしてコンパイルする
+                    children.add(compileNode(parser, innerType));
+
+                }
+                break;
+
+
+            // テキスト
+            case XmlPullParser.TEXT:
+
+                // テキストノードを追加する
+                children.add(new SQLNode(parser.getText()));
+                break;
+
+
+            // ドキュメント終端
+            case XmlPullParser.END_DOCUMENT:
+
+                throw new IllegalStateException("Unexpected end of document.");
+
+
+            // その他
+            default:
+
+                // 処理なし
+                break;
+
+            }
+
+        }
+
+        // 作成したノードを返す
+        return new SQLNode(queryType, attributes, children);
+
+    }
+
+
+    /**
+     * 現在のタグ開始位置から対応するタグ終了位置までを読み飛ばす。
+     *
+     * @param parser 読み込み元XMLパーサー
+     * @throws XmlPullParserException   XML解析に失敗した場合
+     * @throws IOException              XML読み込みに失敗した場合
+     */
+    private static void skipNode(
+            final XmlResourceParser parser
+            ) throws XmlPullParserException, IOException {
+
+        int     depth = 1;      // タグの深さ
+
+
+        // 対応するタグ終了までループする
+        while (depth > 0) {
+
+            // イベント種類別処理
+            switch (parser.next()) {
+
+            // タグ開始
+            case XmlPullParser.START_TAG:
+
+                depth++;
+                break;
+
+
+            // タグ終了
+            case XmlPullParser.END_TAG:
+
+                depth--;
+                break;
+
+
+            // ドキュメント終端
+            case XmlPullParser.END_DOCUMENT:
+
+                throw new IllegalStateException("Unexpected end of document.");
+
+
+            // その他
+            default:
+
+                // 処理なし
+                break;
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 改行を先頭に挿入する。
+     *
+     * @param strBuf 文字列バッファ
+     */
+    private static void insertNewLine(
+            final StringBuilder     strBuf
+            ) {
+
+        // 文字列長が 0 の場合
+        if (strBuf.length() == 0) {
+
+            // 処理なし
+            return;
+
+        }
+
+        // 改行を追加する
+        strBuf.insert(0, '\n');
+
+    }
+
+
+    /**
+     * 末尾文字が改行以外の場合に改行を追加する。
+     *
+     * @param strBuf 文字列バッファ
+     */
+    private static void addNewLine(
+            final StringBuilder     strBuf
+            ) {
+
+        // 文字列長が 0 の場合
+        if (strBuf.length() == 0) {
+
+            // 処理なし
+            return;
+
+        }
+
+        // 末尾文字を取得する
+        final char  lastChar = strBuf.charAt(strBuf.length() - 1);
+
+        // 末尾文字が改行文字の場合
+        if ((lastChar == '\n') || (lastChar == '\r')) {
+
+            // 処理なし
+            return;
+
+        }
+
+        // 改行を追加する
+        strBuf.append('\n');
+
+    }
+
+
+    /**
+     * 指定したクエリデータへ prepend 属性の値を付加する。
+     *
+     * @param strBuf            prepend属性の追加先文字列バッファ
+     * @param query             追加したいprepend属性値を所持しているクエリ
+     * @param ignoreSqlKeyword  直前の追加値がSQL予約語の場合に何も処理をしない場合は true
+     */
+    private static void processPrepend(
+            final StringBuilder strBuf,
+            final SQLQuery      query,
+            final boolean       ignoreSqlKeyword
+            ) {
+
+        final String        prepend = query.getAttributeValue(SQLQuery.ATTR_PREPEND);
+
+        // 接頭語がない場合
+        if (prepend == null) {
+
+            // 何もしない
+            return;
+
+        }
+
+        // SQL予約語の場合に処理をしない場合
+        if (ignoreSqlKeyword) {
+
+            // 何もしない
+            return;
+
+        }
+
+        // 接頭語を文字列バッファへ追加する
+        strBuf.append(prepend);
+
+        // 改行を追加する
+        addNewLine(strBuf);
+
+    }
+
+
+    /**
+     * 指定されたテキストノードの内容をクエリデータへ追加する。<br>
+     * <br>
+     * テキスト内の変数はバインド変数 (?) として追加し、<br>
+     * 値はクエリデータのバインド値一覧へ追加する。<br>
+     * パラメータに値がない変数はそのままのテキストとして追加する。<br>
+     * 値が null の場合はバインド変数を使わずに null を追加する。<br>
+     * 数値リテラルが有効なクエリでは、数値と真偽値をバインド変数を使わずに数値リテラルとして追加する。<br>
+     *
+     * @param query         追加先クエリデータ
+     * @param node          追加するテキストノード
+     * @param parametersMap 検索に利用するパラメータマップ
+     */
+    private static void appendText(
+            final SQLQuery              query,
+            final SQLNode               node,
+            final Map<String, Object>   parametersMap
+            ) {
+
+        final String[]      tokens = node.getTokens();      // テキストトークン一覧
+        final StringBuilder sql    = query.getSql();        // 追加先SQL
+
+
+        // トークン分処理をする
+        for (int i = 0; i < tokens.length; i++) {
+
+            // テキスト部分の場合
+            if ((i % 2) == 0) {
+
+                // そのまま追加する
+                sql.append(tokens[i]);
+
+                // 次のトークンへ
+                continue;
+
+            }
+
+            // パラメータに変数名が存在しない場合
+            if (!parametersMap.containsKey(tokens[i])) {
+
+                // 変数をそのまま追加する
+                sql.append(SQLQuery.TOKEN_VARIABLE)
+                   .append(tokens[i])
+                   .append(SQLQuery.TOKEN_VARIABLE);
+
+                // 次のトークンへ
+                continue;
+
+            }
+
+            // 変数値を取得する
+            final Object    value = parametersMap.get(tokens[i]);
+
+            // 値が null の場合
+            if (value == null) {
+
+                // nullを追加する
+                sql.append(SQLQuery.SQL_NULL);
+
+                // 次のトークンへ
+                continue;
+
+            }
+
+            // 数値リテラルとして追加する値の場合
+            final String    literal = query.isNumberLiteralEnabled() ? toNumberLiteral(value) : null;
+
+            if (literal != null) {
+
+                // 数値リテラルを追加する
+                sql.append(literal);
+
+            } else {
+
+                // バインド変数とバインド値を追加する
+                sql.append(SQLQuery.TOKEN_BIND);
+                query.getBindArgs().add(value);
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 指定された変数値をSQLの数値リテラルへ変換する。<br>
+     * <br>
+     * 真偽値はフラグ形式の整数値へ変換する。<br>
+     * 負の値は直前の演算子と合わせてコメント (--) にならないよう括弧で囲む。<br>
+     *
+     * @param value 変換する変数値
+     * @return 数値リテラル。数値リテラルにできない値の場合は null
+     */
+    private static String toNumberLiteral(
+            final Object    value
+            ) {
+
+        final String    literal;    // 数値リテラル
+
+
+        // 真偽値の場合
+        if (value instanceof Boolean) {
+
+            // フラグ形式の値へ変換する
+            literal = String.valueOf(FRDatabaseUtils.toInt(((Boolean)value).booleanValue()));
+
+        // 整数値の場合
+        } else if ((value instanceof Integer) || (value instanceof Long)
+                || (value instanceof Short) || (value instanceof Byte)) {
+
+            literal = String.valueOf(value);
+
+        // 有限の小数値の場合
+        } else if (((value instanceof Double) || (value instanceof Float))
+                && !Double.isNaN(((Number)value).doubleValue())
+                && !Double.isInfinite(((Number)value).doubleValue())) {
+
+            literal = String.valueOf(value);
+
+        } else {
+
+            // 数値リテラルにしない
+            return null;
+
+        }
+
+        // 負の値の場合は括弧で囲む
+        return literal.startsWith("-") ? "(" + literal + ")" : literal;
+
+    }
+
+
+    /**
+     * 指定されたテキスト内の変数を解析してトークン一覧を作成する。<br>
+     * <br>
+     * 偶数番目の要素がテキスト部分、奇数番目の要素が変数名となる。<br>
+     *
+     * @param text 解析するテキスト
+     * @return テキストと変数名を交互に並べたトークン一覧
+     */
+    private static String[] parseTokens(
+            final String    text
+            ) {
+
+        final List<String>  tokens  = new ArrayList<String>();     // トークン一覧
+        final StringBuilder literal = new StringBuilder();          // テキスト部分
+        int                 index   = 0;                            // 解析位置
+
+
+        // テキスト終端まで繰り返す
+        while (index < text.length()) {
+
+            // 変数開始位置と終了位置を取得する
+            final int   begin = text.indexOf(SQLQuery.TOKEN_VARIABLE, index);
+            final int   end   = begin < 0 ? -1 : text.indexOf(SQLQuery.TOKEN_VARIABLE, begin + 1);
+
+            // 変数がない場合
+            if (end < 0) {
+
+                // 残りをテキスト部分として追加する
+                literal.append(text, index, text.length());
+                break;
+
+            }
+
+            // 変数名を取得する
+            final String    name = text.substring(begin + 1, end);
+
+            // 変数名として正しくない場合
+            if (!isVariableName(name)) {
+
+                // 開始文字までをテキスト部分として追加する
+                literal.append(text, index, begin + 1);
+                index = begin + 1;
+
+                // 次の位置へ
+                continue;
+
+            }
+
+            // 変数の手前までをテキスト部分として追加する
+            literal.append(text, index, begin);
+
+            // テキスト部分と変数名を追加する
+            tokens.add(literal.toString());
+            tokens.add(name);
+
+            // テキスト部分をクリアして変数の後ろから解析する
+            literal.setLength(0);
+            index = end + 1;
+
+        }
+
+        // 最後のテキスト部分を追加する
+        tokens.add(literal.toString());
+
+        // 配列へ変換して返す
+        return tokens.toArray(new String[tokens.size()]);
+
+    }
+
+
+    /**
+     * 指定された文字列が変数名として正しいかどうかを取得する。
+     *
+     * @param name 調べる文字列
+     * @return 変数名として正しい場合は true
+     */
+    private static boolean isVariableName(
+            final String    name
+            ) {
+
+        // 空文字の場合
+        if (name.length() == 0) {
+
+            // 変数名ではない
+            return false;
+
+        }
+
+        // 全文字分調べる
+        for (int i = 0; i < name.length(); i++) {
+
+            final char  c = name.charAt(i);
+
+            // 変数名に利用できない文字の場合
+            if (!Character.isJavaIdentifierPart(c) && (c != '.')) {
+
+                // 変数名ではない
+                return false;
+
+            }
+
+        }
+
+        // 変数名とする
+        return true;
+
+    }
+
+
+    /**
+     * 指定された親クエリへ条件テキストを追加する。
+     *
+     * @param parentQuery   親クエリ
+     * @param procQuery     処理クエリ
+     * @param node          追加する条件テキストノード
+     * @param parametersMap 検索に利用するパラメータマップ
+     */
+    private static void addJudgement(
+            final SQLQuery              parentQuery,
+            final SQLQuery              procQuery,
+            final SQLNode               node,
+            final Map<String, Object>   parametersMap
+            ) {
+
+        // 親クエリへ改行を追加する
+        addNewLine(parentQuery.getSql());
+
+        // 接頭語を処理する
+        processPrepend(parentQuery.getSql(), procQuery, parentQuery.isLastSqlKeywordEnabled());
+
+        // テキストを追加する
+        appendText(parentQuery, node, parametersMap);
+
+        // 親クエリの直前にSQLキーワードが追加されていないことにする
+        parentQuery.setLastSqlKeywordEnabled(false);
+
+    }
+
+
+    /**
+     * クエリ種別を取得する。
+     *
+     * @return クエリ種別
+     */
+    SQLQueryType getType() {
+
+        return rootNode.getType();
+
+    }
+
+
+    /**
+     * 指定した名前の属性値を取得する。
+     *
+     * @param name 属性名
+     * @return 属性値
+     */
+    String getAttributeValue(
+            final String    name
+            ) {
+
+        return rootNode.getAttributeValue(name);
+
+    }
+
+
+    /**
+     * 変数と条件判定で参照するパラメータ名一覧を取得する。
+     *
+     * @return 変更不可能なパラメータ名一覧
+     */
+    Set<String> getPropertyNames() {
+
+        return propertyNames;
+
+    }
+
+
+    /**
+     * 指定されたエンティティクラスとカーソルのカラム構成に対応する行マッパーを取得する。<br>
+     * <br>
+     * 同じ組み合わせの行マッパーは 1 度だけ作成してキャッシュする。<br>
+     *
+     * @param <T>           エンティティクラス
+     * @param resultClass   エンティティクラス
+     * @param cursor        カラム構成を取得するカーソル
+     * @return 行マッパー
+     * @throws ReflectException 行マッパーの作成に失敗した場合
+     */
+    <T> RowMapper<T> getRowMapper(
+            final Class<T>  resultClass,
+            final Cursor    cursor
+            ) throws ReflectException {
+
+        final RowMapper.Key     key = new RowMapper.Key(resultClass, cursor.getColumnNames());
+
+        // 行マッパーキャッシュでロックする
+        synchronized (rowMappers) {
+
+            @SuppressWarnings("unchecked")
+            RowMapper<T>    rowMapper = (RowMapper<T>)rowMappers.get(key);
+
+            // キャッシュにない場合
+            if (rowMapper == null) {
+
+                // 行マッパーを作成してキャッシュする
+                rowMapper = RowMapper.compile(resultClass, cursor);
+                rowMappers.put(key, rowMapper);
+
+            }
+
+            // 行マッパーを返す
+            return rowMapper;
+
+        }
+
+    }
+
+
+    /**
+     * 指定されたパラメータで条件を評価し、実行するSQLクエリデータを作成する。
+     *
+     * @param parametersMap 条件判定と変数置換に利用するパラメータマップ
+     * @return 実行するSQLクエリデータ
+     */
+    SQLQuery render(
+            final Map<String, Object>   parametersMap
+            ) {
+
+        // ルートクエリデータを作成する
+        final SQLQuery  retQuery = new SQLQuery(rootNode.getType(), rootNode.getAttributes());
+
+        // 参照用SQLの場合は数値を数値リテラルとして追加する
+        retQuery.setNumberLiteralEnabled(SQLQueryType.SELECT.equals(rootNode.getType()));
+
+        // 子ノード分処理をする
+        for (final SQLNode child : rootNode.getChildren()) {
+
+            // テキストノードの場合
+            if (child.isText()) {
+
+                // テキストデータを設定する
+                appendText(retQuery, child, parametersMap);
+
+            } else {
+
+                // 内部ノードを処理する
+                renderNode(child, retQuery, parametersMap);
+
+            }
+
+        }
+
+        // 前後の空白を除去する
+        retQuery.trimSql();
+
+        // 作成したクエリデータを返す
+        return retQuery;
+
+    }
+
+
+    /**
+     * 階層のある内部ノードを評価して親クエリデータへ反映する。
+     *
+     * @param node          評価するノード
+     * @param parentQuery   親クエリデータ
+     * @param parametersMap 検索に利用するパラメータマップ
+     */
+    private static void renderNode(
+            final SQLNode               node,
+            final SQLQuery              parentQuery,
+            final Map<String, Object>   parametersMap
+            ) {
+
+        // 処理中クエリデータを作成する
+        final SQLQuery  procQuery = new SQLQuery(node.getType(), node.getAttributes());
+
+        // 親クエリが参照用SQLの場合、または参照用SQLとして実行する selectKey の場合は数値を数値リテラルとして追加する
+        procQuery.setNumberLiteralEnabled(
+                parentQuery.isNumberLiteralEnabled()
+                || SQLQueryType.SELECT_KEY.equals(procQuery.getType())
+                );
+
+        // 動的宣言の場合
+        if (SQLQueryType.DYNAMIC.equals(procQuery.getType())) {
+
+            // 接頭語が SQLキーワード の場合、
+            // 直前にSQLキーワードが追加されていることにする
+            procQuery.setLastSqlKeywordEnabled(
+                    SQLQuery.isSqlKeyword(procQuery.getAttributeValue(SQLQuery.ATTR_PREPEND))
+                    );
+
+        // selectKeyの場合
+        } else if (SQLQueryType.SELECT_KEY.equals(procQuery.getType())) {
+
+            // サブクエリとして親クエリへ登録する
+            parentQuery.getSubQueries().add(procQuery);
+
+        } else {
+
+            // 処理なし
+
+        }
+
+
+        // 子ノード分処理をする
+        for (final SQLNode child : node.getChildren()) {
+
+            // テキストノードの場合
+            if (child.isText()) {
+
+                // テキストを処理する
+                renderText(child, parentQuery, procQuery, parametersMap);
+
+            } else {
+
+                // 内部ノードを処理する
+                renderNode(child, procQuery, parametersMap);
+
+            }
+
+        }
+
+
+        // selectKeyの場合
+        if (SQLQueryType.SELECT_KEY.equals(procQuery.getType())) {
+
+            // サブクエリとして別に実行するため親クエリへは付加しない
+            return;
+
+        }
+
+        // 処理中クエリにSQLテキストがない場合
+        if (procQuery.getSql().length() == 0) {
+
+            // 処理なし
+            return;
+
+        }
+
+        // 動的宣言の場合
+        if (SQLQueryType.DYNAMIC.equals(procQuery.getType())) {
+
+            // 接頭語を取得する
+            final String    prepend = procQuery.getAttributeValue(SQLQuery.ATTR_PREPEND);
+
+            // 接頭語がある場合
+            if (prepend != null) {
+
+                // 改行を先頭に挿入する
+                insertNewLine(procQuery.getSql());
+
+                // 接頭語を先頭に挿入する
+                procQuery.getSql().insert(0, prepend);
+
+            }
+
+        }
+
+        // 親クエリに改行を付加する
+        addNewLine(parentQuery.getSql());
+
+        // 親クエリに処理中クエリのSQLテキストとバインド値を付加する
+        parentQuery.getSql().append(procQuery.getSql());
+        parentQuery.getBindArgs().addAll(procQuery.getBindArgs());
+
+    }
+
+
+    /**
+     * 内部ノードのテキストを評価する。
+     *
+     * @param node          評価するテキストノード
+     * @param parentQuery   親クエリデータ
+     * @param procQuery     処理中クエリデータ
+     * @param parametersMap 検索に利用するパラメータマップ
+     */
+    private static void renderText(
+            final SQLNode               node,
+            final SQLQuery              parentQuery,
+            final SQLQuery              procQuery,
+            final Map<String, Object>   parametersMap
+            ) {
+
+        // selectKeyの場合
+        if (SQLQueryType.SELECT_KEY.equals(procQuery.getType())) {
+
+            // 処理中クエリへテキストデータを設定する
+            appendText(procQuery, node, parametersMap);
+
+            // 処理終了
+            return;
+
+        }
+
+
+        // 共通パラメータを取得する
+        final String    property        = procQuery.getAttributeValue(SQLQuery.ATTR_PROPERTY);
+        final String    compareValue    = procQuery.getAttributeValue(SQLQuery.ATTR_COMPARE_VALUE);
+        final Object    value           = property == null ? null : parametersMap.get(property);
+        final boolean   judgement;      // 条件判定結果
+
+
+        // 条件種類別処理
+        switch (procQuery.getType()) {
+
+        // nullの場合
+        case IS_NULL:
+
+            // 値が null かどうか
+            judgement = (value == null);
+            break;
+
+
+        // null以外の場合
+        case IS_NOT_NULL:
+
+            // 値が null 以外かどうか
+            judgement = (value != null);
+            break;
+
+
+        // 等しい場合
+        case IS_EQUAL:
+
+            // 値が等しいかどうか
+            judgement = (compareValue != null) && compareValue.equals(String.valueOf(value));
+            break;
+
+
+        // 等しくない場合
+        case IS_NOT_EQUAL:
+
+            // 値が等しくないかどうか
+            judgement = (compareValue != null) && !compareValue.equals(String.valueOf(value));
+            break;
+
+
+        // その他
+        default:
+
+            // 処理中クエリへテキストデータを設定する
+            appendText(procQuery, node, parametersMap);
+
+            // 処理終了
+            return;
+
+        }
+
+
+        // 条件に一致しない場合
+        if (!judgement) {
+
+            // 処理なし
+            return;
+
+        }
+
+        // 親クエリへ条件テキストを追加する
+        addJudgement(parentQuery, procQuery, node, parametersMap);
+
+    }
+
+
+
+
+    /**
+     * コンパイル済みSQLノード。<br>
+     * <br>
+     * テキストノードまたはタグノードのいずれかを表す不変クラス。<br>
+     *
+     * @author Kou
+     *
+     */
+    static final class SQLNode {
+
+
+        /**
+         * ノードのクエリ種別 (テキストノードの場合は null)
+         */
+        private final SQLQueryType          nodeType;
+
+        /**
+         * テキスト (タグノードの場合は null)
+         */
+        private final String                nodeText;
+
+        /**
+         * テキストと変数名を交互に並べたトークン一覧 (タグノードの場合は null)
+         */
+        private final String[]              nodeTokens;
+
+        /**
+         * 属性一覧
+         */
+        private final Map<String, String>   nodeAttributes;
+
+        /**
+         * 子ノード一覧
+         */
+        private final List<SQLNode>         nodeChildren;
+
+
+
+        /**
+         * テキストノードを作成する。
+         *
+         * @param text テキスト
+         */
+        SQLNode(
+                final String    text
+                ) {
+
+            nodeType        = null;
+            nodeText        = text;
+            nodeTokens      = parseTokens(text);
+            nodeAttributes  = Collections.emptyMap();
+            nodeChildren    = Collections.emptyList();
+
+        }
+
+
+        /**
+         * タグノードを作成する。
+         *
+         * @param type          ノードのクエリ種別
+         * @param attributes    属性一覧
+         * @param children      子ノード一覧
+         */
+        SQLNode(
+                final SQLQueryType          type,
+                final Map<String, String>   attributes,
+                final List<SQLNode>         children
+                ) {
+
+            nodeType        = type;
+            nodeText        = null;
+            nodeTokens      = null;
+            nodeAttributes  = Collections.unmodifiableMap(new HashMap<String, String>(attributes));
+            nodeChildren    = Collections.unmodifiableList(new ArrayList<SQLNode>(children));
+
+        }
+
+
+        /**
+         * テキストノードかどうかを取得する。
+         *
+         * @return テキストノードの場合は true
+         */
+        boolean isText() {
+
+            return nodeType == null;
+
+        }
+
+
+        /**
+         * ノードのクエリ種別を取得する。
+         *
+         * @return ノードのクエリ種別
+         */
+        SQLQueryType getType() {
+
+            return nodeType;
+
+        }
+
+
+        /**
+         * テキストを取得する。
+         *
+         * @return テキスト
+         */
+        String getText() {
+
+            return nodeText;
+
+        }
+
+
+        /**
+         * テキストと変数名を交互に並べたトークン一覧を取得する。
+         *
+         * @return トークン一覧
+         */
+        String[] getTokens() {
+
+            return nodeTokens;
+
+        }
+
+
+        /**
+         * 属性一覧を取得する。
+         *
+         * @return 変更不可能な属性一覧
+         */
+        Map<String, String> getAttributes() {
+
+            return nodeAttributes;
+
+        }
+
+
+        /**
+         * 指定した名前の属性値を取得する。
+         *
+         * @param name 属性名
+         * @return 属性値
+         */
+        String getAttributeValue(
+                final String    name
+                ) {
+
+            return nodeAttributes.get(name);
+
+        }
+
+
+        /**
+         * 子ノード一覧を取得する。
+         *
+         * @return 変更不可能な子ノード一覧
+         */
+        List<SQLNode> getChildren() {
+
+            return nodeChildren;
+
+        }
+
+
+    }
+
+
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+
+/**
+ * コンパイル済みステートメントのLRUキャッシュ。<br>
+ * <br>
+ * 1 つのデータベース接続ごとに作成し、<br>
+ * 正規化したSQLをキーにしてコンパイル済みステートメントを保持する。<br>
+ * 容量を超えた場合は最も長く利用されていないステートメントを閉じて破棄する。<br>
+ * <br>
+ * 本クラスはスレッドセーフではないため、利用側で同期を行うこと。<br>
+ *
+ * @author Kou
+ *
+ */
+final class StatementCache {
+
+
+    /**
+     * LinkedHashMapのデフォルト負荷係数
+     */
+    private static final float                          LOAD_FACTOR = 0.75f;
+
+    /**
+     * ステートメントのコンパイル先データベース
+     */
+    private final SQLiteDatabase                        cacheDatabase;
+
+    /**
+     * ステートメントテーブル (アクセス順)
+     */
+    private final LinkedHashMap<String, SQLiteStatement> cacheStatements;
+
+    /**
+     * 最大保持数
+     */
+    private int                                         cacheCapacity;
+
+    /**
+     * キャッシュヒット数
+     */
+    private long                                        hitCount;
+
+    /**
+     * キャッシュミス数
+     */
+    private long                                        missCount;
+
+    /**
+     * 破棄数
+     */
+    private long                                        evictionCount;
+
+
+
+
+    /**
+     * コンパイル済みステートメントのキャッシュを作成する。
+     *
+     * @param database  ステートメントのコンパイル先データベース
+     * @param capacity  最大保持数。0 の場合はキャッシュしない
+     * @throws IllegalArgumentException 最大保持数が 0 より小さい場合
+     */
+    StatementCache(
+            final SQLiteDatabase    database,
+            final int               capacity
+            ) {
+
+        // 最大保持数が不正の場合は例外
+        if (capacity < 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        cacheDatabase   = database;
+        cacheCapacity   = capacity;
+        cacheStatements = new LinkedHashMap<String, SQLiteStatement>(16, LOAD_FACTOR, true);
+
+    }
+
+
+    /**
+     * 指定されたSQLを正規化する。<br>
+     * <br>
+     * 前後の空白を除去したものを正規化したSQLとする。<br>
+     *
+     * @param sql 正規化するSQL
+     * @return 正規化したSQL
+     */
+    static String normalize(
+            final String    sql
+            ) {
+
+        return sql.trim();
+
+    }
+
+
+    /**
+     * 指定されたSQLのコンパイル済みステートメントを取得する。<br>
+     * <br>
+     * キャッシュに存在しない場合は新しくコンパイルしてキャッシュへ追加する。<br>
+     * 最大保持数が 0 の場合は返却したステートメントはキャッシュされないため、<br>
+     * {@link #release(SQLiteStatement)} で解放すること。<br>
+     *
+     * @param sql 正規化済みのSQL
+     * @return コンパイル済みステートメント
+     */
+    SQLiteStatement acquire(
+            final String    sql
+            ) {
+
+        // キャッシュからステートメントを取得する
+        SQLiteStatement     statement = cacheStatements.get(sql);
+
+        // キャッシュにある場合
+        if (statement != null) {
+
+            // ヒット数を加算する
+            hitCount++;
+
+            // キャッシュされたステートメントを返す
+            return statement;
+
+        }
+
+
+        // ミス数を加算する
+        missCount++;
+
+        // ステートメントをコンパイルする
+        statement = cacheDatabase.compileStatement(sql);
+
+        // キャッシュする場合
+        if (cacheCapacity > 0) {
+
+            // キャッシュへ追加する
+            cacheStatements.put(sql, statement);
+
+            // 最大保持数を超えた分を破棄する
+            trimToSize(cacheCapacity);
+
+        }
+
+        // コンパイルしたステートメントを返す
+        return statement;
+
+    }
+
+
+    /**
+     * {@link #acquire(String)} で取得したステートメントの利用を終了する。<br>
+     * <br>
+     * バインド値をクリアし、キャッシュされていないステートメントの場合は閉じる。<br>
+     *
+     * @param statement 利用を終了するステートメント
+     */
+    void release(
+            final SQLiteStatement   statement
+            ) {
+
+        // バインド値をクリアする
+        statement.clearBindings();
+
+        // キャッシュされていない場合
+        if (cacheCapacity == 0) {
+
+            // ステートメントを閉じる
+            statement.close();
+
+        }
+
+    }
+
+
+    /**
+     * 最大保持数を設定する。<br>
+     * <br>
+     * 現在の保持数が新しい最大保持数を超える場合は、<br>
+     * 利用されていない順にステートメントを破棄する。<br>
+     *
+     * @param capacity 最大保持数。0 の場合はキャッシュしない
+     * @throws IllegalArgumentException 最大保持数が 0 より小さい場合
+     */
+    void setCapacity(
+            final int   capacity
+            ) {
+
+        // 最大保持数が不正の場合は例外
+        if (capacity < 0) {
+
+            throw new IllegalArgumentException();
+
+        }
+
+        // 最大保持数を設定する
+        cacheCapacity = capacity;
+
+        // 最大保持数を超えた分を破棄する
+        trimToSize(capacity);
+
+    }
+
+
+    /**
+     * 最大保持数を取得する。
+     *
+     * @return 最大保持数
+     */
+    int getCapacity() {
+
+        return cacheCapacity;
+
+    }
+
+
+    /**
+     * 現在の保持数を取得する。
+     *
+     * @return 現在の保持数
+     */
+    int size() {
+
+        return cacheStatements.size();
+
+    }
+
+
+    /**
+     * キャッシュヒット数を取得する。
+     *
+     * @return キャッシュヒット数
+     */
+    long getHitCount() {
+
+        return hitCount;
+
+    }
+
+
+    /**
+     * キャッシュミス数を取得する。
+     *
+     * @return キャッシュミス数
+     */
+    long getMissCount() {
+
+        return missCount;
+
+    }
+
+
+    /**
+     * 最大保持数を超えたことによる破棄数を取得する。
+     *
+     * @return 破棄数
+     */
+    long getEvictionCount() {
+
+        return evictionCount;
+
+    }
+
+
+    /**
+     * 保持している全ステートメントを閉じて破棄する。
+     *
+     */
+    void clear() {
+
+        // 全ステートメント分処理をする
+        for (final SQLiteStatement statement : cacheStatements.values()) {
+
+            // ステートメントを閉じる
+            statement.close();
+
+        }
+
+        // キャッシュをクリアする
+        cacheStatements.clear();
+
+    }
+
+
+    /**
+     * 保持数が指定数以下になるまで利用されていない順にステートメントを破棄する。
+     *
+     * @param maxSize 保持数の上限
+     */
+    private void trimToSize(
+            final int   maxSize
+            ) {
+
+        final Iterator<Map.Entry<String, SQLiteStatement>>  iterator =
+            cacheStatements.entrySet().iterator();
+
+        // 上限を超えている間繰り返す
+        while ((cacheStatements.size() > maxSize) && iterator.hasNext()) {
+
+            // 最も利用されていないステートメントを取得する
+            final SQLiteStatement   statement = iterator.next().getValue();
+
+            // キャッシュから削除する
+            iterator.remove();
+
+            // ステートメントを閉じる
+            statement.close();
+
+            // 破棄数を加算する
+            evictionCount++;
+
+        }
+
+    }
+
+
+}
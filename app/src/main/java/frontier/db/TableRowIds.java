@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.util.Arrays;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+
+/**
+ * テーブルのROWID存在判定処理。<br>
+ * <br>
+ * 指定された最大ROWID以下で、テーブルに存在するROWIDかどうかを判定する。<br>
+ * レコード数が {@link #MAX_LOADED_ROW_COUNT} 以下の場合はROWIDをソート済みの long 配列へ読み込み、<br>
+ * 二分探索で判定する。それより多い場合はROWIDを指定した検索文で 1 件ずつ判定するため、<br>
+ * テーブルのレコード数に関わらず使用メモリは一定となる。<br>
+ * <br>
+ * 処理開始時の最大ROWIDを指定することで、処理中に追加されたレコードは存在しないと判定する。<br>
+ * 本クラスはスレッドセーフではない。<br>
+ *
+ * @author Kou
+ *
+ */
+final class TableRowIds {
+
+
+    /**
+     * ROWIDを配列へ読み込む最大レコード数 (512KB)
+     */
+    private static final int        MAX_LOADED_ROW_COUNT    = 65536;
+
+    /**
+     * ROWID一覧取得SQL<br>
+     * <br>
+     * 1$ - テーブル名<br>
+     */
+    private static final String     SQL_ROWID_LIST          =
+        "SELECT ROWID FROM main.%1$s WHERE ROWID <= ? ORDER BY ROWID";
+
+    /**
+     * ROWID存在判定SQL<br>
+     * <br>
+     * 1$ - テーブル名<br>
+     */
+    private static final String     SQL_ROWID_EXISTS        =
+        "SELECT COUNT(*) FROM main.%1$s WHERE ROWID = ?";
+
+
+
+    /**
+     * ソート済みのROWID一覧 (検索文で判定する場合は null)
+     */
+    private final long[]            rowIds;
+
+    /**
+     * 判定対象の最大ROWID
+     */
+    private final long              maxRowId;
+
+    /**
+     * ROWID存在判定文 (配列で判定する場合は null)
+     */
+    private final SQLiteStatement   existsStatement;
+
+
+
+
+    /**
+     * 指定されたテーブルのROWID存在判定処理を作成する。
+     *
+     * @param db            判定するデータベース
+     * @param table         判定するテーブル情報
+     * @param maxTableRowId 判定対象の最大ROWID (処理開始時の最大ROWID)
+     */
+    TableRowIds(
+            final SQLiteDatabase    db,
+            final FRDatabaseTable   table,
+            final long              maxTableRowId
+            ) {
+
+        maxRowId = maxTableRowId;
+
+        // レコード数が少ない場合
+        if (table.getRecordCount() <= MAX_LOADED_ROW_COUNT) {
+
+            long[]      loadRowIds  = new long[Math.max(table.getRecordCount(), 1)];
+            int         loadCount   = 0;
+            Cursor      cursor      = null;
+
+            try {
+
+                // ROWIDをソート済みで取得する
+                cursor = db.rawQuery(
+                        String.format(SQL_ROWID_LIST, table.getName()),
+                        new String[] {Long.toString(maxTableRowId)}
+                        );
+
+                // 全レコード分繰り返す
+                while (cursor.moveToNext()) {
+
+                    // 配列が不足している場合
+                    if (loadCount == loadRowIds.length) {
+
+                        // 配列を拡張する
+                        loadRowIds = resize(loadRowIds, loadCount * 2);
+
+                    }
+
+                    // ROWIDを追加する
+                    loadRowIds[loadCount++] = cursor.getLong(0);
+
+                }
+
+            } finally {
+
+                // カーソルがある場合
+                if (cursor != null) {
+
+                    // カーソルを閉じる
+                    cursor.close();
+
+                }
+
+            }
+
+            rowIds          = (loadCount == loadRowIds.length) ? loadRowIds : resize(loadRowIds, loadCount);
+            existsStatement = null;
+
+        } else {
+
+            rowIds          = null;
+            existsStatement = db.compileStatement(String.format(SQL_ROWID_EXISTS, table.getName()));
+
+        }
+
+    }
+
+
+    /**
+     * 指定されたROWIDが判定対象の最大ROWID以下で、テーブルに存在するかどうかを取得する。
+     *
+     * @param rowId 判定するROWID
+     * @return 存在する場合は true
+     */
+    boolean contains(
+            final long  rowId
+            ) {
+
+        // 判定対象の最大ROWIDより大きい場合
+        if (rowId > maxRowId) {
+
+            return false;
+
+        }
+
+        // ROWID一覧がある場合
+        if (rowIds != null) {
+
+            return Arrays.binarySearch(rowIds, rowId) >= 0;
+
+        }
+
+        // ROWIDを指定して検索する
+        existsStatement.bindLong(1, rowId);
+        return existsStatement.simpleQueryForLong() > 0;
+
+    }
+
+
+    /**
+     * 指定された配列を指定された長さへ変更した配列を作成する。
+     *
+     * @param source    変更元の配列
+     * @param length    変更後の長さ
+     * @return 変更した配列
+     */
+    private static long[] resize(
+            final long[]    source,
+            final int       length
+            ) {
+
+        final long[]    retArray = new long[length];
+
+        // 要素をコピーする
+        System.arraycopy(source, 0, retArray, 0, Math.min(source.length, length));
+
+        return retArray;
+
+    }
+
+
+    /**
+     * 判定に利用したリソースを解放する。
+     */
+    void close() {
+
+        // 判定文がある場合
+        if (existsStatement != null) {
+
+            // 判定文を閉じる
+            existsStatement.close();
+
+        }
+
+    }
+
+
+}
@@ -0,0 +1,602 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+
+/**
+ * データベース更新の進捗記録。<br>
+ * <br>
+ * 更新中の新しいデータベース内にテーブルごとの処理済みROWIDを記録し、<br>
+ * 処理が中断された場合に次回の更新を記録した位置から再開できるようにする。<br>
+ * 記録は更新対象のデータと同じトランザクション内で行う。<br>
+ * <br>
+ * 更新元の古いデータベースのバージョンとファイル状態も記録し、<br>
+ * 中断後に古いデータベースが変更された場合は再開しない。<br>
+ * <br>
+ * 本クラスはスレッドセーフではない。<br>
+ *
+ * @author Kou
+ *
+ */
+final class UpgradeJournal {
+
+
+    /**
+     * 処理を開始していないテーブルの処理済みROWID
+     */
+    static final long               NOT_STARTED             = Long.MIN_VALUE;
+
+    /**
+     * 更新元情報テーブル名
+     */
+    private static final String     TABLE_SOURCE            = "frontier_upgrade_source";
+
+    /**
+     * 進捗記録テーブル名
+     */
+    private static final String     TABLE_PROGRESS          = "frontier_upgrade_progress";
+
+    /**
+     * テーブル存在確認SQL
+     */
+    private static final String     SQL_TABLE_EXISTS        =
+        "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = '" + TABLE_SOURCE + "'";
+
+    /**
+     * 更新元情報テーブル作成SQL
+     */
+    private static final String     SQL_CREATE_SOURCE       =
+        "CREATE TABLE " + TABLE_SOURCE + " (version INTEGER NOT NULL, stamp TEXT NOT NULL)";
+
+    /**
+     * 進捗記録テーブル作成SQL
+     */
+    private static final String     SQL_CREATE_PROGRESS     =
+        "CREATE TABLE " + TABLE_PROGRESS + " ("
+        + "table_name TEXT PRIMARY KEY NOT NULL, "
+        + "last_rowid INTEGER NOT NULL, "
+        + "max_rowid INTEGER NOT NULL, "
+        + "done INTEGER NOT NULL)";
+
+    /**
+     * 更新元情報追加SQL
+     */
+    private static final String     SQL_INSERT_SOURCE       =
+        "INSERT INTO " + TABLE_SOURCE + " (version, stamp) VALUES (?, ?)";
+
+    /**
+     * 更新元情報取得SQL
+     */
+    private static final String     SQL_SELECT_SOURCE       =
+        "SELECT version, stamp FROM " + TABLE_SOURCE;
+
+    /**
+     * 進捗記録一覧取得SQL
+     */
+    private static final String     SQL_SELECT_PROGRESS     =
+        "SELECT table_name, last_rowid, max_rowid, done FROM " + TABLE_PROGRESS;
+
+    /**
+     * 進捗記録SQL
+     */
+    private static final String     SQL_SAVE_PROGRESS       =
+        "INSERT OR REPLACE INTO " + TABLE_PROGRESS
+        + " (table_name, last_rowid, max_rowid, done) VALUES (?, ?, ?, ?)";
+
+    /**
+     * 更新元情報テーブル削除SQL
+     */
+    private static final String     SQL_DROP_SOURCE         = "DROP TABLE " + TABLE_SOURCE;
+
+    /**
+     * 進捗記録テーブル削除SQL
+     */
+    private static final String     SQL_DROP_PROGRESS       = "DROP TABLE " + TABLE_PROGRESS;
+
+    /**
+     * WALファイルの接尾語
+     */
+    private static final String     WAL_FILE_SUFFIX         = "-wal";
+
+
+
+    /**
+     * 記録先のデータベース
+     */
+    private final SQLiteDatabase            db;
+
+    /**
+     * テーブル名をキーとした進捗一覧
+     */
+    private final Map<String, Progress>     progressMap     = new HashMap<String, Progress>();
+
+    /**
+     * 進捗記録文
+     */
+    private SQLiteStatement                 saveStatement;
+
+    /**
+     * 記録済みの進捗記録を開いたかどうか
+     */
+    private boolean                         resumed;
+
+
+
+
+    /**
+     * 進捗記録を作成する。
+     *
+     * @param journalDB 記録先のデータベース
+     */
+    private UpgradeJournal(
+            final SQLiteDatabase    journalDB
+            ) {
+
+        db = journalDB;
+
+    }
+
+
+    /**
+     * 指定されたデータベースの進捗記録を開く。<br>
+     * <br>
+     * 進捗記録がない場合は新しく作成する。<br>
+     *
+     * @param journalDB     記録先のデータベース
+     * @param oldVersion    古いデータベースのバージョン
+     * @param oldDBPath     古いデータベースのファイルパス
+     * @return 進捗記録。記録済みの更新元情報と一致しない場合は null
+     */
+    static UpgradeJournal open(
+            final SQLiteDatabase    journalDB,
+            final int               oldVersion,
+            final String            oldDBPath
+            ) {
+
+        final String            stamp   = createSourceStamp(oldDBPath);
+        final UpgradeJournal    journal = new UpgradeJournal(journalDB);
+
+
+        // 進捗記録がない場合
+        if (!exists(journalDB)) {
+
+            journalDB.beginTransaction();
+
+            try {
+
+                // 進捗記録テーブルを作成する
+                journalDB.execSQL(SQL_CREATE_SOURCE);
+                journalDB.execSQL(SQL_CREATE_PROGRESS);
+                journalDB.execSQL(SQL_INSERT_SOURCE, new Object[] {oldVersion, stamp});
+
+                journalDB.setTransactionSuccessful();
+
+            } finally {
+
+                journalDB.endTransaction();
+
+            }
+
+            return journal;
+
+        }
+
+
+        // 更新元情報が一致しない場合
+        if (!matchesSource(journalDB, oldVersion, stamp)) {
+
+            return null;
+
+        }
+
+        journal.resumed = true;
+
+        Cursor  cursor = null;
+
+        try {
+
+            // 進捗記録一覧を読み込む
+            cursor = journalDB.rawQuery(SQL_SELECT_PROGRESS, null);
+
+            // 全レコード分繰り返す
+            while (cursor.moveToNext()) {
+
+                journal.progressMap.put(
+                        cursor.getString(0),
+                        new Progress(cursor.getLong(1), cursor.getLong(2), cursor.getInt(3) != 0)
+                        );
+
+            }
+
+        } finally {
+
+            // カーソルがある場合
+            if (cursor != null) {
+
+                cursor.close();
+
+            }
+
+        }
+
+        return journal;
+
+    }
+
+
+    /**
+     * 指定された作業用データベースの更新を再開できるかどうかを取得する。
+     *
+     * @param oldDBPath     古いデータベースのファイルパス
+     * @param newDBPath     更新中の新しいデータベースのファイルパス
+     * @return 進捗記録があり、古いデータベースが記録時から変更されていない場合は true
+     */
+    static boolean canResume(
+            final String    oldDBPath,
+            final String    newDBPath
+            ) {
+
+        SQLiteDatabase      oldDB   = null;     // 古いデータベース
+        SQLiteDatabase      newDB   = null;     // 新しいデータベース
+
+
+        try {
+
+            // 古いデータベースを取得する
+            oldDB = SQLiteDatabase.openDatabase(
+                    oldDBPath,
+                    null,
+                    SQLiteDatabase.OPEN_READONLY
+                    );
+
+            // 更新中の新しいデータベースを取得する
+            // (中断時のジャーナルを戻すため書き込み可能で開く)
+            newDB = SQLiteDatabase.openDatabase(
+                    newDBPath,
+                    null,
+                    SQLiteDatabase.OPEN_READWRITE
+                    );
+
+            // 進捗記録があり、更新元情報が一致するかどうかを返す
+            return exists(newDB)
+                && matchesSource(newDB, oldDB.getVersion(), createSourceStamp(oldDBPath));
+
+        } catch (final Throwable e) {
+
+            e.printStackTrace();
+
+            // 再開不可
+            return false;
+
+        } finally {
+
+            // 新しいデータベースがある場合
+            if (newDB != null) {
+
+                newDB.close();
+
+            }
+
+            // 古いデータベースがある場合
+            if (oldDB != null) {
+
+                oldDB.close();
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 記録済みの進捗記録を開いたかどうかを取得する。
+     *
+     * @return 中断した更新を再開する場合は true
+     */
+    boolean isResumed() {
+
+        return resumed;
+
+    }
+
+
+    /**
+     * 指定されたテーブルの処理が完了しているかどうかを取得する。
+     *
+     * @param tableName テーブル名
+     * @return 完了している場合は true
+     */
+    boolean isDone(
+            final String    tableName
+            ) {
+
+        final Progress  progress = progressMap.get(tableName);
+
+        return (progress != null) && progress.done;
+
+    }
+
+
+    /**
+     * 指定されたテーブルの処理を開始しているかどうかを取得する。
+     *
+     * @param tableName テーブル名
+     * @return 開始している場合は true
+     */
+    boolean isStarted(
+            final String    tableName
+            ) {
+
+        return progressMap.containsKey(tableName);
+
+    }
+
+
+    /**
+     * 指定されたテーブルの処理済みの古いデータベースのROWIDを取得する。
+     *
+     * @param tableName テーブル名
+     * @return 処理済みのROWID。開始していない場合は {@link #NOT_STARTED}
+     */
+    long getLastRowId(
+            final String    tableName
+            ) {
+
+        final Progress  progress = progressMap.get(tableName);
+
+        return (progress == null) ? NOT_STARTED : progress.lastRowId;
+
+    }
+
+
+    /**
+     * 指定されたテーブルの処理開始時の新しいデータベースの最大ROWIDを取得する。
+     *
+     * @param tableName     テーブル名
+     * @param defaultValue  開始していない場合に返す値
+     * @return 処理開始時の最大ROWID
+     */
+    long getMaxRowId(
+            final String    tableName,
+            final long      defaultValue
+            ) {
+
+        final Progress  progress = progressMap.get(tableName);
+
+        return (progress == null) ? defaultValue : progress.maxRowId;
+
+    }
+
+
+    /**
+     * 指定されたテーブルの進捗を記録する。<br>
+     * <br>
+     * 記録対象のデータと同じトランザクション内で呼び出すこと。<br>
+     *
+     * @param tableName テーブル名
+     * @param lastRowId 処理済みの古いデータベースのROWID
+     * @param maxRowId  処理開始時の新しいデータベースの最大ROWID
+     * @param done      テーブルの処理が完了した場合は true
+     */
+    void save(
+            final String    tableName,
+            final long      lastRowId,
+            final long      maxRowId,
+            final boolean   done
+            ) {
+
+        // 進捗記録文がない場合
+        if (saveStatement == null) {
+
+            // 進捗記録文をコンパイルする
+            saveStatement = db.compileStatement(SQL_SAVE_PROGRESS);
+
+        }
+
+        saveStatement.bindString(1, tableName);
+        saveStatement.bindLong(2, lastRowId);
+        saveStatement.bindLong(3, maxRowId);
+        saveStatement.bindLong(4, done ? 1 : 0);
+        saveStatement.execute();
+
+        progressMap.put(tableName, new Progress(lastRowId, maxRowId, done));
+
+    }
+
+
+    /**
+     * 進捗記録テーブルを削除する。<br>
+     * <br>
+     * 全テーブルの処理が完了した後、トランザクション内で呼び出すこと。<br>
+     */
+    void drop() {
+
+        // 進捗記録文を閉じる
+        close();
+
+        db.execSQL(SQL_DROP_PROGRESS);
+        db.execSQL(SQL_DROP_SOURCE);
+        progressMap.clear();
+
+    }
+
+
+    /**
+     * 進捗記録に利用したリソースを解放する。
+     */
+    void close() {
+
+        // 進捗記録文がある場合
+        if (saveStatement != null) {
+
+            saveStatement.close();
+            saveStatement = null;
+
+        }
+
+    }
+
+
+    /**
+     * 指定されたデータベースに進捗記録があるかどうかを取得する。
+     *
+     * @param journalDB 確認するデータベース
+     * @return 進捗記録がある場合は true
+     */
+    private static boolean exists(
+            final SQLiteDatabase    journalDB
+            ) {
+
+        final SQLiteStatement   statement = journalDB.compileStatement(SQL_TABLE_EXISTS);
+
+        try {
+
+            return statement.simpleQueryForLong() > 0;
+
+        } finally {
+
+            statement.close();
+
+        }
+
+    }
+
+
+    /**
+     * 記録済みの更新元情報が指定された情報と一致するかどうかを取得する。
+     *
+     * @param journalDB     確認するデータベース
+     * @param oldVersion    古いデータベースのバージョン
+     * @param stamp         古いデータベースのファイル状態
+     * @return 一致する場合は true
+     */
+    private static boolean matchesSource(
+            final SQLiteDatabase    journalDB,
+            final int               oldVersion,
+            final String            stamp
+            ) {
+
+        Cursor  cursor = null;
+
+        try {
+
+            cursor = journalDB.rawQuery(SQL_SELECT_SOURCE, null);
+
+            // 更新元情報がない場合
+            if (!cursor.moveToFirst()) {
+
+                return false;
+
+            }
+
+            return (cursor.getInt(0) == oldVersion) && stamp.equals(cursor.getString(1));
+
+        } finally {
+
+            // カーソルがある場合
+            if (cursor != null) {
+
+                cursor.close();
+
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 指定されたデータベースファイルの状態を表す文字列を作成する。<br>
+     * <br>
+     * データベースファイルとWALファイルのサイズと更新日時から作成する。<br>
+     *
+     * @param dbPath データベースのファイルパス
+     * @return ファイルの状態を表す文字列
+     */
+    private static String createSourceStamp(
+            final String    dbPath
+            ) {
+
+        final File      dbFile  = new File(dbPath);
+        final File      walFile = new File(dbPath + WAL_FILE_SUFFIX);
+
+        return dbFile.length() + ":" + dbFile.lastModified()
+            + ":" + walFile.length() + ":" + walFile.lastModified();
+
+    }
+
+
+
+
+    /**
+     * テーブルごとの進捗。
+     *
+     * @author Kou
+     *
+     */
+    private static final class Progress {
+
+
+        /**
+         * 処理済みの古いデータベースのROWID
+         */
+        final long      lastRowId;
+
+        /**
+         * 処理開始時の新しいデータベースの最大ROWID
+         */
+        final long      maxRowId;
+
+        /**
+         * テーブルの処理が完了したかどうか
+         */
+        final boolean   done;
+
+
+
+        /**
+         * 進捗を作成する。
+         *
+         * @param argLastRowId  処理済みの古いデータベースのROWID
+         * @param argMaxRowId   処理開始時の新しいデータベースの最大ROWID
+         * @param argDone       テーブルの処理が完了したかどうか
+         */
+        Progress(
+                final long      argLastRowId,
+                final long      argMaxRowId,
+                final boolean   argDone
+                ) {
+
+            lastRowId   = argLastRowId;
+            maxRowId    = argMaxRowId;
+            done        = argDone;
+
+        }
+
+
+    }
+
+
+}
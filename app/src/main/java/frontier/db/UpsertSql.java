@@ -0,0 +1,878 @@
+/*
+ * Copyright (C) 2017 kkoudev.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package frontier.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import frontier.db.FRDatabaseSqlMapper.SQLQuery;
+
+
+/**
+ * UPSERT文の実行処理。<br>
+ * <br>
+ * {@code <upsert>} に定義された {@code INSERT INTO テーブル (カラム, ...) VALUES (値, ...)} を、<br>
+ * 競合対象カラムの値が一致する行がある場合は更新し、ない場合は追加する。<br>
+ * SQLiteが 3.24.0 以降の場合は<br>
+ * {@code ON CONFLICT (競合対象) DO UPDATE SET カラム = excluded.カラム, ...} を付加して実行する。<br>
+ * それより前のSQLiteの場合は、競合対象カラムを条件とした UPDATE文を実行し、<br>
+ * 更新した行がなければ INSERT文を実行することで同じ結果とする。<br>
+ * <br>
+ * {@code INSERT OR REPLACE} は既存行を削除してから追加するため、<br>
+ * 指定していないカラムの値が初期値へ戻り、ROWIDの変更や ON DELETE の連鎖が発生する。<br>
+ * そのため置換が明示的に指定された場合のみ利用する。<br>
+ * <br>
+ * 作成後は不変のため、複数スレッドから同時に利用できる。<br>
+ *
+ * @author Kou
+ *
+ */
+final class UpsertSql {
+
+
+    /**
+     * ON CONFLICT句に対応したSQLiteのバージョン番号 (3.24.0)
+     */
+    private static final int        SQLITE_VERSION_ON_CONFLICT = 3024000;
+
+    /**
+     * INSERT文の先頭部分の検出パターン
+     */
+    private static final Pattern    INSERT_HEAD_PATTERN =
+        Pattern.compile("^INSERT\\s+(OR\\s+\\w+\\s+)?INTO\\s+", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * VALUES句の検出パターン
+     */
+    private static final Pattern    VALUES_PATTERN =
+        Pattern.compile("^VALUES\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * ON CONFLICT句の検出パターン
+     */
+    private static final Pattern    ON_CONFLICT_PATTERN =
+        Pattern.compile("\\bON\\s+CONFLICT\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 重複時に置換するINSERT文の先頭部分
+     */
+    private static final String     INSERT_OR_REPLACE = "INSERT OR REPLACE INTO ";
+
+    /**
+     * エラー文言 : INSERT文ではない
+     */
+    private static final String     ERROR_NOT_INSERT =
+        "The upsert statement should be an INSERT statement.";
+
+    /**
+     * エラー文言 : 競合対象カラムがない
+     */
+    private static final String     ERROR_NO_CONFLICT_TARGET =
+        "The upsert statement needs the 'conflictTarget' attribute or replace=\"true\".";
+
+    /**
+     * エラー文言 : 変換できないINSERT文
+     */
+    private static final String     ERROR_ILLEGAL_INSERT =
+        "The upsert statement should be 'INSERT INTO table (columns) VALUES (values)'"
+        + " and the columns should contain every conflict target column.";
+
+
+
+    /**
+     * 競合対象カラム一覧 (ON CONFLICT句の括弧内。ない場合は null)
+     */
+    private final String            conflictTarget;
+
+    /**
+     * 競合対象カラム名一覧 (比較用に正規化した名前)
+     */
+    private final List<String>      conflictColumns;
+
+    /**
+     * ON CONFLICT句を利用するかどうか
+     */
+    private final boolean           onConflictSupported;
+
+    /**
+     * INSERT OR REPLACE を利用するかどうか
+     */
+    private final boolean           replaceEnabled;
+
+
+
+
+    /**
+     * UPSERT文の実行処理を作成する。
+     *
+     * @param target                競合対象カラム一覧 (カンマ区切り)。ない場合は null
+     * @param replace               INSERT OR REPLACE で置換する場合は true
+     * @param sqliteVersionNumber   SQLiteのバージョン番号
+     */
+    UpsertSql(
+            final String    target,
+            final boolean   replace,
+            final int       sqliteVersionNumber
+            ) {
+
+        final List<String>  columns = new ArrayList<String>();
+
+        // 競合対象カラムがある場合
+        if ((target != null) && (target.trim().length() > 0)) {
+
+            // 全カラム分処理をする
+            for (final String column : target.split(",")) {
+
+                // 正規化したカラム名を追加する
+                columns.add(normalizeColumn(column));
+
+            }
+
+        }
+
+        conflictTarget      = columns.isEmpty() ? null : target.trim();
+        conflictColumns     = columns;
+        replaceEnabled      = replace;
+        onConflictSupported = sqliteVersionNumber >= SQLITE_VERSION_ON_CONFLICT;
+
+    }
+
+
+    /**
+     * 指定されたINSERT文をUPSERT文として実行する。<br>
+     * <br>
+     * 既に競合時の処理が指定されている場合はそのまま実行する。<br>
+     * UPDATE文と INSERT文に分けて実行する場合、自動トランザクション処理が有効であれば<br>
+     * 2 つの文を 1 つのトランザクションで実行する。<br>
+     *
+     * @param session           実行するDBアクセスセッション
+     * @param sql               実行するINSERT文
+     * @param bindArgs          SQL内のバインド変数へ設定する値一覧
+     * @param autoTransaction   自動トランザクション処理を有効にするかどうか
+     * @return 追加または更新した行数
+     * @throws IllegalStateException UPSERT文として実行できない場合
+     */
+    int execute(
+            final FRDatabaseSession session,
+            final String            sql,
+            final Object[]          bindArgs,
+            final boolean           autoTransaction
+            ) {
+
+        final String    insertSql   = SQLQuery.trimStatementEnd(sql);   // 文終端を除去したINSERT文
+        final Matcher   headMatcher = INSERT_HEAD_PATTERN.matcher(insertSql);
+
+        // INSERT文ではない場合は例外
+        if (!headMatcher.find()) {
+
+            throw new IllegalStateException(ERROR_NOT_INSERT);
+
+        }
+
+        // 競合時の処理が既に指定されている場合
+        if ((headMatcher.group(1) != null) || ON_CONFLICT_PATTERN.matcher(insertSql).find()) {
+
+            // そのまま実行する
+            return session.executeUpdateDelete(insertSql, bindArgs, autoTransaction);
+
+        }
+
+        // 置換が指定されている場合
+        if (replaceEnabled) {
+
+            // INSERT OR REPLACE 文へ変換して実行する
+            return session.executeUpdateDelete(
+                    INSERT_OR_REPLACE + insertSql.substring(headMatcher.end()),
+                    bindArgs,
+                    autoTransaction
+                    );
+
+        }
+
+        // 競合対象カラムがない場合は例外
+        if (conflictTarget == null) {
+
+            throw new IllegalStateException(ERROR_NO_CONFLICT_TARGET);
+
+        }
+
+
+        final InsertParts   parts = InsertParts.parse(insertSql, headMatcher.end(), conflictColumns);
+
+        // 分解できないINSERT文の場合は例外
+        if (parts == null) {
+
+            throw new IllegalStateException(ERROR_ILLEGAL_INSERT);
+
+        }
+
+        // ON CONFLICT句を利用する場合
+        if (onConflictSupported) {
+
+            // ON CONFLICT句を付加して実行する
+            return session.executeUpdateDelete(
+                    appendOnConflict(insertSql, parts),
+                    bindArgs,
+                    autoTransaction
+                    );
+
+        }
+
+        // 自動トランザクション処理が無効の場合
+        if (!autoTransaction) {
+
+            // 呼び出し元のトランザクション内で実行する
+            return executeEmulation(session, insertSql, parts, bindArgs);
+
+        }
+
+        // トランザクションを開始する
+        session.beginTransaction();
+
+        try {
+
+            // UPDATE文と INSERT文に分けて実行する
+            final int   result = executeEmulation(session, insertSql, parts, bindArgs);
+
+            // トランザクション成功とする
+            session.setTransactionSuccessful();
+
+            // 実行結果を返す
+            return result;
+
+        } finally {
+
+            // トランザクションを終了する
+            session.endTransaction();
+
+        }
+
+    }
+
+
+    /**
+     * ON CONFLICT句に対応していないSQLiteで、UPSERT文と同じ結果となるように実行する。<br>
+     * <br>
+     * 競合対象カラム以外のカラムがある場合は、競合対象カラムを条件とした UPDATE文を実行し、<br>
+     * 更新した行がなければ INSERT文を実行する。<br>
+     * 全カラムが競合対象カラムの場合は、一致する行がない場合のみ追加する INSERT文を実行する。<br>
+     *
+     * @param session   実行するDBアクセスセッション
+     * @param insertSql 実行するINSERT文 (末尾の文終端は除去済み)
+     * @param parts     INSERT文の構成要素
+     * @param bindArgs  SQL内のバインド変数へ設定する値一覧
+     * @return 追加または更新した行数
+     */
+    private int executeEmulation(
+            final FRDatabaseSession session,
+            final String            insertSql,
+            final InsertParts       parts,
+            final Object[]          bindArgs
+            ) {
+
+        final StringBuilder     whereClause = new StringBuilder();          // 競合対象カラムの条件
+        final List<Object>      whereArgs   = new ArrayList<Object>();      // 条件のバインド値一覧
+
+        // 競合対象カラム分処理をする
+        for (final String conflictColumn : conflictColumns) {
+
+            final int   index = parts.indexOfColumn(conflictColumn);
+
+            // 区切りを追加する
+            if (whereClause.length() > 0) {
+
+                whereClause.append(" AND ");
+
+            }
+
+            // 挿入予定の値と一致する条件を追加する
+            whereClause.append(parts.columns.get(index))
+                       .append(" = ")
+                       .append(parts.values.get(index));
+            parts.addBindArgs(index, bindArgs, whereArgs);
+
+        }
+
+
+        final StringBuilder     setClause   = new StringBuilder();          // SET句
+        final List<Object>      updateArgs  = new ArrayList<Object>();      // UPDATE文のバインド値一覧
+
+        // 全カラム分処理をする
+        for (int i = 0; i < parts.columns.size(); i++) {
+
+            // 競合対象カラムの場合は更新しない
+            if (conflictColumns.contains(normalizeColumn(parts.columns.get(i)))) {
+
+                continue;
+
+            }
+
+            // 区切りを追加する
+            if (setClause.length() > 0) {
+
+                setClause.append(", ");
+
+            }
+
+            // 挿入予定の値で更新する
+            setClause.append(parts.columns.get(i))
+                     .append(" = ")
+                     .append(parts.values.get(i));
+            parts.addBindArgs(i, bindArgs, updateArgs);
+
+        }
+
+
+        // 更新するカラムがない場合
+        if (setClause.length() == 0) {
+
+            final List<Object>  insertArgs = new ArrayList<Object>();
+
+            // 全カラムの値のバインド値を追加する
+            for (int i = 0; i < parts.columns.size(); i++) {
+
+                parts.addBindArgs(i, bindArgs, insertArgs);
+
+            }
+
+            insertArgs.addAll(whereArgs);
+
+            // 一致する行がない場合のみ追加する
+            return session.executeUpdateDelete(
+                    insertSql.substring(0, parts.valuesStart)
+                    + "SELECT " + parts.joinValues()
+                    + " WHERE NOT EXISTS (SELECT 1 FROM " + parts.table + " WHERE " + whereClause + ")",
+                    insertArgs.toArray(),
+                    false
+                    );
+
+        }
+
+        updateArgs.addAll(whereArgs);
+
+        // 一致する行を更新する
+        final int   updated = session.executeUpdateDelete(
+                "UPDATE " + parts.table + " SET " + setClause + " WHERE " + whereClause,
+                updateArgs.toArray(),
+                false
+                );
+
+        // 更新した行がある場合
+        if (updated > 0) {
+
+            return updated;
+
+        }
+
+        // 一致する行がないため追加する
+        return (session.executeInsert(insertSql, bindArgs, false) == -1) ? 0 : 1;
+
+    }
+
+
+    /**
+     * 指定されたINSERT文へ ON CONFLICT句を付加する。
+     *
+     * @param insertSql 付加先のINSERT文 (末尾の文終端は除去済み)
+     * @param parts     INSERT文の構成要素
+     * @return ON CONFLICT句を付加したSQL
+     */
+    private String appendOnConflict(
+            final String        insertSql,
+            final InsertParts   parts
+            ) {
+
+        final StringBuilder     setClause = new StringBuilder();   // SET句
+
+        // 全カラム分処理をする
+        for (final String name : parts.columns) {
+
+            // 競合対象カラムの場合
+            if (conflictColumns.contains(normalizeColumn(name))) {
+
+                // 更新しない
+                continue;
+
+            }
+
+            // 区切りを追加する
+            if (setClause.length() > 0) {
+
+                setClause.append(", ");
+
+            }
+
+            // 競合時に挿入予定の値で更新する
+            setClause.append(name)
+                     .append(" = excluded.")
+                     .append(name);
+
+        }
+
+
+        final StringBuilder     retSql = new StringBuilder(insertSql.length() + setClause.length() + 48);
+
+        // ON CONFLICT句を付加する
+        retSql.append(insertSql)
+              .append("\nON CONFLICT (")
+              .append(conflictTarget)
+              .append(')');
+
+        // 更新するカラムがない場合
+        if (setClause.length() == 0) {
+
+            retSql.append(" DO NOTHING");
+
+        } else {
+
+            retSql.append(" DO UPDATE SET ")
+                  .append(setClause);
+
+        }
+
+        // 作成したSQLを返す
+        return retSql.toString();
+
+    }
+
+
+    /**
+     * 比較用にカラム名を正規化する。<br>
+     * <br>
+     * 前後の空白と識別子の引用符を除去し、小文字へ変換する。<br>
+     *
+     * @param column カラム名
+     * @return 正規化したカラム名
+     */
+    private static String normalizeColumn(
+            final String    column
+            ) {
+
+        final String    name = column.trim();
+
+        // 引用符で囲まれている場合
+        if ((name.length() >= 2)
+                && ("\"`[".indexOf(name.charAt(0)) >= 0)
+                && ("\"`]".indexOf(name.charAt(name.length() - 1)) >= 0)) {
+
+            // 引用符を除去する
+            return name.substring(1, name.length() - 1).toLowerCase();
+
+        }
+
+        // 小文字へ変換して返す
+        return name.toLowerCase();
+
+    }
+
+
+    /**
+     * 指定された範囲の引用符外にあるバインド変数の数を取得する。
+     *
+     * @param sql   対象のSQL文
+     * @param start 開始位置
+     * @param end   終了位置
+     * @return バインド変数の数
+     */
+    private static int countBindVariables(
+            final String    sql,
+            final int       start,
+            final int       end
+            ) {
+
+        char        quote   = 0;    // 処理中の引用符 (引用符外の場合は 0)
+        int         count   = 0;    // バインド変数の数
+
+        // 範囲内の全文字分処理をする
+        for (int i = start; i < end; i++) {
+
+            final char  c = sql.charAt(i);
+
+            // 引用符内の場合
+            if (quote != 0) {
+
+                // 引用符の終了の場合
+                if (c == quote) {
+
+                    quote = 0;
+
+                }
+
+            } else if ((c == '\'') || (c == '"') || (c == '`')) {
+
+                quote = c;
+
+            } else if (c == '[') {
+
+                quote = ']';
+
+            } else if (c == '?') {
+
+                count++;
+
+            }
+
+        }
+
+        return count;
+
+    }
+
+
+
+    /**
+     * INSERT文の構成要素。<br>
+     * <br>
+     * {@code INSERT INTO テーブル (カラム, ...) VALUES (値, ...)} を<br>
+     * テーブル名、カラム一覧、カラムごとの値の式とバインド変数の位置に分解する。<br>
+     *
+     * @author Kou
+     *
+     */
+    private static final class InsertParts {
+
+
+        /**
+         * テーブル名
+         */
+        final String            table;
+
+        /**
+         * VALUES句の開始位置
+         */
+        final int               valuesStart;
+
+        /**
+         * カラム一覧
+         */
+        final List<String>      columns     = new ArrayList<String>();
+
+        /**
+         * カラムごとの値の式一覧
+         */
+        final List<String>      values      = new ArrayList<String>();
+
+        /**
+         * カラムごとの値の式に含まれる最初のバインド変数の位置
+         */
+        final List<Integer>     argStarts   = new ArrayList<Integer>();
+
+        /**
+         * カラムごとの値の式に含まれるバインド変数の数
+         */
+        final List<Integer>     argCounts   = new ArrayList<Integer>();
+
+
+
+        /**
+         * INSERT文の構成要素を作成する。
+         *
+         * @param tableName         テーブル名
+         * @param valuesStartIndex  VALUES句の開始位置
+         */
+        private InsertParts(
+                final String    tableName,
+                final int       valuesStartIndex
+                ) {
+
+            table       = tableName;
+            valuesStart = valuesStartIndex;
+
+        }
+
+
+        /**
+         * 指定されたINSERT文を構成要素へ分解する。
+         *
+         * @param sql               分解するINSERT文 (末尾の文終端は除去済み)
+         * @param tableIndex        テーブル名の開始位置
+         * @param conflictColumns   競合対象カラム名一覧 (正規化した名前)
+         * @return INSERT文の構成要素。分解できない場合、または競合対象カラムがカラム一覧にない場合は null
+         */
+        static InsertParts parse(
+                final String        sql,
+                final int           tableIndex,
+                final List<String>  conflictColumns
+                ) {
+
+            final int   columnsBegin = sql.indexOf('(', tableIndex);    // カラム一覧の開始位置
+
+            // カラム一覧がない場合
+            if (columnsBegin < 0) {
+
+                return null;
+
+            }
+
+            final int   columnsEnd = sql.indexOf(')', columnsBegin);    // カラム一覧の終了位置
+
+            // カラム一覧が閉じていない場合
+            if (columnsEnd < 0) {
+
+                return null;
+
+            }
+
+
+            final String    rest        = sql.substring(columnsEnd + 1);    // カラム一覧の後ろ
+            final String    valuesSql   = rest.trim();                      // VALUES句
+            final Matcher   matcher     = VALUES_PATTERN.matcher(valuesSql);
+
+            // カラム一覧の後ろがVALUES句ではない場合
+            if (!matcher.find()) {
+
+                return null;
+
+            }
+
+
+            final int           valuesStart = columnsEnd + 1 + rest.indexOf(valuesSql);
+            final InsertParts   parts       = new InsertParts(
+                    sql.substring(tableIndex, columnsBegin).trim(),
+                    valuesStart
+                    );
+
+            // カラム一覧を分解する
+            for (final String column : sql.substring(columnsBegin + 1, columnsEnd).split(",")) {
+
+                parts.columns.add(column.trim());
+
+            }
+
+            // 値の式一覧を分解できない場合
+            // または値の数がカラム数と異なる場合
+            if (!parts.parseValues(
+                        valuesSql.substring(matcher.end()).trim(),
+                        countBindVariables(sql, 0, valuesStart)
+                        )
+                    || (parts.values.size() != parts.columns.size())) {
+
+                return null;
+
+            }
+
+            // 競合対象カラム分処理をする
+            for (final String conflictColumn : conflictColumns) {
+
+                // カラム一覧にない場合
+                if (parts.indexOfColumn(conflictColumn) < 0) {
+
+                    return null;
+
+                }
+
+            }
+
+            return parts;
+
+        }
+
+
+        /**
+         * 括弧で囲まれた 1 行分の値を式ごとに分解する。
+         *
+         * @param row       分解する値 (VALUES句の後ろ)
+         * @param argStart  値より前にあるバインド変数の数
+         * @return 分解できた場合は true。括弧で囲まれた 1 行分の値のみではない場合は false
+         */
+        private boolean parseValues(
+                final String    row,
+                final int       argStart
+                ) {
+
+            // 括弧で開始していない場合
+            if (!row.startsWith("(")) {
+
+                return false;
+
+            }
+
+
+            int         depth       = 0;            // 括弧の深さ
+            char        quote       = 0;            // 処理中の引用符 (引用符外の場合は 0)
+            int         valueStart  = 1;            // 処理中の式の開始位置
+            int         argIndex    = argStart;     // 処理中の式の最初のバインド変数の位置
+            int         argCount    = 0;            // 処理中の式のバインド変数の数
+
+            // 全文字分処理をする
+            for (int i = 0; i < row.length(); i++) {
+
+                final char  c = row.charAt(i);
+
+                // 引用符内の場合
+                if (quote != 0) {
+
+                    // 引用符の終了の場合
+                    if (c == quote) {
+
+                        quote = 0;
+
+                    }
+
+                } else if ((c == '\'') || (c == '"') || (c == '`')) {
+
+                    quote = c;
+
+                } else if (c == '[') {
+
+                    quote = ']';
+
+                } else if (c == '?') {
+
+                    argCount++;
+
+                } else if (c == '(') {
+
+                    depth++;
+
+                } else if ((c == ',') && (depth == 1)) {
+
+                    // 式を追加する
+                    addValue(row.substring(valueStart, i), argIndex, argCount);
+                    valueStart  = i + 1;
+                    argIndex   += argCount;
+                    argCount    = 0;
+
+                } else if (c == ')') {
+
+                    depth--;
+
+                    // 先頭の括弧が閉じた場合
+                    if (depth == 0) {
+
+                        // 最後の式を追加し、末尾かどうかを返す
+                        addValue(row.substring(valueStart, i), argIndex, argCount);
+                        return i == (row.length() - 1);
+
+                    }
+
+                }
+
+            }
+
+            // 括弧が閉じていない
+            return false;
+
+        }
+
+
+        /**
+         * 値の式を追加する。
+         *
+         * @param value     値の式
+         * @param argStart  式の最初のバインド変数の位置
+         * @param argCount  式のバインド変数の数
+         */
+        private void addValue(
+                final String    value,
+                final int       argStart,
+                final int       argCount
+                ) {
+
+            values.add(value.trim());
+            argStarts.add(Integer.valueOf(argStart));
+            argCounts.add(Integer.valueOf(argCount));
+
+        }
+
+
+        /**
+         * 指定されたカラムの位置を取得する。
+         *
+         * @param normalizedColumn 正規化したカラム名
+         * @return カラムの位置。ない場合は -1
+         */
+        int indexOfColumn(
+                final String    normalizedColumn
+                ) {
+
+            // 全カラム分処理をする
+            for (int i = 0; i < columns.size(); i++) {
+
+                // カラム名が一致する場合
+                if (normalizeColumn(columns.get(i)).equals(normalizedColumn)) {
+
+                    return i;
+
+                }
+
+            }
+
+            return -1;
+
+        }
+
+
+        /**
+         * 値の式をカンマ区切りで連結する。
+         *
+         * @return 連結した値の式
+         */
+        String joinValues() {
+
+            final StringBuilder     retValues = new StringBuilder();
+
+            // 全ての式分処理をする
+            for (final String value : values) {
+
+                // 区切りを追加する
+                if (retValues.length() > 0) {
+
+                    retValues.append(", ");
+
+                }
+
+                retValues.append(value);
+
+            }
+
+            return retValues.toString();
+
+        }
+
+
+        /**
+         * 指定されたカラムの値の式に含まれるバインド値を追加する。
+         *
+         * @param index     カラムの位置
+         * @param bindArgs  INSERT文のバインド値一覧
+         * @param destArgs  追加先のバインド値一覧
+         */
+        void addBindArgs(
+                final int           index,
+                final Object[]      bindArgs,
+                final List<Object>  destArgs
+                ) {
+
+            final int   start = argStarts.get(index).intValue();
+            final int   count = argCounts.get(index).intValue();
+
+            // 式のバインド変数分処理をする
+            for (int i = start; i < start + count; i++) {
+
+                destArgs.add(bindArgs[i]);
+
+            }
+
+        }
+
+
+    }
+
+
+}